@@ -21,29 +21,74 @@ package org.imsglobal.caliper;
 import com.google.common.base.Function;
 import com.google.common.collect.Maps;
 import org.imsglobal.caliper.clients.CaliperClient;
+import org.imsglobal.caliper.clients.SerializationProfile;
+import org.imsglobal.caliper.clients.SerializedEnvelope;
+import org.imsglobal.caliper.dispatch.Dispatcher;
+import org.imsglobal.caliper.dispatch.FanOut;
+import org.imsglobal.caliper.dispatch.SendResult;
+import org.imsglobal.caliper.events.CaliperEvent;
+import org.imsglobal.caliper.events.CaliperEventType;
 import org.imsglobal.caliper.statistics.Statistics;
+import org.imsglobal.caliper.statistics.StatisticsMap;
 import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Concrete implementation of the Caliper Sensor interface.  Caliper Events and Entity describes
  * are sent via an Envelope.  Serialization and transmission of the Envelope is delegated to
  * one or more registered Clients which in turn delegate serialization and transmission to
  * an associated Requestor.  The delegation chain is thus Sensor to Client to Requestor.
+ * If the Sensor is created with asynchronous delivery enabled, Envelopes sent to all registered
+ * Clients are queued and transmitted by dispatcher threads rather than the caller's thread.  If parallel
+ * delivery is enabled, each Envelope is sent to all registered Clients concurrently.  Clients that share
+ * a serialization profile are handed a single shared serialization of each Envelope.
  */
-public class Sensor {
+public class Sensor implements Closeable {
     private String id;
-    private Map<String, CaliperClient> clients = new HashMap<>();
+    private SensorOptions options;
+    private Map<String, CaliperClient> clients = new ConcurrentHashMap<>();
+    private Dispatcher dispatcher;
+    private FanOut fanOut;
+    private final StatisticsMap eventStatistics = new StatisticsMap();
+
+    private static final Logger log = LoggerFactory.getLogger(Sensor.class);
 
     /**
      * Constructor. Scope is private to force use of the static factory method for instantiating a Sensor.
      */
-    private Sensor(String id) {
+    private Sensor(String id, SensorOptions options) {
         this.id = id;
+        this.options = options;
+
+        if (options.isParallel()) {
+            this.fanOut = new FanOut(id, options.getExecutor(), options.getFanOutThreads(), options.getClientTimeout());
+        }
+
+        if (options.isAsync()) {
+            this.dispatcher = new Dispatcher(id, options.getQueueCapacity(), options.getDispatcherThreads(),
+                new Consumer<Envelope>() {
+                    @Override
+                    public void accept(Envelope envelope) {
+                        deliver(envelope);
+                    }
+                });
+            this.dispatcher.start();
+        }
     }
 
     /**
@@ -54,6 +99,14 @@ public class Sensor {
         return id;
     }
 
+    /**
+     * Get options.
+     * @return options
+     */
+    public SensorOptions getOptions() {
+        return options;
+    }
+
     /**
      * Register a Sensor client.
      * @param client the client object
@@ -113,19 +166,163 @@ public class Sensor {
     }
 
     /**
-     * Delegate serialization and transmission of the Envelope to all registered Clients.
+     * Delegate serialization and transmission of the Envelope to all registered Clients.  If asynchronous
+     * delivery is enabled the Envelope is queued and this method returns without waiting on I/O; Envelopes
+     * that cannot be queued are dropped, counted in the dispatcher statistics and excluded from the event
+     * statistics.  After the Sensor has been shut down queued sends are refused with an IllegalStateException.
+     * If parallel delivery is
+     * enabled the Clients are called concurrently and this method returns once all of them have finished
+     * or timed out, rethrowing the first failure.
      * @param envelope
      */
     public void send(Envelope envelope) {
         if (clients.size() > 0) {
-            for(CaliperClient client: clients.values()){
-                client.send(envelope);
+            if (dispatcher != null) {
+                if (dispatcher.offer(envelope)) {
+                    countEvents(envelope);
+                }
+            } else if (fanOut != null) {
+                SendResult result = sendAll(envelope);
+                for (CompletableFuture<Void> future : result.getFutures().values()) {
+                    try {
+                        future.join();
+                    } catch (CompletionException ce) {
+                        throw (ce.getCause() instanceof RuntimeException)
+                            ? (RuntimeException) ce.getCause() : ce;
+                    }
+                }
+            } else {
+                countEvents(envelope);
+                Map<SerializationProfile, SerializedEnvelope> shared = share(envelope);
+                for(CaliperClient client: clients.values()){
+                    send(client, envelope, shared);
+                }
             }
         } else {
             throw new IllegalStateException("No Clients have been registered.");
         }
     }
 
+    /**
+     * Delegate serialization and transmission of the Envelope to all registered Clients, returning a
+     * future per Client.  With parallel delivery enabled this method returns immediately; otherwise the
+     * Clients are called in turn on the caller's thread and the returned futures are already complete.
+     * Failures are reported through the futures rather than thrown.
+     * @param envelope
+     * @return result
+     */
+    public SendResult sendAll(Envelope envelope) {
+        if (clients.isEmpty()) {
+            throw new IllegalStateException("No Clients have been registered.");
+        }
+
+        countEvents(envelope);
+        return submitAll(envelope);
+    }
+
+    /**
+     * Hand the Envelope to all registered Clients, returning a future per Client.  Events are not counted
+     * here; callers count each Envelope once, when it is accepted for delivery.
+     * @param envelope
+     * @return result
+     */
+    private SendResult submitAll(Envelope envelope) {
+        Map<SerializationProfile, SerializedEnvelope> shared = share(envelope);
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        for (CaliperClient client: clients.values()) {
+            if (fanOut != null) {
+                futures.put(client.getId(), fanOut.submit(client, envelope, shared.get(client.getSerializationProfile())));
+            } else {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                try {
+                    send(client, envelope, shared);
+                    future.complete(null);
+                } catch (RuntimeException re) {
+                    future.completeExceptionally(re);
+                }
+                futures.put(client.getId(), future);
+            }
+        }
+        return new SendResult(futures);
+    }
+
+    /**
+     * Serialize the Envelope once for each serialization profile that is shared by two or more registered
+     * Clients, so that N Clients with the same profile cost one serialization rather than N.  Clients
+     * with a profile of their own serialize the Envelope themselves, which avoids an extra copy.
+     * @param envelope
+     * @return shared serializations keyed by profile
+     */
+    private Map<SerializationProfile, SerializedEnvelope> share(Envelope envelope) {
+        if (clients.size() < 2) {
+            return Collections.emptyMap();
+        }
+
+        Map<SerializationProfile, Integer> counts = new HashMap<>();
+        for (CaliperClient client: clients.values()) {
+            SerializationProfile profile = client.getSerializationProfile();
+            if (profile != null) {
+                Integer count = counts.get(profile);
+                counts.put(profile, (count == null) ? 1 : count + 1);
+            }
+        }
+
+        Map<SerializationProfile, SerializedEnvelope> shared = new HashMap<>();
+        for (Map.Entry<SerializationProfile, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > 1) {
+                try {
+                    shared.put(entry.getKey(), SerializedEnvelope.create(envelope, entry.getKey()));
+                } catch (IOException | UnsupportedOperationException e) {
+                    // Leave the Clients to serialize, and report, on their own.
+                    log.warn("Unable to serialize envelope for " + entry.getKey() + ": " + e.getMessage());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Send the Envelope to a Client, handing it the shared serialization for its profile if there is one.
+     * @param client
+     * @param envelope
+     * @param shared
+     */
+    private static void send(CaliperClient client, Envelope envelope, Map<SerializationProfile, SerializedEnvelope> shared) {
+        SerializedEnvelope serialized = shared.isEmpty() ? null : shared.get(client.getSerializationProfile());
+        if (serialized != null) {
+            client.send(serialized);
+        } else {
+            client.send(envelope);
+        }
+    }
+
+    /**
+     * Dispatcher sink.  Delivers the Envelope to each registered Client so that a failing Client
+     * does not prevent delivery to the others.  The Envelope's events were counted when it was queued.
+     * @param envelope
+     */
+    private void deliver(Envelope envelope) {
+        if (fanOut != null) {
+            for (Map.Entry<String, CompletableFuture<Void>> entry : submitAll(envelope).getFutures().entrySet()) {
+                try {
+                    entry.getValue().join();
+                } catch (CompletionException ce) {
+                    log.warn("Client " + entry.getKey() + " failed to send envelope: " + ce.getCause().getMessage());
+                }
+            }
+            return;
+        }
+
+        Map<SerializationProfile, SerializedEnvelope> shared = share(envelope);
+        for (CaliperClient client: clients.values()) {
+            try {
+                send(client, envelope, shared);
+            } catch (RuntimeException re) {
+                log.warn("Client " + client.getId() + " failed to send envelope: " + re.getMessage());
+            }
+        }
+    }
+
     /**
      * Returns a map where the keys are the identifying objects and the values are the corresponding statistics
      * for that key's Client.
@@ -141,11 +338,77 @@ public class Sensor {
         });
     }
 
+    /**
+     * Returns the number of Envelope data items sent, keyed by event type (e.g. "NavigationEvent").  Data
+     * items that are not events are counted by class name.
+     * @return event statistics
+     */
+    public StatisticsMap getEventStatistics() {
+        return eventStatistics;
+    }
+
+    /**
+     * Count the data items of an Envelope by event type.
+     * @param envelope
+     */
+    private void countEvents(Envelope envelope) {
+        if (envelope.getData() == null) {
+            return;
+        }
+        for (CaliperSendable item : envelope.getData()) {
+            if (item == null) {
+                continue;
+            }
+            CaliperEventType type = (item instanceof CaliperEvent) ? ((CaliperEvent) item).getType() : null;
+            eventStatistics.update(type != null ? type.value() : item.getClass().getSimpleName(), 1);
+        }
+    }
+
+    /**
+     * Returns the statistics of the asynchronous dispatcher (queue depth, dispatched and dropped
+     * Envelopes) or null if the Sensor delivers Envelopes synchronously.
+     * @return dispatcher statistics
+     */
+    @Nullable
+    public Statistics getDispatcherStatistics() {
+        return (dispatcher != null) ? dispatcher.getStatistics() : null;
+    }
+
+    /**
+     * Stop the dispatcher threads, if any, after the queued Envelopes have been delivered, then stop
+     * the parallel delivery pool, if any.
+     * @param timeout
+     * @param unit
+     * @return true if the queue was drained before the timeout elapsed.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        boolean drained = (dispatcher == null) || dispatcher.shutdown(timeout, unit);
+        return ((fanOut == null) || fanOut.shutdown(timeout, unit)) && drained;
+    }
+
+    /**
+     * Stop the dispatcher and parallel delivery threads, if any, waiting up to thirty seconds for queued Envelopes to be delivered.
+     */
+    @Override
+    public void close() {
+        shutdown(30, TimeUnit.SECONDS);
+    }
+
     /**
      * Factory method for creating Sensors.
      * @return Sensors
      */
     public static Sensor create(String id) {
-        return new Sensor(id);
+        return new Sensor(id, SensorOptions.builder().build());
+    }
+
+    /**
+     * Factory method for creating Sensors provisioned with options.
+     * @param id
+     * @param options
+     * @return Sensors
+     */
+    public static Sensor create(String id, SensorOptions options) {
+        return new Sensor(id, options);
     }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper;
+
+import org.imsglobal.caliper.validators.SensorValidator;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Sensor options.  By default a Sensor transmits Envelopes synchronously on the caller's thread.
+ * Enabling asynchronous delivery routes Envelopes through a bounded queue drained by a small pool
+ * of dispatcher threads.  Enabling parallel delivery sends each Envelope to the registered Clients
+ * concurrently on an executor, optionally bounded by a per-Client timeout.
+ */
+public class SensorOptions {
+    private final boolean async;
+    private final int queueCapacity;
+    private final int dispatcherThreads;
+    private final boolean parallel;
+    private final Executor executor;
+    private final int fanOutThreads;
+    private final int clientTimeout;
+
+    /**
+     * Default asynchronous delivery settings.
+     */
+    public static final int QUEUE_CAPACITY = 8192;
+    public static final int DISPATCHER_THREADS = 2;
+
+    /**
+     * Default parallel delivery settings.  A client timeout of 0, in milliseconds, disables the timeout.
+     */
+    public static final int FAN_OUT_THREADS = 4;
+    public static final int CLIENT_TIMEOUT = 0;
+
+    /**
+     * Constructor
+     * @param builder
+     */
+    private SensorOptions(OptionsBuilder builder) {
+        this.async = builder.async;
+        this.queueCapacity = SensorValidator.chkPositiveIntValue(builder.queueCapacity, QUEUE_CAPACITY);
+        this.dispatcherThreads = SensorValidator.chkPositiveIntValue(builder.dispatcherThreads, DISPATCHER_THREADS);
+        this.parallel = builder.parallel || builder.executor != null;
+        this.executor = builder.executor;
+        this.fanOutThreads = SensorValidator.chkPositiveIntValue(builder.fanOutThreads, FAN_OUT_THREADS);
+        this.clientTimeout = Math.max(builder.clientTimeout, CLIENT_TIMEOUT);
+    }
+
+    /**
+     * Deliver Envelopes asynchronously.
+     * @return async flag
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Get the maximum number of Envelopes that can wait for delivery.
+     * @return queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Get the number of dispatcher threads.
+     * @return dispatcher threads
+     */
+    public int getDispatcherThreads() {
+        return dispatcherThreads;
+    }
+
+    /**
+     * Send each Envelope to the registered Clients in parallel.
+     * @return parallel flag
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Get the executor that runs parallel sends; null if the Sensor creates its own pool.
+     * @return executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get the size of the pool the Sensor creates for parallel sends when no executor is supplied.
+     * @return fan-out threads
+     */
+    public int getFanOutThreads() {
+        return fanOutThreads;
+    }
+
+    /**
+     * Get how long a parallel send waits for each Client.
+     * @return client timeout in milliseconds
+     */
+    public int getClientTimeout() {
+        return clientTimeout;
+    }
+
+    /**
+     * Builder class provides a fluid interface for setting options properties.
+     */
+    public static class OptionsBuilder {
+        private boolean async;
+        private int queueCapacity = 0;
+        private int dispatcherThreads = 0;
+        private boolean parallel;
+        private Executor executor;
+        private int fanOutThreads = 0;
+        private int clientTimeout = 0;
+
+        /**
+         * Constructor
+         */
+        public OptionsBuilder() {
+
+        }
+
+        /**
+         * @param async
+         * @return builder
+         */
+        public OptionsBuilder async(final boolean async) {
+            this.async = async;
+            return this;
+        }
+
+        /**
+         * @param queueCapacity
+         * @return builder
+         */
+        public OptionsBuilder queueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @param dispatcherThreads
+         * @return builder
+         */
+        public OptionsBuilder dispatcherThreads(final int dispatcherThreads) {
+            this.dispatcherThreads = dispatcherThreads;
+            return this;
+        }
+
+        /**
+         * @param parallel
+         * @return builder
+         */
+        public OptionsBuilder parallel(final boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        /**
+         * @param executor
+         * @return builder
+         */
+        public OptionsBuilder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param fanOutThreads
+         * @return builder
+         */
+        public OptionsBuilder fanOutThreads(final int fanOutThreads) {
+            this.fanOutThreads = fanOutThreads;
+            return this;
+        }
+
+        /**
+         * @param clientTimeout
+         * @return builder
+         */
+        public OptionsBuilder clientTimeout(final int clientTimeout) {
+            this.clientTimeout = clientTimeout;
+            return this;
+        }
+
+        /**
+         * Client invokes build method in order to create an immutable object.
+         * @return a new instance of Options.
+         */
+        public SensorOptions build() {
+            return new SensorOptions(this);
+        }
+    }
+
+    /**
+     * Static Factory method.
+     * @return new builder instance
+     */
+    public static OptionsBuilder builder() {
+        return new OptionsBuilder();
+    }
+}
@@ -18,18 +18,16 @@
 
 package org.imsglobal.caliper.clients;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
-import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
-import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.imsglobal.caliper.Envelope;
-import org.imsglobal.caliper.databind.JxnCoercibleSimpleModule;
+import org.imsglobal.caliper.databind.JxnObjectMappers;
 import org.imsglobal.caliper.statistics.Statistics;
 import org.imsglobal.caliper.validators.SensorValidator;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * This class provides a skeletal implementation of the Sensor Client interface
@@ -80,23 +78,34 @@ public abstract class AbstractClient implements CaliperClient {
     }
 
     /**
-     * Serialize Caliper envelope.
+     * Serialize Caliper envelope.  Binary data formats cannot be serialized to a String; use the
+     * stream variant for them.
      * @param envelope
      * @return String
      * @throws JsonProcessingException
      */
     protected String serializeEnvelope(Envelope envelope) throws JsonProcessingException {
-        // Create mapper and serialize the envelope
-        SimpleFilterProvider provider = new SimpleFilterProvider()
-            .setFailOnUnknownId(true);
+        // Serialize the envelope with the shared writer so that Jackson's serializer cache stays warm
+        return writer().writeValueAsString(envelope);
+    }
 
-        ObjectMapper mapper = new ObjectMapper()
-            .setDateFormat(new ISO8601DateFormat())
-            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
-            .setFilterProvider(provider)
-            .registerModules(new JodaModule(), new JxnCoercibleSimpleModule());
+    /**
+     * Serialize Caliper envelope in the client's data format into an output stream.  The stream is left open.
+     * @param envelope
+     * @param out
+     * @throws IOException
+     */
+    protected void serializeEnvelope(Envelope envelope, OutputStream out) throws IOException {
+        writer().writeValue(out, envelope);
+    }
 
-        return mapper.writeValueAsString(envelope);
+    /**
+     * Retrieve the shared ObjectWriter matching this client's options.
+     * @return ObjectWriter
+     */
+    protected ObjectWriter writer() {
+        return JxnObjectMappers.writer(options.getDataFormat(), options.isDeduplicateEntities(),
+            options.isHoistContext());
     }
 
     /**
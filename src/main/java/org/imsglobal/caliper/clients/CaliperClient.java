@@ -46,4 +46,21 @@ public interface CaliperClient {
      * @param envelope
      */
     void send(Envelope envelope);
+
+    /**
+     * Retrieve the settings that determine the bytes this client sends.  Clients that return equal
+     * profiles are handed a single shared serialization of each Envelope.
+     * @return profile, or null if the client serializes Envelopes itself
+     */
+    default SerializationProfile getSerializationProfile() {
+        return null;
+    }
+
+    /**
+     * Send an envelope that has already been serialized according to this client's profile.
+     * @param envelope
+     */
+    default void send(SerializedEnvelope envelope) {
+        send(envelope.getEnvelope());
+    }
 }
@@ -0,0 +1,135 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.google.common.base.Ticker;
+import org.imsglobal.caliper.statistics.Statistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-client circuit breaker.  After failureThreshold consecutive failures the breaker opens and
+ * requests fail fast, rather than tying up caller threads in connect and socket timeouts against an
+ * endpoint that is down.  Once openTimeout has elapsed a single trial request is let through
+ * (half-open); its outcome either closes the breaker or opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openTimeoutNanos;
+    private final Statistics statistics;
+    private final Ticker ticker;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long openedAt;
+
+    /**
+     * Constructor
+     * @param failureThreshold consecutive failures that open the breaker
+     * @param openTimeout milliseconds to wait before letting a trial request through
+     * @param statistics receives the state transition counts
+     */
+    public CircuitBreaker(int failureThreshold, int openTimeout, Statistics statistics) {
+        this(failureThreshold, openTimeout, statistics, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructor
+     * @param failureThreshold
+     * @param openTimeout
+     * @param statistics
+     * @param ticker
+     */
+    CircuitBreaker(int failureThreshold, int openTimeout, Statistics statistics, Ticker ticker) {
+        this.failureThreshold = failureThreshold;
+        this.openTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(openTimeout);
+        this.statistics = statistics;
+        this.ticker = ticker;
+    }
+
+    /**
+     * @return current state
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Ask permission to send a request.  Rejections are counted in the BreakerRejected statistic.
+     * @return true if the request may be sent
+     */
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+
+        if (current == State.OPEN && ticker.read() - openedAt >= openTimeoutNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            statistics.updateBreakerHalfOpened(1);
+            return true;
+        }
+
+        statistics.updateBreakerRejected(1);
+        return false;
+    }
+
+    /**
+     * Record a request that reached a healthy endpoint.
+     */
+    public void recordSuccess() {
+        failures.set(0);
+        if (state.get() != State.CLOSED && state.getAndSet(State.CLOSED) != State.CLOSED) {
+            statistics.updateBreakerClosed(1);
+        }
+    }
+
+    /**
+     * Record a request that failed because the endpoint is unreachable or unhealthy.
+     */
+    public void recordFailure() {
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            trip(State.HALF_OPEN);
+        } else if (current == State.CLOSED && failures.incrementAndGet() >= failureThreshold) {
+            trip(State.CLOSED);
+        }
+    }
+
+    /**
+     * Open the breaker.  The open timestamp is published before the state so that a concurrent
+     * allowRequest never measures the timeout from a stale timestamp.
+     * @param from expected current state
+     */
+    private void trip(State from) {
+        openedAt = ticker.read();
+        if (state.compareAndSet(from, State.OPEN)) {
+            failures.set(0);
+            statistics.updateBreakerOpened(1);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.protocol.HTTP;
+import org.imsglobal.caliper.statistics.Statistics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Wraps a request entity and compresses its content as it is streamed to the connection, so no
+ * compressed copy of the body is held in memory.  The compression ratio (compressed/uncompressed)
+ * and the time spent compressing in microseconds, excluding time spent writing to the socket, are
+ * recorded in the supplied Statistics, along with the compressed size.  Callers that read the body
+ * through getContent() instead, such as interceptors or logging, are given a compressed copy held
+ * in memory; that copy is not recorded in the Statistics.
+ */
+public class CompressingEntity extends HttpEntityWrapper {
+    private final Compression compression;
+    private final Statistics statistics;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Constructor
+     * @param entity
+     * @param compression
+     * @param statistics
+     */
+    public CompressingEntity(HttpEntity entity, Compression compression, Statistics statistics) {
+        super(entity);
+        if (compression == Compression.NONE) {
+            throw new IllegalArgumentException("CompressingEntity requires a compression scheme.");
+        }
+        this.compression = compression;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Header getContentEncoding() {
+        return new BasicHeader(HTTP.CONTENT_ENCODING, compression.value());
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+        compress(out, null);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outstream) throws IOException {
+        compress(outstream, statistics);
+    }
+
+    /**
+     * Compress the wrapped entity's content into the output stream.
+     * @param outstream
+     * @param statistics where to record the compression, or null
+     * @throws IOException
+     */
+    private void compress(OutputStream outstream, Statistics statistics) throws IOException {
+        long started = System.nanoTime();
+
+        CountingOutputStream wire = new CountingOutputStream(outstream);
+        Deflater deflater = null;
+        DeflaterOutputStream compressor;
+        if (compression == Compression.GZIP) {
+            compressor = new GZIPOutputStream(wire, BUFFER_SIZE);
+        } else {
+            deflater = new Deflater();
+            compressor = new DeflaterOutputStream(wire, deflater, BUFFER_SIZE);
+        }
+
+        CountingOutputStream source = new CountingOutputStream(compressor);
+        try {
+            wrappedEntity.writeTo(source);
+            compressor.close();
+        } catch (IOException ioe) {
+            try {
+                compressor.close();
+            } catch (IOException ignored) {
+                // Report the original failure.
+            }
+            throw ioe;
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+
+        if (statistics != null && source.count > 0) {
+            long elapsed = System.nanoTime() - started - wire.nanos;
+            statistics.updateCompressionRatio((double) wire.count / source.count);
+            statistics.updateCompressionTime(TimeUnit.NANOSECONDS.toMicros(elapsed));
+            statistics.updateCompressedBytes(wire.count);
+        }
+    }
+
+    /**
+     * Counts bytes and the time spent writing them downstream.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+        private long nanos;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long started = System.nanoTime();
+            out.write(b);
+            nanos += System.nanoTime() - started;
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long started = System.nanoTime();
+            out.write(b, off, len);
+            nanos += System.nanoTime() - started;
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The connection owns the underlying stream.
+            flush();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.imsglobal.caliper.Envelope;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Request entity that serializes the Envelope straight from a Jackson JsonGenerator into the
+ * connection output stream using chunked transfer encoding.  No intermediate String or byte[]
+ * copy of the payload is created.  The entity is repeatable: each writeTo() serializes anew.
+ */
+public class EnvelopeEntity extends AbstractHttpEntity {
+    private final ObjectWriter writer;
+    private final Envelope envelope;
+
+    /**
+     * Constructor
+     * @param writer
+     * @param envelope
+     */
+    public EnvelopeEntity(ObjectWriter writer, Envelope envelope) {
+        this.writer = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.envelope = envelope;
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return new ByteArrayInputStream(writer.writeValueAsBytes(envelope));
+    }
+
+    @Override
+    public void writeTo(OutputStream outstream) throws IOException {
+        writer.writeValue(outstream, envelope);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
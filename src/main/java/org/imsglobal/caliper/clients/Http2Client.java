@@ -0,0 +1,270 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncRequestBuilder;
+import org.apache.hc.core5.http.nio.support.BasicResponseConsumer;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.imsglobal.caliper.Envelope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * HTTP/2 client.  Envelope POSTs are multiplexed as concurrent streams over a single connection per
+ * endpoint instead of occupying one HTTP/1.1 connection each.  Cleartext (http) endpoints are spoken
+ * to with HTTP/2 prior knowledge (h2c); TLS endpoints negotiate h2 via ALPN.  The number of streams
+ * in flight is capped by maxConcurrentStreams; further sends wait for a stream to become free.
+ * Http2Client requires Apache HttpClient 5 (org.apache.httpcomponents.client5:httpclient5), an optional
+ * dependency that applications using this client must declare themselves.
+ */
+public class Http2Client extends AbstractClient implements Closeable {
+    private final CloseableHttpAsyncClient httpClient;
+    private final Semaphore streams;
+    private final SerializationProfile profile;
+    private final ContentType contentType;
+
+    private static final Logger log = LoggerFactory.getLogger(Http2Client.class);
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory method for instantiating an
+     * Http2Client.
+     * @param id
+     * @param options
+     */
+    private Http2Client(String id, HttpClientOptions options) {
+        super(id, options);
+
+        this.streams = new Semaphore(options.getMaxConcurrentStreams());
+        this.profile = new SerializationProfile(options.getDataFormat(), options.getCompression(),
+            options.isDeduplicateEntities(), options.isHoistContext());
+        this.contentType = ContentType.parse(options.getContentType());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.ofMilliseconds(options.getConnRequestTimeout()))
+            .setResponseTimeout(Timeout.ofMilliseconds(options.getSocketTimeout()))
+            .build();
+
+        this.httpClient = H2AsyncClientBuilder.create()
+            .setH2Config(H2Config.custom()
+                .setPushEnabled(false)
+                .setMaxConcurrentStreams(options.getMaxConcurrentStreams())
+                .build())
+            .setIOReactorConfig(IOReactorConfig.custom()
+                .setSoTimeout(Timeout.ofMilliseconds(options.getSocketTimeout()))
+                .build())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(options.getConnTimeout()))
+                .setSocketTimeout(Timeout.ofMilliseconds(options.getSocketTimeout()))
+                .build())
+            .setDefaultRequestConfig(requestConfig)
+            .evictIdleConnections(TimeValue.ofMilliseconds(options.getIdleConnectionTimeout()))
+            .build();
+        this.httpClient.start();
+    }
+
+    /**
+     * Post envelope and wait for the response.  Concurrent callers share the connection.
+     * @param envelope
+     */
+    @Override
+    public void send(Envelope envelope) {
+        await(sendAsync(envelope));
+    }
+
+    /**
+     * Post an Envelope that has already been serialized according to this client's profile and wait
+     * for the response.
+     * @param serialized
+     */
+    @Override
+    public void send(SerializedEnvelope serialized) {
+        await(sendAsync(serialized));
+    }
+
+    /**
+     * Post envelope without waiting for the response.  The returned future fails with a RuntimeException
+     * if the endpoint answers with an error status, or with the I/O failure.
+     * @param envelope
+     * @return future completed when the response has been received
+     */
+    public CompletableFuture<Void> sendAsync(Envelope envelope) {
+        long started = System.nanoTime();
+        try {
+            SerializedEnvelope serialized = SerializedEnvelope.create(envelope, profile);
+            this.getStatistics().updateSerializationTime(HttpClient.micros(started));
+            return transmit(serialized, started);
+        } catch (IOException ioe) {
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            result.completeExceptionally(ioe);
+            return result;
+        }
+    }
+
+    /**
+     * Post a serialized Envelope without waiting for the response.  Blocks while maxConcurrentStreams
+     * requests are already in flight.
+     * @param serialized
+     * @return future completed when the response has been received
+     */
+    public CompletableFuture<Void> sendAsync(SerializedEnvelope serialized) {
+        if (!profile.equals(serialized.getProfile())) {
+            return sendAsync(serialized.getEnvelope());
+        }
+        return transmit(serialized, System.nanoTime());
+    }
+
+    /**
+     * Post a serialized Envelope, recording size and latency statistics.
+     * @param serialized
+     * @param started System.nanoTime() when the send began
+     * @return future completed when the response has been received
+     */
+    private CompletableFuture<Void> transmit(SerializedEnvelope serialized, final long started) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            streams.acquire();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(ie);
+            return result;
+        }
+
+        try {
+            AsyncRequestBuilder request = AsyncRequestBuilder.post(this.getOptions().getHost())
+                .addHeader(HttpHeaders.AUTHORIZATION, this.getOptions().getApiKey());
+
+            this.getStatistics().updateSerializedBytes(serialized.getContentLength());
+
+            Compression compression = profile.getCompression();
+            if (compression != Compression.NONE
+                    && serialized.getContentLength() >= this.getOptions().getCompressionThreshold()) {
+                byte[] compressed = serialized.compressed(this.getStatistics());
+                request.addHeader(HttpHeaders.CONTENT_ENCODING, compression.value())
+                    .setEntity(AsyncEntityProducers.create(compressed, contentType));
+            } else {
+                request.setEntity(AsyncEntityProducers.create(serialized.bytes(), contentType));
+            }
+
+            final long requested = System.nanoTime();
+
+            httpClient.execute(request.build(), new BasicResponseConsumer<>(new DiscardingEntityConsumer<Void>()),
+                new FutureCallback<Message<HttpResponse, Void>>() {
+                    @Override
+                    public void completed(Message<HttpResponse, Void> message) {
+                        streams.release();
+                        getStatistics().updateRoundTrip(HttpClient.micros(requested));
+                        getStatistics().updateSendLatency(HttpClient.micros(started));
+
+                        int statusCode = message.getHead().getCode();
+                        if (statusCode >= 200 && statusCode <= 202) {
+                            updateStatistics(Boolean.TRUE);
+                            result.complete(null);
+                        } else {
+                            updateStatistics(Boolean.FALSE);
+                            result.completeExceptionally(
+                                new RuntimeException("WARN: HTTP POST failed; status code=" + statusCode));
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        streams.release();
+                        getStatistics().updateSendLatency(HttpClient.micros(started));
+                        updateStatistics(Boolean.FALSE);
+                        result.completeExceptionally(ex);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        streams.release();
+                        updateStatistics(Boolean.FALSE);
+                        result.cancel(false);
+                    }
+                });
+        } catch (IOException | RuntimeException e) {
+            streams.release();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieve the serialization profile, derived from the data format and compression options.
+     * @return profile
+     */
+    @Override
+    public SerializationProfile getSerializationProfile() {
+        return profile;
+    }
+
+    /**
+     * Wait for a send to complete.  Error statuses are rethrown; I/O failures are logged, as in
+     * {@link HttpClient}.
+     * @param future
+     */
+    private void await(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException ce) {
+            if (ce.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ce.getCause();
+            }
+            log.warn("HTTP/2 POST failed: " + ce.getCause().getMessage(), ce.getCause());
+        }
+    }
+
+    /**
+     * Close the connection after in-flight streams have completed.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * Factory method for creating HTTP/2 clients.
+     * @param id
+     * @param options
+     * @return Http2Client
+     */
+    public static Http2Client create(String id, HttpClientOptions options) {
+        return new Http2Client(id, options);
+    }
+}
@@ -18,26 +18,67 @@
 
 package org.imsglobal.caliper.clients;
 
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.databind.ReusableByteArrayOutputStream;
+import org.imsglobal.caliper.spool.Spool;
+import org.imsglobal.caliper.spool.SpoolOptions;
+import org.imsglobal.caliper.spool.SpoolReplayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Provisions the Sensor with an HttpClient that binds to one or more Requestors.
+ * Provisions the Sensor with an HttpClient that binds to one or more Requestors.  Each HttpClient owns
+ * a pool of persistent connections sized and timed according to its HttpClientOptions, so that many
+ * threads can POST concurrently without paying for a new TCP/TLS handshake on every Envelope.
+ * Optionally, undeliverable Envelopes are appended to a local Spool and replayed in order by a
+ * background SpoolReplayer once the endpoint recovers.  Failed POSTs may be retried with jittered
+ * exponential backoff, and a CircuitBreaker makes callers fail fast while the endpoint is unhealthy.
  */
-public class HttpClient extends AbstractClient {
-    private static CloseableHttpClient httpClient;
-    private static CloseableHttpResponse response = null;
+public class HttpClient extends AbstractClient implements Closeable {
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final Spool spool;
+    private final SpoolReplayer replayer;
+    private final CircuitBreaker breaker;
+    private final SerializationProfile profile;
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Per-thread serialization buffers, reused across Envelopes.
+     */
+    private static final ThreadLocal<ReusableByteArrayOutputStream> BUFFERS =
+        new ThreadLocal<ReusableByteArrayOutputStream>() {
+            @Override
+            protected ReusableByteArrayOutputStream initialValue() {
+                return new ReusableByteArrayOutputStream(BUFFER_SIZE, MAX_RETAINED_BUFFER_SIZE);
+            }
+        };
 
     private static final Logger log = LoggerFactory.getLogger(HttpClient.class);
 
@@ -48,71 +89,211 @@ public class HttpClient extends AbstractClient {
      */
     private HttpClient(String id, HttpClientOptions options) {
         super(id, options);
-        initialize();
-    }
 
-    /**
-     * Init method
-     */
-    public static synchronized void initialize() {
-        if (httpClient == null) {
-            httpClient = HttpClients.createDefault();
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        this.connectionManager.setMaxTotal(options.getMaxConnections());
+        this.connectionManager.setDefaultMaxPerRoute(options.getMaxConnectionsPerRoute());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(options.getConnTimeout())
+            .setConnectionRequestTimeout(options.getConnRequestTimeout())
+            .setSocketTimeout(options.getSocketTimeout())
+            .build();
+
+        this.httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(keepAliveStrategy(options.getKeepAlive()))
+            .evictExpiredConnections()
+            .evictIdleConnections(options.getIdleConnectionTimeout(), TimeUnit.MILLISECONDS)
+            .build();
+
+        this.profile = new SerializationProfile(options.getDataFormat(), options.getCompression(),
+            options.isDeduplicateEntities(), options.isHoistContext());
+
+        this.breaker = (options.getCircuitBreakerThreshold() > 0)
+            ? new CircuitBreaker(options.getCircuitBreakerThreshold(), options.getCircuitBreakerTimeout(), getStatistics())
+            : null;
+
+        SpoolOptions spoolOptions = options.getSpoolOptions();
+        if (spoolOptions != null) {
+            try {
+                this.spool = Spool.open(spoolOptions);
+            } catch (IOException ioe) {
+                throw new IllegalStateException("Unable to open spool " + spoolOptions.getDirectory(), ioe);
+            }
+            this.replayer = new SpoolReplayer(id, spool, new Spool.Sink() {
+                @Override
+                public boolean deliver(byte[] payload) {
+                    return replay(payload);
+                }
+            });
+            this.replayer.start(spoolOptions.getReplayInterval(), TimeUnit.MILLISECONDS);
+        } else {
+            this.spool = null;
+            this.replayer = null;
         }
     }
 
     /**
-     * Check initialized instance.
+     * Keep-alive strategy that honors the endpoint's Keep-Alive timeout header and otherwise falls
+     * back to the configured keep-alive duration.
+     * @param defaultKeepAlive
+     * @return strategy
      */
-    private static void checkInitialized() {
-        if (httpClient == null) {
-            throw new IllegalStateException("HttpClient is not initialized.");
-        }
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(final long defaultKeepAlive) {
+        return new ConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+                while (it.hasNext()) {
+                    HeaderElement element = it.nextElement();
+                    if (element.getValue() != null && "timeout".equalsIgnoreCase(element.getName())) {
+                        try {
+                            return Long.parseLong(element.getValue()) * 1000;
+                        } catch (NumberFormatException ignored) {
+                            break;
+                        }
+                    }
+                }
+                return defaultKeepAlive;
+            }
+        };
     }
 
     /**
-     * Post envelope.
+     * Post envelope.  Failed attempts are repeated according to the RetryPolicy, if one is configured,
+     * and no request is made while the circuit breaker is open.  If a spool is configured, Envelopes
+     * that still cannot be delivered because of an I/O failure or a transient HTTP status are spooled
+     * for later replay instead of being lost.  The entity is created before the circuit breaker is
+     * consulted, so that a serialization failure cannot strand a half-open breaker's trial request.
      * @param envelope
      * @return status
      */
     @Override
     public void send(Envelope envelope) {
-        boolean status = Boolean.FALSE;
-
+        long started = System.nanoTime();
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Entering send()...");
             }
 
-            // Check if HttpClient is initialized.
-            checkInitialized();
+            HttpEntity entity = createEntity(envelope);
+            if (!allowRequest(envelope, null)) {
+                return;
+            }
 
-            // Serialize the envelope
-            String json = this.serializeEnvelope(envelope);
+            transmit(envelope, null, entity);
+        } catch (ClientProtocolException cpe) {
+            cpe.printStackTrace();
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        } finally {
+            this.getStatistics().updateSendLatency(micros(started));
+        }
+    }
 
-            // Prep the post
-            HttpPost post = new HttpPost(super.getOptions().getHost());
-            post.setHeader("Authorization", this.getOptions().getApiKey());
-            post.setHeader("Content-Type", this.getOptions().getContentType());
-            post.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+    /**
+     * Post an Envelope that the Sensor has already serialized according to this client's profile,
+     * shared with other clients that have the same profile.  Retry, circuit breaker and spool
+     * handling are the same as for {@link #send(Envelope)}.
+     * @param serialized
+     */
+    @Override
+    public void send(SerializedEnvelope serialized) {
+        if (!getSerializationProfile().equals(serialized.getProfile())) {
+            send(serialized.getEnvelope());
+            return;
+        }
 
-            // Execute POST
-            response = httpClient.execute(post);
+        long started = System.nanoTime();
+        try {
+            HttpEntity entity = createEntity(serialized);
+            if (!allowRequest(null, serialized)) {
+                return;
+            }
 
-            // HTTP Response code
-            int statusCode = response.getStatusLine().getStatusCode();
-            if (statusCode < 200 || statusCode > 202) {
-                response.close();
+            transmit(serialized.getEnvelope(), serialized, entity);
+        } catch (ClientProtocolException cpe) {
+            cpe.printStackTrace();
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        } finally {
+            this.getStatistics().updateSendLatency(micros(started));
+        }
+    }
+
+    /**
+     * Retrieve the serialization profile, derived from the data format and compression options.
+     * @return profile
+     */
+    @Override
+    public SerializationProfile getSerializationProfile() {
+        return profile;
+    }
+
+    /**
+     * Consult the circuit breaker.  While it is open the Envelope is spooled if possible; otherwise the
+     * caller fails fast.
+     * @param envelope
+     * @param serialized shared serialization of the Envelope, or null
+     * @return true if the request may be sent; false if the Envelope was spooled instead
+     */
+    private boolean allowRequest(Envelope envelope, SerializedEnvelope serialized) {
+        if (breaker == null || breaker.allowRequest()) {
+            return true;
+        }
+
+        // Update statistics
+        updateStatistics(Boolean.FALSE);
+
+        if (spool(envelope, serialized)) {
+            return false;
+        }
+        throw new RuntimeException("WARN: HTTP POST rejected; circuit breaker open");
+    }
+
+    /**
+     * POST the entity, retrying and spooling as configured.  Every attempt records its outcome with the
+     * circuit breaker, including attempts that fail with an unexpected runtime exception.
+     * @param envelope
+     * @param serialized shared serialization of the Envelope, or null
+     * @param entity
+     * @throws IOException if the final attempt failed and the Envelope could not be spooled
+     */
+    private void transmit(Envelope envelope, SerializedEnvelope serialized, HttpEntity entity) throws IOException {
+        RetryPolicy retryPolicy = this.getOptions().getRetryPolicy();
+
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse response;
+            try {
+                response = post(entity);
+            } catch (RuntimeException re) {
+                recordFailure();
+                updateStatistics(Boolean.FALSE);
+                throw re;
+            } catch (IOException ioe) {
+                recordFailure();
+
+                if (retryPolicy != null && retryPolicy.isRetryOnIOException()
+                        && awaitRetry(retryPolicy.delay(attempt, null))) {
+                    continue;
+                }
 
                 // Update statistics
                 updateStatistics(Boolean.FALSE);
 
-                throw new RuntimeException("WARN: HTTP POST failed; status code=" + statusCode);
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug(response.getStatusLine().toString());
-                    log.debug(EntityUtils.toString(response.getEntity()));
+                if (spool(envelope, serialized)) {
+                    log.warn("HTTP POST failed; envelope spooled for replay: " + ioe.getMessage());
+                    return;
                 }
-                response.close();
+                throw ioe;
+            }
+
+            // HTTP Response code
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (isSuccess(statusCode)) {
+                recordSuccess();
 
                 // Update statistics
                 updateStatistics(Boolean.TRUE);
@@ -120,12 +301,267 @@ public class HttpClient extends AbstractClient {
                 if (log.isDebugEnabled()) {
                     log.debug("Exiting send()...");
                 }
+                return;
             }
-        } catch (ClientProtocolException cpe) {
-            cpe.printStackTrace();
+
+            if (isTransient(statusCode)) {
+                recordFailure();
+            } else {
+                // The endpoint is up; it rejected this particular request.
+                recordSuccess();
+            }
+
+            if (retryPolicy != null && retryPolicy.isRetryable(statusCode)) {
+                Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+                long delay = retryPolicy.delay(attempt, (retryAfter != null) ? retryAfter.getValue() : null);
+                if (awaitRetry(delay)) {
+                    continue;
+                }
+            }
+
+            // Update statistics
+            updateStatistics(Boolean.FALSE);
+
+            if (isTransient(statusCode) && spool(envelope, serialized)) {
+                log.warn("HTTP POST failed; envelope spooled for replay; status code=" + statusCode);
+                return;
+            }
+            throw new RuntimeException("WARN: HTTP POST failed; status code=" + statusCode);
+        }
+    }
+
+    /**
+     * Wait before the next attempt.  No retry is made if the policy gave up, if the circuit breaker
+     * has opened in the meantime, or if the thread is interrupted while waiting.
+     * @param delay milliseconds, or -1 if the policy gave up
+     * @return true if the request should be attempted again
+     */
+    private boolean awaitRetry(long delay) {
+        if (delay < 0 || (breaker != null && breaker.getState() != CircuitBreaker.State.CLOSED)) {
+            return false;
+        }
+
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        this.getStatistics().updateRetries(1);
+        return true;
+    }
+
+    private void recordSuccess() {
+        if (breaker != null) {
+            breaker.recordSuccess();
+        }
+    }
+
+    private void recordFailure() {
+        if (breaker != null) {
+            breaker.recordFailure();
+        }
+    }
+
+    /**
+     * Execute a POST of the entity to the configured host.  The returned response has been fully
+     * consumed and closed; only its status line and headers remain available.
+     * @param entity
+     * @return response
+     * @throws IOException
+     */
+    private HttpResponse post(HttpEntity entity) throws IOException {
+        HttpPost post = new HttpPost(this.getOptions().getHost());
+        post.setHeader("Authorization", this.getOptions().getApiKey());
+        post.setHeader("Content-Type", this.getOptions().getContentType());
+        post.setEntity(entity);
+
+        // Execute POST; the response is confined to this call so that concurrent senders do not share state.
+        long started = System.nanoTime();
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            if (log.isDebugEnabled()) {
+                log.debug(response.getStatusLine().toString());
+                if (response.getEntity() != null) {
+                    log.debug(EntityUtils.toString(response.getEntity()));
+                }
+            }
+
+            // Fully consume the response so the connection can be returned to the pool.
+            EntityUtils.consume(response.getEntity());
+            this.getStatistics().updateRoundTrip(micros(started));
+
+            return response;
+        }
+    }
+
+    /**
+     * Append the serialized Envelope to the spool, if one is configured.  A shared serialization is
+     * copied without serializing again; otherwise the Envelope is serialized afresh, since this thread's
+     * buffer may not hold it yet (or may still hold a previous Envelope) when the circuit breaker is open.
+     * @param envelope
+     * @param serialized shared serialization of the Envelope, or null
+     * @return true if the Envelope was spooled
+     */
+    private boolean spool(Envelope envelope, SerializedEnvelope serialized) {
+        if (spool == null) {
+            return false;
+        }
+
+        try {
+            boolean spooled;
+            if (serialized != null) {
+                spooled = spool.append(serialized.bytes());
+            } else {
+                spooled = spool.append(writer().writeValueAsBytes(envelope));
+            }
+
+            if (spooled) {
+                this.getStatistics().updateSpooled(1);
+            } else {
+                this.getStatistics().updateSpoolRejected(1);
+            }
+            return spooled;
         } catch (IOException ioe) {
-            ioe.printStackTrace();
+            log.warn("Unable to spool envelope: " + ioe.getMessage(), ioe);
+            this.getStatistics().updateSpoolRejected(1);
+            return false;
+        }
+    }
+
+    /**
+     * Replay a spooled payload.  Replay respects the circuit breaker and, once the breaker's timeout
+     * has elapsed, serves as its trial request.  Payloads rejected with a non-transient status are discarded so that
+     * they do not block the payloads behind them.
+     * @param payload
+     * @return true if the payload can be removed from the spool
+     */
+    private boolean replay(byte[] payload) {
+        if (breaker != null && !breaker.allowRequest()) {
+            return false;
+        }
+
+        int statusCode;
+        try {
+            statusCode = post(compress(new ByteArrayEntity(payload, ContentType.APPLICATION_JSON))).getStatusLine().getStatusCode();
+        } catch (IOException | RuntimeException e) {
+            recordFailure();
+            return false;
+        }
+
+        if (isSuccess(statusCode)) {
+            recordSuccess();
+            this.getStatistics().updateReplayed(1);
+            return true;
+        } else if (isTransient(statusCode)) {
+            recordFailure();
+            return false;
+        } else {
+            recordSuccess();
+            log.warn("Discarding spooled envelope; status code=" + statusCode);
+            this.getStatistics().updateFailed(1);
+            return true;
+        }
+    }
+
+    /**
+     * @param started System.nanoTime() at the start of the interval
+     * @return elapsed microseconds
+     */
+    static long micros(long started) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+    }
+
+    /**
+     * @param statusCode
+     * @return true if the status indicates the Envelope was accepted
+     */
+    private static boolean isSuccess(int statusCode) {
+        return statusCode >= 200 && statusCode <= 202;
+    }
+
+    /**
+     * @param statusCode
+     * @return true if the request may succeed if repeated later
+     */
+    private static boolean isTransient(int statusCode) {
+        return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * Create the request entity.  The Envelope is either streamed into the request with chunked
+     * transfer encoding or serialized into this thread's reusable buffer, avoiding the
+     * intermediate String.  The entity is compressed if compression is enabled and the body
+     * reaches the compression threshold.
+     * @param envelope
+     * @return entity
+     * @throws IOException
+     */
+    private HttpEntity createEntity(Envelope envelope) throws IOException {
+        HttpEntity entity;
+        if (this.getOptions().isChunked()) {
+            entity = new EnvelopeEntity(writer(), envelope);
+        } else {
+            ReusableByteArrayOutputStream buffer = BUFFERS.get();
+            buffer.reset();
+            long started = System.nanoTime();
+            this.serializeEnvelope(envelope, buffer);
+            this.getStatistics().updateSerializationTime(micros(started));
+            this.getStatistics().updateSerializedBytes(buffer.size());
+            entity = new ByteArrayEntity(buffer.buffer(), 0, buffer.size(), ContentType.APPLICATION_JSON);
+        }
+        return compress(entity);
+    }
+
+    /**
+     * Create the request entity for a shared serialization.  The shared compressed form is used if
+     * compression is enabled and the body reaches the compression threshold.
+     * @param serialized
+     * @return entity
+     * @throws IOException
+     */
+    private HttpEntity createEntity(SerializedEnvelope serialized) throws IOException {
+        this.getStatistics().updateSerializedBytes(serialized.getContentLength());
+
+        Compression compression = serialized.getProfile().getCompression();
+        if (compression == Compression.NONE || serialized.getContentLength() < this.getOptions().getCompressionThreshold()) {
+            return new ByteArrayEntity(serialized.bytes(), ContentType.APPLICATION_JSON);
+        }
+
+        byte[] compressed = serialized.compressed(this.getStatistics());
+        ByteArrayEntity entity = new ByteArrayEntity(compressed, ContentType.APPLICATION_JSON);
+        entity.setContentEncoding(compression.value());
+        return entity;
+    }
+
+    /**
+     * Compress the entity if compression is enabled and the body reaches the compression threshold.
+     * Entities of unknown length are always compressed.
+     * @param entity
+     * @return entity
+     */
+    private HttpEntity compress(HttpEntity entity) {
+        Compression compression = this.getOptions().getCompression();
+        if (compression != Compression.NONE && (entity.getContentLength() < 0
+                || entity.getContentLength() >= this.getOptions().getCompressionThreshold())) {
+            return new CompressingEntity(entity, compression, this.getStatistics());
+        }
+        return entity;
+    }
+
+    /**
+     * Release pooled connections, stop the idle connection evictor and the spool replayer, and close the spool.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (replayer != null) {
+            replayer.close();
+        }
+        if (spool != null) {
+            spool.close();
         }
+        httpClient.close();
     }
 
     /**
@@ -18,7 +18,9 @@
 
 package org.imsglobal.caliper.clients;
 
+import org.imsglobal.caliper.config.DataFormat;
 import org.imsglobal.caliper.config.Timeout;
+import org.imsglobal.caliper.spool.SpoolOptions;
 import org.imsglobal.caliper.validators.SensorValidator;
 
 /**
@@ -27,16 +29,65 @@ import org.imsglobal.caliper.validators.SensorValidator;
 public class HttpClientOptions implements CaliperClientOptions {
     private final String apiKey;
     private final int connectionTimeout;
+    private final int connectionRequestTimeout;
     private final String contentType;
     private final String host;
     private final int socketTimeout;
+    private final DataFormat dataFormat;
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final int keepAlive;
+    private final int idleConnectionTimeout;
+    private final int maxConcurrentStreams;
+    private final Compression compression;
+    private final int compressionThreshold;
+    private final boolean chunked;
+    private final boolean deduplicateEntities;
+    private final boolean hoistContext;
+    private final SpoolOptions spoolOptions;
+    private final RetryPolicy retryPolicy;
+    private final int circuitBreakerThreshold;
+    private final int circuitBreakerTimeout;
 
     /**
      * Default timeout settings.
      */
     public static final int CONNECTION_TIMEOUT = Timeout.CONNECTION_TIMEOUT.value();
+    public static final int CONNECTION_REQUEST_TIMEOUT = Timeout.CONNECTION_REQUESTOR_TIMEOUT.value();
     public static final int SOCKET_TIMEOUT = Timeout.SOCKET_TIMEOUT.value();
 
+    /**
+     * Default connection pool settings.  Keep-alive and idle timeouts are expressed in milliseconds.
+     */
+    public static final int MAX_CONNECTIONS = 50;
+    public static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+    public static final int KEEP_ALIVE = 30000;
+    public static final int IDLE_CONNECTION_TIMEOUT = 60000;
+
+    /**
+     * Default maximum number of concurrent HTTP/2 streams per client.
+     */
+    public static final int MAX_CONCURRENT_STREAMS = 100;
+
+    /**
+     * Default data format of the request body.
+     */
+    public static final DataFormat DATA_FORMAT = DataFormat.CALIPER_JSONLD;
+
+    /**
+     * Default request body compression settings.  Bodies smaller than the threshold (in bytes) are
+     * sent uncompressed.
+     */
+    public static final Compression COMPRESSION = Compression.NONE;
+    public static final int COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * Default circuit breaker settings.  A threshold of 0 disables the breaker; the timeout, in
+     * milliseconds, is how long an open breaker fails fast before letting a trial request through.
+     */
+    public static final int CIRCUIT_BREAKER_THRESHOLD = 0;
+    public static final int CIRCUIT_BREAKER_TIMEOUT = 30000;
+
     /**
      * HTTP Request Header field values.  Update faux Host value.
      */
@@ -52,10 +103,26 @@ public class HttpClientOptions implements CaliperClientOptions {
         SensorValidator.chkApiKey(builder.apiKey);
 
         this.apiKey = builder.apiKey;
-        this.connectionTimeout = SensorValidator.chkIntValue(builder.connectionTimeout, CONNECTION_TIMEOUT);
-        this.contentType = SensorValidator.chkStrValue(builder.contentType, HTTP_CONTENT_TYPE);
+        this.connectionTimeout = SensorValidator.chkPositiveIntValue(builder.connectionTimeout, CONNECTION_TIMEOUT);
+        this.connectionRequestTimeout = SensorValidator.chkPositiveIntValue(builder.connectionRequestTimeout, CONNECTION_REQUEST_TIMEOUT);
+        this.dataFormat = (builder.dataFormat != null) ? builder.dataFormat : DATA_FORMAT;
+        this.contentType = SensorValidator.chkStrValue(builder.contentType, dataFormat.getContentType());
         this.host = SensorValidator.chkStrValue(builder.host, HTTP_HOST);
-        this.socketTimeout = SensorValidator.chkIntValue(builder.socketTimeout, SOCKET_TIMEOUT);
+        this.socketTimeout = SensorValidator.chkPositiveIntValue(builder.socketTimeout, SOCKET_TIMEOUT);
+        this.maxConnections = SensorValidator.chkPositiveIntValue(builder.maxConnections, MAX_CONNECTIONS);
+        this.maxConnectionsPerRoute = SensorValidator.chkPositiveIntValue(builder.maxConnectionsPerRoute, MAX_CONNECTIONS_PER_ROUTE);
+        this.keepAlive = SensorValidator.chkPositiveIntValue(builder.keepAlive, KEEP_ALIVE);
+        this.idleConnectionTimeout = SensorValidator.chkPositiveIntValue(builder.idleConnectionTimeout, IDLE_CONNECTION_TIMEOUT);
+        this.maxConcurrentStreams = SensorValidator.chkPositiveIntValue(builder.maxConcurrentStreams, MAX_CONCURRENT_STREAMS);
+        this.compression = (builder.compression != null) ? builder.compression : COMPRESSION;
+        this.compressionThreshold = (builder.compressionThreshold >= 0) ? builder.compressionThreshold : COMPRESSION_THRESHOLD;
+        this.chunked = builder.chunked;
+        this.deduplicateEntities = builder.deduplicateEntities;
+        this.hoistContext = builder.hoistContext;
+        this.spoolOptions = builder.spoolOptions;
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitBreakerThreshold = Math.max(builder.circuitBreakerThreshold, CIRCUIT_BREAKER_THRESHOLD);
+        this.circuitBreakerTimeout = SensorValidator.chkPositiveIntValue(builder.circuitBreakerTimeout, CIRCUIT_BREAKER_TIMEOUT);
     }
 
     /**
@@ -75,7 +142,15 @@ public class HttpClientOptions implements CaliperClientOptions {
     }
 
     /**
-     * Get the HTTP Content-Type value.
+     * Get the timeout for leasing a connection from the connection pool.
+     * @return connection request timeout
+     */
+    public int getConnRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    /**
+     * Get the HTTP Content-Type value; defaults to the data format's content type.
      * @return HTTP Content-Type value
      */
     public String getContentType() {
@@ -98,15 +173,155 @@ public class HttpClientOptions implements CaliperClientOptions {
         return socketTimeout;
     }
 
+    /**
+     * Get the data format of the request body.
+     * @return data format
+     */
+    public DataFormat getDataFormat() {
+        return dataFormat;
+    }
+
+    /**
+     * Get the maximum number of pooled connections.
+     * @return max connections
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Get the maximum number of pooled connections per route.
+     * @return max connections per route
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * Get the keep-alive duration applied when the endpoint does not supply a Keep-Alive header.
+     * @return keep-alive in milliseconds
+     */
+    public int getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Get the time after which idle pooled connections are evicted.
+     * @return idle connection timeout in milliseconds
+     */
+    public int getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+
+    /**
+     * Get the maximum number of requests an HTTP/2 client multiplexes over its connection at once.
+     * @return max concurrent streams
+     */
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    /**
+     * Get the request body compression scheme.
+     * @return compression
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Get the minimum request body size, in bytes, that is compressed.
+     * @return compression threshold
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Stream the serialized Envelope into the request with chunked transfer encoding rather than
+     * serializing it into a reusable per-thread buffer first.  Chunked requests do not know their
+     * size up front, so the compression threshold does not apply to them.
+     * @return chunked flag
+     */
+    public boolean isChunked() {
+        return chunked;
+    }
+
+    /**
+     * Write each entity in full only the first time it appears in an Envelope and as its id thereafter,
+     * as if the later occurrences had been coerced to their id.
+     * @return entity de-duplication flag
+     */
+    public boolean isDeduplicateEntities() {
+        return deduplicateEntities;
+    }
+
+    /**
+     * Write the default JSON-LD context once on the Envelope and omit identical nested contexts, which
+     * JSON-LD processors inherit from the Envelope.
+     * @return context hoisting flag
+     */
+    public boolean isHoistContext() {
+        return hoistContext;
+    }
+
+    /**
+     * Get the spool settings for undeliverable Envelopes; null if spooling is disabled.
+     * @return spool options
+     */
+    public SpoolOptions getSpoolOptions() {
+        return spoolOptions;
+    }
+
+    /**
+     * Get the retry policy; null if each Envelope is attempted only once.
+     * @return retry policy
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Get the number of consecutive failures that opens the circuit breaker; 0 if the breaker is disabled.
+     * @return circuit breaker threshold
+     */
+    public int getCircuitBreakerThreshold() {
+        return circuitBreakerThreshold;
+    }
+
+    /**
+     * Get how long an open circuit breaker fails fast before letting a trial request through.
+     * @return circuit breaker timeout in milliseconds
+     */
+    public int getCircuitBreakerTimeout() {
+        return circuitBreakerTimeout;
+    }
+
     /**
      * Builder class provides a fluid interface for setting options properties.
      */
     public static class OptionsBuilder {
         private String apiKey;
         private int connectionTimeout = 0;
+        private int connectionRequestTimeout = 0;
         private String contentType;
         private String host;
         private int socketTimeout = 0;
+        private DataFormat dataFormat;
+        private int maxConnections = 0;
+        private int maxConnectionsPerRoute = 0;
+        private int keepAlive = 0;
+        private int idleConnectionTimeout = 0;
+        private int maxConcurrentStreams = 0;
+        private Compression compression;
+        private int compressionThreshold = -1;
+        private boolean chunked;
+        private boolean deduplicateEntities;
+        private boolean hoistContext;
+        private SpoolOptions spoolOptions;
+        private RetryPolicy retryPolicy;
+        private int circuitBreakerThreshold = 0;
+        private int circuitBreakerTimeout = 0;
 
         /**
          * Constructor
@@ -133,6 +348,15 @@ public class HttpClientOptions implements CaliperClientOptions {
             return this;
         }
 
+        /**
+         * @param connectionRequestTimeout
+         * @return builder
+         */
+        public OptionsBuilder connectionRequestTimeout(final int connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+            return this;
+        }
+
         /**
          * @param contentType
          * @return builder
@@ -160,6 +384,141 @@ public class HttpClientOptions implements CaliperClientOptions {
             return this;
         }
 
+        /**
+         * @param dataFormat
+         * @return builder
+         */
+        public OptionsBuilder dataFormat(final DataFormat dataFormat) {
+            this.dataFormat = dataFormat;
+            return this;
+        }
+
+        /**
+         * @param maxConnections
+         * @return builder
+         */
+        public OptionsBuilder maxConnections(final int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsPerRoute
+         * @return builder
+         */
+        public OptionsBuilder maxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * @param keepAlive
+         * @return builder
+         */
+        public OptionsBuilder keepAlive(final int keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * @param idleConnectionTimeout
+         * @return builder
+         */
+        public OptionsBuilder idleConnectionTimeout(final int idleConnectionTimeout) {
+            this.idleConnectionTimeout = idleConnectionTimeout;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentStreams
+         * @return builder
+         */
+        public OptionsBuilder maxConcurrentStreams(final int maxConcurrentStreams) {
+            this.maxConcurrentStreams = maxConcurrentStreams;
+            return this;
+        }
+
+        /**
+         * @param compression
+         * @return builder
+         */
+        public OptionsBuilder compression(final Compression compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * @param compressionThreshold
+         * @return builder
+         */
+        public OptionsBuilder compressionThreshold(final int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+            return this;
+        }
+
+        /**
+         * @param chunked
+         * @return builder
+         */
+        public OptionsBuilder chunked(final boolean chunked) {
+            this.chunked = chunked;
+            return this;
+        }
+
+        /**
+         * @param deduplicateEntities
+         * @return builder
+         */
+        public OptionsBuilder deduplicateEntities(final boolean deduplicateEntities) {
+            this.deduplicateEntities = deduplicateEntities;
+            return this;
+        }
+
+        /**
+         * @param hoistContext
+         * @return builder
+         */
+        public OptionsBuilder hoistContext(final boolean hoistContext) {
+            this.hoistContext = hoistContext;
+            return this;
+        }
+
+        /**
+         * @param spoolOptions
+         * @return builder
+         */
+        public OptionsBuilder spool(final SpoolOptions spoolOptions) {
+            this.spoolOptions = spoolOptions;
+            return this;
+        }
+
+        /**
+         * @param retryPolicy
+         * @return builder
+         */
+        public OptionsBuilder retryPolicy(final RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * @param circuitBreakerThreshold
+         * @return builder
+         */
+        public OptionsBuilder circuitBreakerThreshold(final int circuitBreakerThreshold) {
+            this.circuitBreakerThreshold = circuitBreakerThreshold;
+            return this;
+        }
+
+        /**
+         * @param circuitBreakerTimeout
+         * @return builder
+         */
+        public OptionsBuilder circuitBreakerTimeout(final int circuitBreakerTimeout) {
+            this.circuitBreakerTimeout = circuitBreakerTimeout;
+            return this;
+        }
+
         /**
          * Client invokes build method in order to create an immutable object.
          * @return a new instance of Options.
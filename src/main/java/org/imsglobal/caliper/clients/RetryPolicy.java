@@ -0,0 +1,259 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.apache.http.client.utils.DateUtils;
+import org.imsglobal.caliper.validators.SensorValidator;
+
+import java.util.BitSet;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Retry policy for Envelope POSTs.  Failed attempts with a retryable status, or that fail with an
+ * I/O error, are repeated after an exponentially growing, jittered delay.  A Retry-After header sent
+ * by the endpoint takes precedence over the computed delay; if it asks for a longer wait than the
+ * maximum backoff the request is not retried.
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final int initialBackoff;
+    private final int maxBackoff;
+    private final double multiplier;
+    private final BitSet retryableStatuses;
+    private final boolean retryOnIOException;
+
+    /**
+     * Default retry settings.  Backoff values are expressed in milliseconds.
+     */
+    public static final int MAX_ATTEMPTS = 3;
+    public static final int INITIAL_BACKOFF = 200;
+    public static final int MAX_BACKOFF = 10000;
+    public static final double MULTIPLIER = 2.0;
+    public static final int[] RETRYABLE_STATUSES = {408, 429, 500, 502, 503, 504};
+
+    /**
+     * Constructor
+     * @param builder
+     */
+    private RetryPolicy(PolicyBuilder builder) {
+        checkArgument(builder.multiplier == 0 || builder.multiplier >= 1.0, "Backoff multiplier must be >= 1.");
+
+        this.maxAttempts = SensorValidator.chkPositiveIntValue(builder.maxAttempts, MAX_ATTEMPTS);
+        this.initialBackoff = SensorValidator.chkPositiveIntValue(builder.initialBackoff, INITIAL_BACKOFF);
+        this.maxBackoff = SensorValidator.chkPositiveIntValue(builder.maxBackoff, MAX_BACKOFF);
+        this.multiplier = (builder.multiplier > 0) ? builder.multiplier : MULTIPLIER;
+        this.retryOnIOException = builder.retryOnIOException;
+
+        this.retryableStatuses = new BitSet(600);
+        for (int status : (builder.retryableStatuses != null) ? builder.retryableStatuses : RETRYABLE_STATUSES) {
+            checkArgument(status >= 100 && status < 600, "Invalid HTTP status code %s.", status);
+            this.retryableStatuses.set(status);
+        }
+    }
+
+    /**
+     * Get the maximum number of attempts, including the first.
+     * @return max attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Get the delay before the first retry.
+     * @return initial backoff in milliseconds
+     */
+    public int getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Get the upper bound for any single delay.
+     * @return max backoff in milliseconds
+     */
+    public int getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Get the factor applied to the backoff after each attempt.
+     * @return multiplier
+     */
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * @param statusCode
+     * @return true if a response with the status code should be retried
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode >= 0 && retryableStatuses.get(statusCode);
+    }
+
+    /**
+     * @return true if attempts that fail with an I/O error should be retried
+     */
+    public boolean isRetryOnIOException() {
+        return retryOnIOException;
+    }
+
+    /**
+     * Compute the delay before the next attempt.  Uses "equal jitter": half of the capped exponential
+     * backoff plus a random share of the other half, which spreads out clients that failed together
+     * without ever retrying immediately.
+     * @param attempt the attempt that just failed, starting at 1
+     * @param retryAfter value of the Retry-After response header, or null
+     * @return delay in milliseconds, or -1 if no further attempt should be made
+     */
+    public long delay(int attempt, String retryAfter) {
+        if (attempt >= maxAttempts) {
+            return -1;
+        }
+
+        long requested = parseRetryAfter(retryAfter, System.currentTimeMillis());
+        if (requested >= 0) {
+            return (requested <= maxBackoff) ? requested : -1;
+        }
+
+        double backoff = Math.min(maxBackoff, initialBackoff * Math.pow(multiplier, attempt - 1));
+        long half = (long) (backoff / 2);
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    /**
+     * Parse a Retry-After header, given either as delta-seconds or as an HTTP-date.
+     * @param value
+     * @param now current time in milliseconds
+     * @return delay in milliseconds, or -1 if the value is absent or malformed
+     */
+    static long parseRetryAfter(String value, long now) {
+        if (value == null) {
+            return -1;
+        }
+
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return -1;
+        }
+
+        if (Character.isDigit(trimmed.charAt(0))) {
+            try {
+                return Long.parseLong(trimmed) * 1000;
+            } catch (NumberFormatException nfe) {
+                return -1;
+            }
+        }
+
+        Date date = DateUtils.parseDate(trimmed);
+        return (date != null) ? Math.max(0, date.getTime() - now) : -1;
+    }
+
+    /**
+     * Builder class provides a fluid interface for setting policy properties.
+     */
+    public static class PolicyBuilder {
+        private int maxAttempts = 0;
+        private int initialBackoff = 0;
+        private int maxBackoff = 0;
+        private double multiplier = 0;
+        private int[] retryableStatuses;
+        private boolean retryOnIOException = true;
+
+        /**
+         * Constructor
+         */
+        public PolicyBuilder() {
+
+        }
+
+        /**
+         * @param maxAttempts
+         * @return builder
+         */
+        public PolicyBuilder maxAttempts(final int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param initialBackoff
+         * @return builder
+         */
+        public PolicyBuilder initialBackoff(final int initialBackoff) {
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        /**
+         * @param maxBackoff
+         * @return builder
+         */
+        public PolicyBuilder maxBackoff(final int maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * @param multiplier
+         * @return builder
+         */
+        public PolicyBuilder multiplier(final double multiplier) {
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * @param retryableStatuses
+         * @return builder
+         */
+        public PolicyBuilder retryableStatuses(final int... retryableStatuses) {
+            this.retryableStatuses = retryableStatuses.clone();
+            return this;
+        }
+
+        /**
+         * @param retryOnIOException
+         * @return builder
+         */
+        public PolicyBuilder retryOnIOException(final boolean retryOnIOException) {
+            this.retryOnIOException = retryOnIOException;
+            return this;
+        }
+
+        /**
+         * Client invokes build method in order to create an immutable object.
+         * @return a new instance of RetryPolicy.
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+
+    /**
+     * Static Factory method.
+     * @return new builder instance
+     */
+    public static PolicyBuilder builder() {
+        return new PolicyBuilder();
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.google.common.base.MoreObjects;
+import org.imsglobal.caliper.config.DataFormat;
+
+import java.util.Objects;
+
+/**
+ * The settings that determine the bytes a Client puts on the wire for an Envelope.  Clients with equal
+ * profiles can share a single serialization of each Envelope.
+ */
+public final class SerializationProfile {
+    private final DataFormat dataFormat;
+    private final Compression compression;
+    private final boolean deduplicateEntities;
+    private final boolean hoistContext;
+
+    /**
+     * Constructor
+     * @param dataFormat
+     * @param compression
+     */
+    public SerializationProfile(DataFormat dataFormat, Compression compression) {
+        this(dataFormat, compression, false, false);
+    }
+
+    /**
+     * Constructor
+     * @param dataFormat
+     * @param compression
+     * @param deduplicateEntities
+     * @param hoistContext
+     */
+    public SerializationProfile(DataFormat dataFormat, Compression compression, boolean deduplicateEntities,
+                                boolean hoistContext) {
+        this.dataFormat = Objects.requireNonNull(dataFormat, "dataFormat");
+        this.compression = (compression != null) ? compression : Compression.NONE;
+        this.deduplicateEntities = deduplicateEntities;
+        this.hoistContext = hoistContext;
+    }
+
+    /**
+     * @return data format
+     */
+    public DataFormat getDataFormat() {
+        return dataFormat;
+    }
+
+    /**
+     * @return compression
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * @return true if repeated entities are written as their id
+     */
+    public boolean isDeduplicateEntities() {
+        return deduplicateEntities;
+    }
+
+    /**
+     * @return true if the JSON-LD context is written once on the Envelope
+     */
+    public boolean isHoistContext() {
+        return hoistContext;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SerializationProfile)) {
+            return false;
+        }
+        SerializationProfile that = (SerializationProfile) o;
+        return dataFormat == that.dataFormat && compression == that.compression
+            && deduplicateEntities == that.deduplicateEntities && hoistContext == that.hoistContext;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dataFormat, compression, deduplicateEntities, hoistContext);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("dataFormat", dataFormat)
+            .add("compression", compression)
+            .add("deduplicateEntities", deduplicateEntities)
+            .add("hoistContext", hoistContext)
+            .toString();
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.databind.JxnObjectMappers;
+import org.imsglobal.caliper.statistics.Statistics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An Envelope serialized once according to a SerializationProfile, to be shared by every Client with
+ * that profile.  The serialized bytes are never modified after construction.  The compressed form,
+ * if the profile calls for compression, is produced on first use and likewise shared.
+ */
+public final class SerializedEnvelope {
+    private final Envelope envelope;
+    private final SerializationProfile profile;
+    private final byte[] bytes;
+    private volatile byte[] compressed;
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory method.
+     * @param envelope
+     * @param profile
+     * @param bytes
+     */
+    private SerializedEnvelope(Envelope envelope, SerializationProfile profile, byte[] bytes) {
+        this.envelope = envelope;
+        this.profile = profile;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the source Envelope
+     */
+    public Envelope getEnvelope() {
+        return envelope;
+    }
+
+    /**
+     * @return the profile the Envelope was serialized with
+     */
+    public SerializationProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * @return length of the uncompressed serialized Envelope in bytes
+     */
+    public int getContentLength() {
+        return bytes.length;
+    }
+
+    /**
+     * @return read-only view of the uncompressed serialized Envelope
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Write the uncompressed serialized Envelope to an output stream.
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes);
+    }
+
+    /**
+     * Uncompressed bytes, without copying.  Callers must not modify the array.
+     * @return bytes
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * Compressed bytes, without copying.  Callers must not modify the array.  The Client that compresses
+     * the Envelope records the compression ratio, time and compressed size in its statistics; Clients
+     * that reuse the shared result record the ratio and compressed size only.
+     * @param statistics statistics of the calling Client, or null
+     * @return bytes compressed according to the profile
+     * @throws IOException
+     */
+    byte[] compressed(Statistics statistics) throws IOException {
+        byte[] result = compressed;
+        if (result == null) {
+            synchronized (this) {
+                result = compressed;
+                if (result == null) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+                    new CompressingEntity(new ByteArrayEntity(bytes), profile.getCompression(), statistics).writeTo(out);
+                    compressed = result = out.toByteArray();
+                    return result;
+                }
+            }
+        }
+
+        if (statistics != null && bytes.length > 0) {
+            statistics.updateCompressionRatio((double) result.length / bytes.length);
+            statistics.updateCompressedBytes(result.length);
+        }
+        return result;
+    }
+
+    /**
+     * Factory method.
+     * @param envelope
+     * @param profile
+     * @return serialized Envelope
+     * @throws IOException
+     */
+    public static SerializedEnvelope create(Envelope envelope, SerializationProfile profile) throws IOException {
+        byte[] bytes = JxnObjectMappers.writer(profile.getDataFormat(), profile.isDeduplicateEntities(),
+            profile.isHoistContext()).writeValueAsBytes(envelope);
+        return new SerializedEnvelope(envelope, profile, bytes);
+    }
+}
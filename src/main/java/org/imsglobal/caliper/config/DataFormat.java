@@ -19,10 +19,31 @@
 package org.imsglobal.caliper.config;
 
 /**
- * Data interchange formats.
+ * Data interchange formats.  The binary formats encode the same document model as CALIPER_JSONLD.
+ * CALIPER_JSON is the compact form of CALIPER_JSONLD that omits the default Caliper context, which
+ * consumers supply out of band.
  */
 public enum DataFormat {
-    CALIPER_JSON,
-    CALIPER_JSONLD,
-    XAPI_JSON;
-}
\ No newline at end of file
+    CALIPER_JSON("application/json"),
+    CALIPER_JSONLD("application/json"),
+    CALIPER_SMILE("application/x-jackson-smile"),
+    CALIPER_CBOR("application/cbor"),
+    XAPI_JSON("application/json");
+
+    private final String contentType;
+
+    /**
+     * Private constructor
+     * @param contentType
+     */
+    private DataFormat(final String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return HTTP Content-Type value
+     */
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -26,9 +26,10 @@ import org.imsglobal.caliper.entities.CaliperCoercible;
 import javax.annotation.Nonnull;
 
 public class JsonldStringContext implements JsonldContext, CaliperCoercible {
+    private static final JsonldStringContext DEFAULT = new JsonldStringContext(Config.JSONLD_EXTERNAL_CALIPER_CONTEXT);
 
     @JsonProperty("@context")
-    private String id;
+    private final String id;
 
     @JsonIgnore
     private final boolean coercedToId = true;
@@ -58,19 +59,19 @@ public class JsonldStringContext implements JsonldContext, CaliperCoercible {
     }
 
     /**
-     * Factory method
+     * Factory method.  Returns the shared default instance for the default IMS Caliper context IRI.
      * @param id
      * @return JsonldStringContext
      */
     public static JsonldStringContext create(String id) {
-        return new JsonldStringContext(id);
+        return DEFAULT.id.equals(id) ? DEFAULT : new JsonldStringContext(id);
     }
 
     /**
-     * Factory method that returns the default IMS Caliper external context IRI.
-     * @return
+     * Factory method that returns the shared, immutable default IMS Caliper external context IRI.
+     * @return JsonldStringContext
      */
     public static JsonldStringContext getDefault() {
-        return new JsonldStringContext(Config.JSONLD_EXTERNAL_CALIPER_CONTEXT);
+        return DEFAULT;
     }
 }
\ No newline at end of file
@@ -0,0 +1,401 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.JsonTokenId;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.imsglobal.caliper.actions.Action;
+import org.imsglobal.caliper.actions.CaliperAction;
+import org.imsglobal.caliper.context.JsonldArrayContext;
+import org.imsglobal.caliper.context.JsonldContext;
+import org.imsglobal.caliper.context.JsonldObjectContext;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.entities.CaliperCoercible;
+import org.imsglobal.caliper.entities.CaliperEntity;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.ISOChronology;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Polymorphic deserializer for Caliper events and entities.  The "type" term of each object selects its
+ * class, and the object is assembled through the class's own builder, so the built value passes the same
+ * validation as one constructed in code.  Values written as IRI references are read as entities coerced to
+ * their id, typed after the entity of that id seen earlier in the document where there is one, so that
+ * reading and re-writing a document preserves it.  When a reader carries the {@link #RESOLVE_REFERENCES}
+ * attribute, such references are replaced by the earlier entity itself, undoing entity de-duplication.
+ */
+public class JxnCaliperDeserializer extends StdDeserializer<Object> implements ResolvableDeserializer {
+    public static final String RESOLVE_REFERENCES = JxnCaliperDeserializer.class.getName() + ".resolveReferences";
+    private static final String ENTITIES = JxnCaliperDeserializer.class.getName() + ".entities";
+    private static final Map<String, CaliperAction> actions = new HashMap<>();
+    private JsonDeserializer<Object> dateTimeDeserializer;
+
+    static {
+        for (Action action : Action.values()) {
+            actions.put(action.value(), action);
+        }
+    }
+
+    /**
+     * Constructor
+     * @param valueClass declared type of the values read
+     */
+    public JxnCaliperDeserializer(Class<?> valueClass) {
+        super(valueClass);
+    }
+
+    @Override
+    public void resolve(DeserializationContext ctxt) throws JsonMappingException {
+        dateTimeDeserializer = ctxt.findRootValueDeserializer(ctxt.constructType(DateTime.class));
+    }
+
+    @Override
+    public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonldContext context = null;
+        Object external = ctxt.getAttribute(JxnContextHoisting.EXTERNAL);
+        JsonStreamContext parent = p.getParsingContext().getParent();
+        if (external != null && parent != null && parent.inRoot()) {
+            context = JsonldStringContext.create((String) external);
+        }
+        return deserialize(p, ctxt, _valueClass, context);
+    }
+
+    /**
+     * Read an event or entity.
+     * @param p
+     * @param ctxt
+     * @param type declared type of the value
+     * @param context JSON-LD context to apply if the value has none of its own, or null
+     * @return value
+     * @throws IOException
+     */
+    Object deserialize(JsonParser p, DeserializationContext ctxt, Class<?> type, JsonldContext context)
+        throws IOException {
+        switch (p.getCurrentTokenId()) {
+            case JsonTokenId.ID_STRING:
+                return readReference(p, ctxt, type);
+            case JsonTokenId.ID_START_OBJECT:
+                p.nextToken();
+                return readObject(p, ctxt, type, context);
+            case JsonTokenId.ID_FIELD_NAME:
+            case JsonTokenId.ID_END_OBJECT:
+                return readObject(p, ctxt, type, context);
+            default:
+                return ctxt.handleUnexpectedToken(type, p);
+        }
+    }
+
+    /**
+     * Read the fields of an object, buffering those that precede its type term.
+     * @param p parser positioned at the first field name or the end of the object
+     * @param ctxt
+     * @param type
+     * @param context
+     * @return value
+     * @throws IOException
+     */
+    private Object readObject(JsonParser p, DeserializationContext ctxt, Class<?> type, JsonldContext context)
+        throws IOException {
+        JxnCaliperTypes.Model model = null;
+        TokenBuffer buffer = null;
+        while (p.getCurrentToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            if ("type".equals(name)) {
+                String term = p.getValueAsString();
+                model = JxnCaliperTypes.forTerm(term);
+                if (model == null) {
+                    return ctxt.reportInputMismatch(this, "Unknown Caliper type \"%s\"", term);
+                }
+                p.nextToken();
+                break;
+            }
+            if (buffer == null) {
+                buffer = new TokenBuffer(p, ctxt);
+            }
+            buffer.writeFieldName(name);
+            buffer.copyCurrentStructure(p);
+            p.nextToken();
+        }
+        if (model == null) {
+            model = JxnCaliperTypes.forType(type);
+            if (model == null) {
+                return ctxt.reportInputMismatch(this, "Missing type term for %s", type.getSimpleName());
+            }
+        }
+        if (!type.isAssignableFrom(model.type)) {
+            return ctxt.reportInputMismatch(this, "Caliper type %s is not a %s", model.term, type.getSimpleName());
+        }
+
+        try {
+            Object builder = model.newBuilder();
+            if (context != null && model.properties.containsKey("@context")) {
+                builder = set(model.properties.get("@context"), builder, context);
+            }
+            if (buffer != null) {
+                JsonParser buffered = buffer.asParser(p);
+                buffered.nextToken();
+                builder = readFields(buffered, ctxt, model, builder);
+                buffered.close();
+            }
+            builder = readFields(p, ctxt, model, builder);
+
+            Object value = (Object) model.build.invokeExact(builder);
+            if (value instanceof CaliperEntity) {
+                register(ctxt, (CaliperEntity) value);
+            }
+            return value;
+        } catch (IOException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw JsonMappingException.from(p, "Cannot build " + model.type.getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Apply fields to a builder.
+     * @param p parser positioned at the first field name
+     * @param ctxt
+     * @param model
+     * @param builder
+     * @return builder
+     * @throws Throwable
+     */
+    private Object readFields(JsonParser p, DeserializationContext ctxt, JxnCaliperTypes.Model model, Object builder)
+        throws Throwable {
+        for (JsonToken t = p.getCurrentToken(); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+            String name = p.getCurrentName();
+            JxnCaliperTypes.Property property = model.properties.get(name);
+            if (p.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            if (property == null) {
+                ctxt.handleUnknownProperty(p, this, model.type, name);
+                continue;
+            }
+            builder = set(property, builder, readValue(p, ctxt, property));
+        }
+        return builder;
+    }
+
+    /**
+     * Read a property value.
+     * @param p parser positioned at the value
+     * @param ctxt
+     * @param property
+     * @return value
+     * @throws IOException
+     */
+    private Object readValue(JsonParser p, DeserializationContext ctxt, JxnCaliperTypes.Property property)
+        throws IOException {
+        switch (property.kind) {
+            case STRING:
+                return p.getCurrentToken().isScalarValue() ? p.getValueAsString() : ctxt.readValue(p, String.class);
+            case INT:
+                return p.getValueAsInt();
+            case DOUBLE:
+                return p.getValueAsDouble();
+            case BOOLEAN:
+                return p.getValueAsBoolean();
+            case DATE_TIME:
+                return readDateTime(p, ctxt);
+            case CONTEXT:
+                return readContext(p, ctxt);
+            case ACTION:
+                CaliperAction action = actions.get(p.getValueAsString());
+                if (action == null) {
+                    return ctxt.reportInputMismatch(this, "Unknown Caliper action \"%s\"", p.getText());
+                }
+                return action;
+            case ENTITY:
+                return deserialize(p, ctxt, property.target, null);
+            case ENTITY_LIST:
+                if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+                    return ctxt.handleUnexpectedToken(List.class, p);
+                }
+                List<Object> values = new ArrayList<>();
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    values.add(deserialize(p, ctxt, property.target, null));
+                }
+                return values;
+            default:
+                return ctxt.readValue(p, property.type);
+        }
+    }
+
+    /**
+     * Read a timestamp.  The fixed-width UTC form that Caliper writes is parsed directly, and anything else
+     * is left to the Joda deserializer, which yields the same instant in the same zone.
+     * @param p parser positioned at the timestamp
+     * @param ctxt
+     * @return timestamp
+     * @throws IOException
+     */
+    private Object readDateTime(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_STRING && p.getTextLength() == 24) {
+            char[] text = p.getTextCharacters();
+            int i = p.getTextOffset();
+            if (text[i + 4] == '-' && text[i + 7] == '-' && text[i + 10] == 'T' && text[i + 13] == ':'
+                && text[i + 16] == ':' && text[i + 19] == '.' && text[i + 23] == 'Z') {
+                int year = digits(text, i, 4);
+                int month = digits(text, i + 5, 2);
+                int day = digits(text, i + 8, 2);
+                int hour = digits(text, i + 11, 2);
+                int minute = digits(text, i + 14, 2);
+                int second = digits(text, i + 17, 2);
+                int millis = digits(text, i + 20, 3);
+                if ((year | month | day | hour | minute | second | millis) >= 0) {
+                    try {
+                        long instant = ISOChronology.getInstanceUTC()
+                            .getDateTimeMillis(year, month, day, hour, minute, second, millis);
+                        return new DateTime(instant, DateTimeZone.forTimeZone(ctxt.getTimeZone()));
+                    } catch (IllegalArgumentException e) {
+                        // Out-of-range field; let the Joda deserializer report it.
+                    }
+                }
+            }
+        }
+        return dateTimeDeserializer.deserialize(p, ctxt);
+    }
+
+    /**
+     * @param text
+     * @param offset
+     * @param length
+     * @return value of the decimal digits, or -1 if any character is not a digit
+     */
+    private static int digits(char[] text, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Read an IRI reference to an entity.
+     * @param p parser positioned at the IRI
+     * @param ctxt
+     * @param type declared type of the entity
+     * @return entity read earlier if references are being resolved, otherwise an entity coerced to its id
+     * @throws IOException
+     */
+    private Object readReference(JsonParser p, DeserializationContext ctxt, Class<?> type) throws IOException {
+        String id = p.getText();
+        @SuppressWarnings("unchecked")
+        Map<String, CaliperEntity> entities = (Map<String, CaliperEntity>) ctxt.getAttribute(ENTITIES);
+        CaliperEntity known = (entities != null) ? entities.get(id) : null;
+        if (known != null && !type.isInstance(known)) {
+            known = null;
+        }
+        if (known != null && ctxt.getAttribute(RESOLVE_REFERENCES) != null) {
+            return known;
+        }
+
+        JxnCaliperTypes.Model model = (known != null)
+            ? JxnCaliperTypes.forTerm(known.getType().value()) : JxnCaliperTypes.forType(type);
+        if (model == null || model.coercedToId == null) {
+            return ctxt.reportInputMismatch(this, "%s cannot be written as an IRI reference", type.getSimpleName());
+        }
+        try {
+            Object builder = set(model.properties.get("id"), model.newBuilder(), id);
+            return (Object) model.build.invokeExact((Object) model.coercedToId.invokeExact(builder, (Object) true));
+        } catch (IOException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw JsonMappingException.from(p, "Cannot build " + model.type.getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read a JSON-LD context, unwrapping the nested "@context" that object and array contexts are written with.
+     * @param p parser positioned at the context
+     * @param ctxt
+     * @return context
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    static JsonldContext readContext(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.getCurrentTokenId()) {
+            case JsonTokenId.ID_STRING:
+                return JsonldStringContext.create(p.getText());
+            case JsonTokenId.ID_START_ARRAY:
+                return JsonldArrayContext.create(ctxt.readValue(p, List.class));
+            case JsonTokenId.ID_START_OBJECT:
+                Map<String, Object> map = ctxt.readValue(p, Map.class);
+                Object context = (map.size() == 1 && map.containsKey("@context")) ? map.get("@context") : map;
+                if (context instanceof List) {
+                    return JsonldArrayContext.create((List<Object>) context);
+                }
+                return JsonldObjectContext.create(context);
+            default:
+                return (JsonldContext) ctxt.handleUnexpectedToken(JsonldContext.class, p);
+        }
+    }
+
+    /**
+     * Record an entity read in full for references later in the same document.
+     * @param ctxt
+     * @param entity
+     */
+    @SuppressWarnings("unchecked")
+    private static void register(DeserializationContext ctxt, CaliperEntity entity) {
+        boolean coerced = entity instanceof CaliperCoercible && ((CaliperCoercible) entity).isCoercedToId();
+        if (entity.getId() == null || coerced) {
+            return;
+        }
+        Map<String, CaliperEntity> entities = (Map<String, CaliperEntity>) ctxt.getAttribute(ENTITIES);
+        if (entities == null) {
+            entities = new HashMap<>();
+            ctxt.setAttribute(ENTITIES, entities);
+        }
+        if (!entities.containsKey(entity.getId())) {
+            entities.put(entity.getId(), entity);
+        }
+    }
+
+    /**
+     * @param property
+     * @param builder
+     * @param value
+     * @return builder
+     * @throws Throwable
+     */
+    private static Object set(JxnCaliperTypes.Property property, Object builder, Object value) throws Throwable {
+        return (Object) property.setter.invokeExact(builder, value);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.imsglobal.caliper.context.JsonldStringContext;
+
+/**
+ * Conversion of compact CALIPER_JSON documents to CALIPER_JSONLD.  Compact documents omit every
+ * occurrence of the default Caliper context and keep any other context, so restoring the default context
+ * on each top-level event and entity yields an equivalent JSON-LD document.  Types and actions are already
+ * the short terms defined by the Caliper context and need no translation.
+ */
+public final class JxnCaliperJson {
+    private static final String CONTEXT = "@context";
+
+    /**
+     * Constructor.  Private to prevent instantiation.
+     */
+    private JxnCaliperJson() {
+
+    }
+
+    /**
+     * Convert a compact Envelope, event or entity to its JSON-LD form.  The given tree is not modified.
+     * @param compact
+     * @return JSON-LD tree
+     */
+    public static JsonNode toJsonld(JsonNode compact) {
+        if (!compact.isObject()) {
+            return compact;
+        }
+        ObjectNode document = ((ObjectNode) compact).deepCopy();
+        JsonNode data = document.get("data");
+        if (data == null || !data.isArray()) {
+            return withContext(document);
+        }
+
+        ArrayNode items = (ArrayNode) data;
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).isObject()) {
+                items.set(i, withContext((ObjectNode) items.get(i)));
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Restore the default context as the first property of an event or entity that has none.
+     * @param node
+     * @return JSON-LD node
+     */
+    private static ObjectNode withContext(ObjectNode node) {
+        if (node.has(CONTEXT)) {
+            return node;
+        }
+        ObjectNode converted = JsonNodeFactory.instance.objectNode();
+        converted.put(CONTEXT, JsonldStringContext.getDefault().getId());
+        converted.setAll(node);
+        return converted;
+    }
+}
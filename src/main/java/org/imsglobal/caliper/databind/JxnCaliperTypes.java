@@ -0,0 +1,507 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.actions.CaliperAction;
+import org.imsglobal.caliper.context.JsonldContext;
+import org.imsglobal.caliper.entities.AbstractEntity;
+import org.imsglobal.caliper.entities.CaliperEntity;
+import org.imsglobal.caliper.entities.CaliperEntityType;
+import org.imsglobal.caliper.entities.Entity;
+import org.imsglobal.caliper.entities.EntityType;
+import org.imsglobal.caliper.entities.agent.Agent;
+import org.imsglobal.caliper.entities.agent.CourseOffering;
+import org.imsglobal.caliper.entities.agent.CourseSection;
+import org.imsglobal.caliper.entities.agent.Group;
+import org.imsglobal.caliper.entities.agent.Membership;
+import org.imsglobal.caliper.entities.agent.Organization;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.imsglobal.caliper.entities.agent.SoftwareApplication;
+import org.imsglobal.caliper.entities.annotation.Annotation;
+import org.imsglobal.caliper.entities.annotation.BookmarkAnnotation;
+import org.imsglobal.caliper.entities.annotation.HighlightAnnotation;
+import org.imsglobal.caliper.entities.annotation.SharedAnnotation;
+import org.imsglobal.caliper.entities.annotation.TagAnnotation;
+import org.imsglobal.caliper.entities.outcome.Result;
+import org.imsglobal.caliper.entities.outcome.Score;
+import org.imsglobal.caliper.entities.resource.Assessment;
+import org.imsglobal.caliper.entities.resource.AssessmentItem;
+import org.imsglobal.caliper.entities.resource.AssignableDigitalResource;
+import org.imsglobal.caliper.entities.resource.Attempt;
+import org.imsglobal.caliper.entities.resource.AudioObject;
+import org.imsglobal.caliper.entities.resource.Chapter;
+import org.imsglobal.caliper.entities.resource.DigitalResource;
+import org.imsglobal.caliper.entities.resource.DigitalResourceCollection;
+import org.imsglobal.caliper.entities.resource.Document;
+import org.imsglobal.caliper.entities.resource.Forum;
+import org.imsglobal.caliper.entities.resource.Frame;
+import org.imsglobal.caliper.entities.resource.ImageObject;
+import org.imsglobal.caliper.entities.resource.LearningObjective;
+import org.imsglobal.caliper.entities.resource.MediaLocation;
+import org.imsglobal.caliper.entities.resource.MediaObject;
+import org.imsglobal.caliper.entities.resource.Message;
+import org.imsglobal.caliper.entities.resource.Page;
+import org.imsglobal.caliper.entities.resource.Thread;
+import org.imsglobal.caliper.entities.resource.VideoObject;
+import org.imsglobal.caliper.entities.resource.WebPage;
+import org.imsglobal.caliper.entities.response.FillinBlankResponse;
+import org.imsglobal.caliper.entities.response.MultipleChoiceResponse;
+import org.imsglobal.caliper.entities.response.MultipleResponseResponse;
+import org.imsglobal.caliper.entities.response.Response;
+import org.imsglobal.caliper.entities.response.SelectTextResponse;
+import org.imsglobal.caliper.entities.response.TrueFalseResponse;
+import org.imsglobal.caliper.entities.session.LtiSession;
+import org.imsglobal.caliper.entities.session.Session;
+import org.imsglobal.caliper.events.AnnotationEvent;
+import org.imsglobal.caliper.events.AssessmentEvent;
+import org.imsglobal.caliper.events.AssessmentItemEvent;
+import org.imsglobal.caliper.events.AssignableEvent;
+import org.imsglobal.caliper.events.CaliperEventType;
+import org.imsglobal.caliper.events.Event;
+import org.imsglobal.caliper.events.EventType;
+import org.imsglobal.caliper.events.ForumEvent;
+import org.imsglobal.caliper.events.GradeEvent;
+import org.imsglobal.caliper.events.MediaEvent;
+import org.imsglobal.caliper.events.MessageEvent;
+import org.imsglobal.caliper.events.NavigationEvent;
+import org.imsglobal.caliper.events.SessionEvent;
+import org.imsglobal.caliper.events.ThreadEvent;
+import org.imsglobal.caliper.events.ToolUseEvent;
+import org.imsglobal.caliper.events.ViewEvent;
+import org.imsglobal.caliper.selectors.Selector;
+import org.imsglobal.caliper.selectors.TextPositionSelector;
+import org.joda.time.DateTime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lookup tables behind {@link JxnCaliperDeserializer}, computed once per JVM.  Each Caliper type term maps to
+ * the builder of its class, and each JSON property of the class maps to the builder method that sets it.
+ * Builder methods are held as method handles adapted to (Object, Object)Object, so that values are applied
+ * without reflection.  Terms without a class of their own are built as {@link Entity} or {@link Event}
+ * carrying the term as their type.
+ */
+final class JxnCaliperTypes {
+    private static final Map<EntityType, Class<?>> entityClasses = new EnumMap<>(EntityType.class);
+    private static final Map<EventType, Class<?>> eventClasses = new EnumMap<>(EventType.class);
+    private static final Map<Class<?>, Class<?>> implementations = new HashMap<>();
+
+    private static final ObjectMapper introspector = new ObjectMapper();
+    private static final Map<Class<?>, Model> models = new HashMap<>();
+    private static final Map<String, Model> terms = new HashMap<>();
+    private static final Map<Class<?>, Model> defaults = new HashMap<>();
+    private static final Map<Class<?>, Model> references = new HashMap<>();
+
+    static {
+        entityClasses.put(EntityType.AGENT, Agent.class);
+        entityClasses.put(EntityType.ANNOTATION, Annotation.class);
+        entityClasses.put(EntityType.ASSESSMENT, Assessment.class);
+        entityClasses.put(EntityType.ASSESSMENT_ITEM, AssessmentItem.class);
+        entityClasses.put(EntityType.ASSIGNABLE_DIGITAL_RESOURCE, AssignableDigitalResource.class);
+        entityClasses.put(EntityType.ATTEMPT, Attempt.class);
+        entityClasses.put(EntityType.AUDIO_OBJECT, AudioObject.class);
+        entityClasses.put(EntityType.BOOKMARK_ANNOTATION, BookmarkAnnotation.class);
+        entityClasses.put(EntityType.CHAPTER, Chapter.class);
+        entityClasses.put(EntityType.COURSE_OFFERING, CourseOffering.class);
+        entityClasses.put(EntityType.COURSE_SECTION, CourseSection.class);
+        entityClasses.put(EntityType.DIGITAL_RESOURCE, DigitalResource.class);
+        entityClasses.put(EntityType.DIGITAL_RESOURCE_COLLECTION, DigitalResourceCollection.class);
+        entityClasses.put(EntityType.DOCUMENT, Document.class);
+        entityClasses.put(EntityType.ENTITY, Entity.class);
+        entityClasses.put(EntityType.FILLINBLANK, FillinBlankResponse.class);
+        entityClasses.put(EntityType.FORUM, Forum.class);
+        entityClasses.put(EntityType.FRAME, Frame.class);
+        entityClasses.put(EntityType.GROUP, Group.class);
+        entityClasses.put(EntityType.HIGHLIGHT_ANNOTATION, HighlightAnnotation.class);
+        entityClasses.put(EntityType.IMAGE_OBJECT, ImageObject.class);
+        entityClasses.put(EntityType.LEARNING_OBJECTIVE, LearningObjective.class);
+        entityClasses.put(EntityType.LTI_SESSION, LtiSession.class);
+        entityClasses.put(EntityType.MEDIA_LOCATION, MediaLocation.class);
+        entityClasses.put(EntityType.MEDIA_OBJECT, MediaObject.class);
+        entityClasses.put(EntityType.MEMBERSHIP, Membership.class);
+        entityClasses.put(EntityType.MESSAGE, Message.class);
+        entityClasses.put(EntityType.MULTIPLECHOICE, MultipleChoiceResponse.class);
+        entityClasses.put(EntityType.MULTIPLERESPONSE, MultipleResponseResponse.class);
+        entityClasses.put(EntityType.PAGE, Page.class);
+        entityClasses.put(EntityType.PERSON, Person.class);
+        entityClasses.put(EntityType.ORGANIZATION, Organization.class);
+        entityClasses.put(EntityType.RESPONSE, Response.class);
+        entityClasses.put(EntityType.RESULT, Result.class);
+        entityClasses.put(EntityType.SCORE, Score.class);
+        entityClasses.put(EntityType.SELECTTEXT, SelectTextResponse.class);
+        entityClasses.put(EntityType.SESSION, Session.class);
+        entityClasses.put(EntityType.SHARED_ANNOTATION, SharedAnnotation.class);
+        entityClasses.put(EntityType.SOFTWARE_APPLICATION, SoftwareApplication.class);
+        entityClasses.put(EntityType.TAG_ANNOTATION, TagAnnotation.class);
+        entityClasses.put(EntityType.THREAD, Thread.class);
+        entityClasses.put(EntityType.TRUEFALSE, TrueFalseResponse.class);
+        entityClasses.put(EntityType.VIDEO_OBJECT, VideoObject.class);
+        entityClasses.put(EntityType.WEB_PAGE, WebPage.class);
+
+        eventClasses.put(EventType.ANNOTATION, AnnotationEvent.class);
+        eventClasses.put(EventType.ASSESSMENT, AssessmentEvent.class);
+        eventClasses.put(EventType.ASSESSMENT_ITEM, AssessmentItemEvent.class);
+        eventClasses.put(EventType.ASSIGNABLE, AssignableEvent.class);
+        eventClasses.put(EventType.EVENT, Event.class);
+        eventClasses.put(EventType.FORUM, ForumEvent.class);
+        eventClasses.put(EventType.GRADE, GradeEvent.class);
+        eventClasses.put(EventType.MEDIA, MediaEvent.class);
+        eventClasses.put(EventType.MESSAGE, MessageEvent.class);
+        eventClasses.put(EventType.NAVIGATION, NavigationEvent.class);
+        eventClasses.put(EventType.SESSION, SessionEvent.class);
+        eventClasses.put(EventType.THREAD, ThreadEvent.class);
+        eventClasses.put(EventType.TOOL_USE, ToolUseEvent.class);
+        eventClasses.put(EventType.VIEW, ViewEvent.class);
+
+        implementations.put(Selector.class, TextPositionSelector.class);
+
+        try {
+            for (EntityType type : EntityType.values()) {
+                register(type.value(), type, entityClasses.get(type), Entity.class);
+            }
+            for (EventType type : EventType.values()) {
+                register(type.value(), type, eventClasses.get(type), Event.class);
+            }
+            for (Model model : models.values()) {
+                for (Property property : model.properties.values()) {
+                    if (property.target != null && !references.containsKey(property.target)) {
+                        references.put(property.target, reference(property.target));
+                    }
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Constructor.  Private to prevent instantiation.
+     */
+    private JxnCaliperTypes() {
+
+    }
+
+    /**
+     * Find the model for a type term.
+     * @param term
+     * @return model or null if the term is unknown
+     */
+    static Model forTerm(String term) {
+        return terms.get(term);
+    }
+
+    /**
+     * Find the model used for values of a declared type that carry no type term, such as IRI references
+     * to entities that appear nowhere else in the document.
+     * @param type
+     * @return model or null if the type is not a Caliper event or entity type
+     */
+    static Model forType(Class<?> type) {
+        Model model = defaults.get(type);
+        return (model != null) ? model : references.get(type);
+    }
+
+    /**
+     * Determine whether values of a type are read by {@link JxnCaliperDeserializer}.
+     * @param type
+     * @return true if the type is an event or entity type, or an interface that entities implement
+     */
+    static boolean isCaliperType(Class<?> type) {
+        return CaliperSendable.class.isAssignableFrom(type) || references.containsKey(type);
+    }
+
+    /**
+     * Map a type term to its class, or to the generic class if it has none.
+     * @param value
+     * @param term
+     * @param cls
+     * @param generic
+     * @throws ReflectiveOperationException
+     */
+    private static void register(String value, Object term, Class<?> cls, Class<?> generic)
+        throws ReflectiveOperationException {
+        Model model = new Model(model((cls != null) ? cls : generic), term);
+        terms.put(value, model);
+        if (cls != null) {
+            defaults.put(cls, model);
+        }
+    }
+
+    /**
+     * Build or retrieve the model of a concrete class.
+     * @param cls
+     * @return model
+     * @throws ReflectiveOperationException
+     */
+    private static Model model(Class<?> cls) throws ReflectiveOperationException {
+        Model model = models.get(cls);
+        if (model == null) {
+            model = new Model(cls);
+            models.put(cls, model);
+        }
+        return model;
+    }
+
+    /**
+     * Choose the class built for references to an abstract type: the implementing class named after the
+     * type, otherwise the implementing class closest to the root of the hierarchy.
+     * @param type
+     * @return model or null if no entity class implements the type
+     */
+    private static Model reference(Class<?> type) {
+        Model model = defaults.get(type);
+        if (model != null) {
+            return model;
+        }
+        String name = type.getSimpleName().startsWith("Caliper") ? type.getSimpleName().substring(7) : null;
+        Model best = null;
+        for (Model candidate : defaults.values()) {
+            Class<?> cls = candidate.type;
+            if (!AbstractEntity.class.isAssignableFrom(cls) || !type.isAssignableFrom(cls)) {
+                continue;
+            }
+            if (cls.getSimpleName().equals(name)) {
+                return candidate;
+            }
+            if (best == null || depth(cls) < depth(best.type)
+                || (depth(cls) == depth(best.type) && cls.getName().compareTo(best.type.getName()) < 0)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param cls
+     * @return number of superclasses
+     */
+    private static int depth(Class<?> cls) {
+        int depth = 0;
+        for (Class<?> c = cls.getSuperclass(); c != null; c = c.getSuperclass()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Builder handles and properties of a concrete Caliper class, optionally bound to a type term.
+     */
+    static final class Model {
+        final Class<?> type;
+        final Object term;
+        final MethodHandle builder;
+        final MethodHandle build;
+        final MethodHandle typeSetter;
+        final MethodHandle coercedToId;
+        final Map<String, Property> properties;
+
+        /**
+         * Constructor
+         * @param cls
+         * @throws ReflectiveOperationException
+         */
+        private Model(Class<?> cls) throws ReflectiveOperationException {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Method factory = cls.getMethod("builder");
+            Class<?> builderClass = factory.invoke(null).getClass();
+
+            this.type = cls;
+            this.term = null;
+            this.builder = lookup.unreflect(factory).asType(MethodType.methodType(Object.class));
+            this.build = lookup.unreflect(builderClass.getMethod("build"))
+                .asType(MethodType.methodType(Object.class, Object.class));
+            this.typeSetter = setter(lookup, builderClass, "type");
+            this.coercedToId = (method(builderClass, "coercedToId") != null)
+                ? setter(lookup, builderClass, "coercedToId") : null;
+
+            Map<String, Property> properties = new LinkedHashMap<>();
+            BeanDescription description = introspector.getSerializationConfig()
+                .introspect(introspector.constructType(cls));
+            for (BeanPropertyDefinition definition : description.findProperties()) {
+                String name = definition.getName();
+                Method method = method(builderClass, "@context".equals(name) ? "context" : name);
+                if (method != null && !"type".equals(name)) {
+                    properties.put(name, new Property(lookup, method));
+                }
+            }
+            this.properties = properties;
+        }
+
+        /**
+         * Constructor for a type term.
+         * @param model model of the class
+         * @param term
+         */
+        private Model(Model model, Object term) {
+            this.type = model.type;
+            this.term = term;
+            this.builder = model.builder;
+            this.build = model.build;
+            this.typeSetter = model.typeSetter;
+            this.coercedToId = model.coercedToId;
+            this.properties = model.properties;
+        }
+
+        /**
+         * @return new builder carrying this model's type term
+         * @throws Throwable
+         */
+        Object newBuilder() throws Throwable {
+            return (Object) typeSetter.invokeExact((Object) builder.invokeExact(), term);
+        }
+
+        /**
+         * Find the single-argument builder method with the given name, preferring the most specific overload.
+         * @param builderClass
+         * @param name
+         * @return method or null if the builder has no such method
+         */
+        private static Method method(Class<?> builderClass, String name) {
+            Method found = null;
+            for (Method method : builderClass.getMethods()) {
+                if (method.getName().equals(name) && method.getParameterTypes().length == 1 && !method.isBridge()) {
+                    Class<?> parameter = method.getParameterTypes()[0];
+                    if (found == null || found.getParameterTypes()[0].isAssignableFrom(parameter)) {
+                        found = method;
+                    }
+                }
+            }
+            return found;
+        }
+
+        /**
+         * @param lookup
+         * @param builderClass
+         * @param name
+         * @return builder method adapted to (Object, Object)Object
+         * @throws ReflectiveOperationException
+         */
+        private static MethodHandle setter(MethodHandles.Lookup lookup, Class<?> builderClass, String name)
+            throws ReflectiveOperationException {
+            return lookup.unreflect(method(builderClass, name))
+                .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+        }
+    }
+
+    /**
+     * How a property value is read.
+     */
+    enum Kind {
+        STRING, INT, DOUBLE, BOOLEAN, DATE_TIME, CONTEXT, ACTION, ENTITY, ENTITY_LIST, OTHER
+    }
+
+    /**
+     * A JSON property and the builder method that sets it.
+     */
+    static final class Property {
+        final MethodHandle setter;
+        final Kind kind;
+        final JavaType type;
+        final Class<?> target;
+
+        /**
+         * Constructor
+         * @param lookup
+         * @param method
+         * @throws ReflectiveOperationException
+         */
+        private Property(MethodHandles.Lookup lookup, Method method) throws ReflectiveOperationException {
+            this.setter = lookup.unreflect(method)
+                .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            Type generic = method.getGenericParameterTypes()[0];
+            Class<?> raw = method.getParameterTypes()[0];
+            Class<?> implementation = implementations.get(raw);
+            this.type = TypeFactory.defaultInstance()
+                .constructType((implementation != null) ? implementation : generic);
+
+            Class<?> element = null;
+            if (List.class.isAssignableFrom(raw) && generic instanceof ParameterizedType) {
+                Type argument = ((ParameterizedType) generic).getActualTypeArguments()[0];
+                element = (argument instanceof Class) ? (Class<?>) argument : null;
+            }
+
+            if (raw == String.class) {
+                this.kind = Kind.STRING;
+                this.target = null;
+            } else if (raw == int.class) {
+                this.kind = Kind.INT;
+                this.target = null;
+            } else if (raw == double.class) {
+                this.kind = Kind.DOUBLE;
+                this.target = null;
+            } else if (raw == boolean.class) {
+                this.kind = Kind.BOOLEAN;
+                this.target = null;
+            } else if (raw == DateTime.class) {
+                this.kind = Kind.DATE_TIME;
+                this.target = null;
+            } else if (raw == JsonldContext.class) {
+                this.kind = Kind.CONTEXT;
+                this.target = null;
+            } else if (raw == CaliperAction.class) {
+                this.kind = Kind.ACTION;
+                this.target = null;
+            } else if (isEntityType(raw)) {
+                this.kind = Kind.ENTITY;
+                this.target = raw;
+            } else if (element != null && isEntityType(element)) {
+                this.kind = Kind.ENTITY_LIST;
+                this.target = element;
+            } else {
+                this.kind = Kind.OTHER;
+                this.target = null;
+            }
+        }
+
+        /**
+         * @param type
+         * @return true if the type is an entity class or an interface implemented by entities
+         */
+        private static boolean isEntityType(Class<?> type) {
+            if (CaliperEntity.class.isAssignableFrom(type)) {
+                return true;
+            }
+            if (!type.isInterface() || type == CaliperEntityType.class || type == CaliperEventType.class) {
+                return false;
+            }
+            for (Class<?> cls : entityClasses.values()) {
+                if (type.isAssignableFrom(cls)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -52,8 +52,13 @@ public class JxnCoercibleSerializer extends JsonSerializer<CaliperCoercible> {
 
         if (value.isCoercedToId()) {
             jgen.writeString(value.getId());
-        } else {
+        } else if (!JxnDeduplication.writeReference(value, jgen, provider)) {
             defaultSerializer.serialize(value, jgen, provider);
         }
     }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, CaliperCoercible value) {
+        return value == null || JxnContextHoisting.isHoisted(value, provider);
+    }
 }
\ No newline at end of file
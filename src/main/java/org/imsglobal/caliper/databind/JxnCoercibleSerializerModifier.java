@@ -18,19 +18,70 @@
 
 package org.imsglobal.caliper.databind;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import org.imsglobal.caliper.Envelope;
 import org.imsglobal.caliper.entities.CaliperCoercible;
 
 public class JxnCoercibleSerializerModifier extends BeanSerializerModifier {
+    private final boolean generated;
+
+    /**
+     * Constructor that prefers the serializers generated at compile time.
+     */
+    public JxnCoercibleSerializerModifier() {
+        this(true);
+    }
+
+    /**
+     * Constructor.
+     * @param generated whether to substitute generated serializers for reflective ones
+     */
+    public JxnCoercibleSerializerModifier(boolean generated) {
+        this.generated = generated;
+    }
+
     @Override
     public JsonSerializer<?> modifySerializer(
         SerializationConfig config, BeanDescription desc, JsonSerializer<?> serializer) {
-        if (CaliperCoercible.class.isAssignableFrom(desc.getBeanClass())) {
-            return new JxnCoercibleSerializer((JsonSerializer<Object>) serializer);
+        JsonSerializer<?> candidate = generated ? findGenerated(config, desc, serializer) : null;
+        if (candidate == null && CaliperCoercible.class.isAssignableFrom(desc.getBeanClass())) {
+            candidate = new JxnCoercibleSerializer((JsonSerializer<Object>) serializer);
+        }
+        if (candidate == null) {
+            candidate = serializer;
+        }
+        if (Envelope.class.isAssignableFrom(desc.getBeanClass()) && serializer instanceof BeanSerializerBase) {
+            return new JxnEnvelopeSerializer((JsonSerializer<Object>) candidate);
+        }
+        return candidate;
+    }
+
+    /**
+     * Generated serializers assume the NON_EMPTY default inclusion and a plain bean serializer; they
+     * are only used if they expose exactly the properties Jackson found, in whose order they then write.
+     * @param config
+     * @param desc
+     * @param serializer
+     * @return generated serializer or null
+     */
+    private JsonSerializer<?> findGenerated(
+        SerializationConfig config, BeanDescription desc, JsonSerializer<?> serializer) {
+        if (!(serializer instanceof BeanSerializerBase) || serializer.usesObjectId()
+            || desc.findAnyGetter() != null
+            || config.getAnnotationIntrospector().findFilterId(desc.getClassInfo()) != null
+            || config.getDefaultPropertyInclusion(desc.getBeanClass()).getValueInclusion()
+                != JsonInclude.Include.NON_EMPTY) {
+            return null;
+        }
+        JxnGeneratedSerializer<?> candidate = JxnGeneratedSerializers.create(desc.getBeanClass());
+        if (candidate != null && candidate.orderAs(((BeanSerializerBase) serializer).properties())) {
+            return candidate;
         }
-        return serializer;
+        return null;
     }
 }
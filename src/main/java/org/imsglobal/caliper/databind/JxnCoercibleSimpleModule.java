@@ -21,9 +21,27 @@ package org.imsglobal.caliper.databind;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 
 public class JxnCoercibleSimpleModule extends SimpleModule {
+    private final boolean generated;
+
+    /**
+     * Constructor that prefers the serializers generated at compile time.
+     */
+    public JxnCoercibleSimpleModule() {
+        this(true);
+    }
+
+    /**
+     * Constructor.
+     * @param generated whether to substitute generated serializers for reflective ones
+     */
+    public JxnCoercibleSimpleModule(boolean generated) {
+        this.generated = generated;
+    }
+
     @Override
     public void setupModule(SetupContext context) {
         super.setupModule(context);
-        context.addBeanSerializerModifier(new JxnCoercibleSerializerModifier());
+        context.addBeanSerializerModifier(new JxnCoercibleSerializerModifier(generated));
+        context.addDeserializers(new JxnCaliperDeserializers());
     }
-}
\ No newline at end of file
+}
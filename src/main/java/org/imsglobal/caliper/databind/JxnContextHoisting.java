@@ -0,0 +1,79 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.imsglobal.caliper.context.JsonldStringContext;
+
+/**
+ * Envelope-level JSON-LD context hoisting.  When a writer carries the {@link #CONTEXT} attribute, the
+ * Envelope is written with that context as its own "@context" and every nested string context equal to
+ * it is omitted, since JSON-LD processors inherit the outer context.  Stripping only takes effect inside
+ * an Envelope, so events and entities written on their own keep their context.  When a writer carries
+ * the {@link #EXTERNAL} attribute instead, the consumer supplies that context out of band: string
+ * contexts equal to it are omitted everywhere and nothing is hoisted.  Object and array contexts are
+ * always written.
+ */
+final class JxnContextHoisting {
+    static final String CONTEXT = JxnContextHoisting.class.getName() + ".context";
+    static final String EXTERNAL = JxnContextHoisting.class.getName() + ".external";
+    private static final String OUTER = JxnContextHoisting.class.getName() + ".outer";
+
+    /**
+     * Constructor.  Private to prevent instantiation.
+     */
+    private JxnContextHoisting() {
+
+    }
+
+    /**
+     * Retrieve the context to hoist to the Envelope.
+     * @param provider
+     * @return context IRI or null if hoisting is disabled
+     */
+    static String getContext(SerializerProvider provider) {
+        return (provider.getAttribute(EXTERNAL) != null) ? null : (String) provider.getAttribute(CONTEXT);
+    }
+
+    /**
+     * Record that the Envelope has been written with the given context for the rest of this call.
+     * @param provider
+     * @param context
+     */
+    static void enter(SerializerProvider provider, String context) {
+        provider.setAttribute(OUTER, context);
+    }
+
+    /**
+     * Determine whether a nested context value repeats the Envelope's or the external context.
+     * @param value
+     * @param provider
+     * @return true if the value can be omitted
+     */
+    static boolean isHoisted(Object value, SerializerProvider provider) {
+        if (!(value instanceof JsonldStringContext)) {
+            return false;
+        }
+        Object outer = provider.getAttribute(OUTER);
+        if (outer == null) {
+            outer = provider.getAttribute(EXTERNAL);
+        }
+        return outer != null && outer.equals(((JsonldStringContext) value).getId());
+    }
+}
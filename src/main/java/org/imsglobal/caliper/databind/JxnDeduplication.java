@@ -0,0 +1,74 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.imsglobal.caliper.entities.CaliperCoercible;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Envelope-level entity de-duplication.  When a writer carries the {@link #ENABLED} attribute, each
+ * entity is written in full the first time its id is encountered during a single writeValue call and
+ * as its id thereafter, exactly as if it had been coerced to its id.  The ids already written are kept
+ * in a per-call attribute, so concurrent and successive calls on the same writer do not interfere.
+ * Entities are matched by id alone; a later occurrence carrying more detail than the first is still
+ * reduced to its id.
+ */
+final class JxnDeduplication {
+    static final String ENABLED = JxnDeduplication.class.getName() + ".enabled";
+    private static final String SEEN = JxnDeduplication.class.getName() + ".seen";
+
+    /**
+     * Constructor.  Private to prevent instantiation.
+     */
+    private JxnDeduplication() {
+
+    }
+
+    /**
+     * Write the entity's id if de-duplication is enabled and the entity has already been written in full.
+     * @param value
+     * @param gen
+     * @param provider
+     * @return true if the id was written in place of the entity
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    static boolean writeReference(CaliperCoercible value, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+        String id = value.getId();
+        if (id == null || provider.getAttribute(ENABLED) == null) {
+            return false;
+        }
+        Set<String> seen = (Set<String>) provider.getAttribute(SEEN);
+        if (seen == null) {
+            seen = new HashSet<>();
+            provider.setAttribute(SEEN, seen);
+        }
+        if (seen.add(id)) {
+            return false;
+        }
+        gen.writeString(id);
+        return true;
+    }
+}
@@ -20,31 +20,157 @@ package org.imsglobal.caliper.databind;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
 
 /**
  * Overrides the global ObjectMapper serializationInclusion setting as
  * JsonInclude.Include.NON_EMPTY excludes properties of type double
  * whenever the value is set to 0.0.  Reference this custom serializer
  * by annotating the target property's accessor using @JsonSerialize annotation.
+ *
+ * <p>Values are written as the pattern "##0.0#" formats them: at least one integer and one fraction
+ * digit, at most two fraction digits, rounded half-even against the exact binary value.  Zero, NaN
+ * and the infinities are written as null.  Digits are produced into a per-thread buffer and handed to
+ * JSON generators without intermediate objects; the decimal separator is always '.'.  Magnitudes of
+ * 2^42 and beyond, far outside any score, still go through a cached DecimalFormat.</p>
  */
 public class JxnDoubleSerializer extends JsonSerializer<Double> {
+    static final String PATTERN = "##0.0#";
+
+    /**
+     * DecimalFormat rounds the shortest decimal representation of a double rather than its exact value.
+     * Below 2^42 an ulp is under a thousandth, so no rounding boundary can fall between the two and
+     * rounding the exact value gives the same result.  Larger magnitudes use DecimalFormat itself.
+     */
+    static final double MAX_EXACT = 4398046511104.0;
+    private static final int BUFFER_SIZE = 24;
+
+    private static final ThreadLocal<char[]> buffers = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[BUFFER_SIZE];
+        }
+    };
+
+    private static final ThreadLocal<DecimalFormat> formats = new ThreadLocal<DecimalFormat>() {
+        @Override
+        protected DecimalFormat initialValue() {
+            return new DecimalFormat(PATTERN, DecimalFormatSymbols.getInstance(Locale.US));
+        }
+    };
+
     @Override
     public void serialize(Double value, JsonGenerator jgen, SerializerProvider provider)
                                             throws IOException, JsonGenerationException {
-        if (Double.isNaN(value / value)) {
+        double number = value;
+        if (Double.isNaN(number / number)) {
             jgen.writeNull();
+        } else if (Math.abs(number) >= MAX_EXACT) {
+            writeFormatted(formats.get().format(number), jgen);
         } else {
-            // Pattern syntax: "0" = always displayed; "#" = a digit, leading zeroes omitted; "." = decimal separator
-            final String pattern = "##0.0#";
-            final DecimalFormat formatter = new DecimalFormat(pattern);
-            final String output = formatter.format(value);
+            char[] buffer = buffers.get();
+            int length = format(number, buffer);
+            if (jgen instanceof JsonGeneratorImpl) {
+                jgen.writeRawValue(buffer, 0, length);
+            } else {
+                writeFormatted(new String(buffer, 0, length), jgen);
+            }
+        }
+    }
+
+    /**
+     * Write a formatted value.  Binary generators write pre-formatted numbers as strings, so they
+     * receive the rounded value as a native double instead.
+     * @param formatted
+     * @param jgen
+     * @throws IOException
+     */
+    private static void writeFormatted(String formatted, JsonGenerator jgen) throws IOException {
+        if (jgen instanceof SmileGenerator || jgen instanceof CBORGenerator) {
+            jgen.writeNumber(Double.parseDouble(formatted));
+        } else {
+            jgen.writeNumber(formatted);
+        }
+    }
 
-            jgen.writeNumber(output);
+    /**
+     * Format a finite value whose magnitude is below 2^42 as "##0.0#" does.
+     * @param value
+     * @param buffer at least 24 characters
+     * @return number of characters written
+     */
+    static int format(double value, char[] buffer) {
+        boolean negative = value < 0.0 || (value == 0.0 && 1.0 / value < 0.0);
+        double magnitude = Math.abs(value);
+        long integer = (long) magnitude;
+        int hundredths = hundredths(magnitude - integer);
+        if (hundredths == 100) {
+            integer++;
+            hundredths = 0;
+        }
+
+        int position = 0;
+        if (negative) {
+            buffer[position++] = '-';
+        }
+        int digits = 1;
+        for (long remaining = integer / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + integer % 10);
+            integer /= 10;
+        }
+        position += digits;
+        buffer[position++] = '.';
+        buffer[position++] = (char) ('0' + hundredths / 10);
+        if (hundredths % 10 != 0) {
+            buffer[position++] = (char) ('0' + hundredths % 10);
+        }
+        return position;
+    }
+
+    /**
+     * Round a fraction in [0, 1) to hundredths, half-even.  The fraction is mantissa / 2^shift with
+     * shift of at least 53, and 100 * mantissa fits in a long, so the comparison against the halfway
+     * point is exact.
+     * @param fraction
+     * @return hundredths, 0 to 100 inclusive
+     */
+    private static int hundredths(double fraction) {
+        if (fraction == 0.0) {
+            return 0;
+        }
+        long bits = Double.doubleToRawLongBits(fraction);
+        int exponent = (int) ((bits >>> 52) & 0x7ff);
+        long mantissa = bits & 0xfffffffffffffL;
+        int shift;
+        if (exponent == 0) {
+            shift = 1074;
+        } else {
+            mantissa |= 1L << 52;
+            shift = 1075 - exponent;
+        }
+        long scaled = mantissa * 100;
+        if (shift > 60) {
+            // scaled < 2^60 is below the halfway point 2^(shift - 1).
+            return 0;
+        }
+        int result = (int) (scaled >>> shift);
+        long remainder = scaled & ((1L << shift) - 1);
+        long half = 1L << (shift - 1);
+        if (remainder > half || (remainder == half && (result & 1) != 0)) {
+            result++;
         }
+        return result;
     }
-}
\ No newline at end of file
+}
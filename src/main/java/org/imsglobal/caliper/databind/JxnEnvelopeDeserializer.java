@@ -0,0 +1,106 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.context.JsonldContext;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.joda.time.DateTime;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an Envelope and its data.  A context hoisted to the Envelope, or the external context of a
+ * reader carrying the {@link JxnContextHoisting#EXTERNAL} attribute, is restored on each data item that
+ * has no context of its own.  A hoisted context must precede the data, as it does in hoisted output.
+ */
+public class JxnEnvelopeDeserializer extends StdDeserializer<Envelope> implements ResolvableDeserializer {
+    private final JxnCaliperDeserializer itemDeserializer = new JxnCaliperDeserializer(CaliperSendable.class);
+
+    /**
+     * Constructor
+     */
+    public JxnEnvelopeDeserializer() {
+        super(Envelope.class);
+    }
+
+    @Override
+    public void resolve(DeserializationContext ctxt) throws JsonMappingException {
+        itemDeserializer.resolve(ctxt);
+    }
+
+    @Override
+    public Envelope deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.getCurrentToken() == JsonToken.START_OBJECT) {
+            p.nextToken();
+        } else if (p.getCurrentToken() != JsonToken.FIELD_NAME) {
+            return (Envelope) ctxt.handleUnexpectedToken(Envelope.class, p);
+        }
+
+        Object external = ctxt.getAttribute(JxnContextHoisting.EXTERNAL);
+        JsonldContext context = (external != null) ? JsonldStringContext.create((String) external) : null;
+        String sensorId = null;
+        DateTime sendTime = null;
+        String dataVersion = null;
+        List<CaliperSendable> data = null;
+
+        for (JsonToken t = p.getCurrentToken(); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+            String name = p.getCurrentName();
+            if (p.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (name) {
+                case "@context":
+                    context = JxnCaliperDeserializer.readContext(p, ctxt);
+                    break;
+                case "sensor":
+                    sensorId = p.getValueAsString();
+                    break;
+                case "sendTime":
+                    sendTime = ctxt.readValue(p, DateTime.class);
+                    break;
+                case "dataVersion":
+                    dataVersion = p.getValueAsString();
+                    break;
+                case "data":
+                    if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+                        return (Envelope) ctxt.handleUnexpectedToken(List.class, p);
+                    }
+                    data = new ArrayList<>();
+                    while (p.nextToken() != JsonToken.END_ARRAY) {
+                        Object item = itemDeserializer.deserialize(p, ctxt, CaliperSendable.class, context);
+                        data.add((CaliperSendable) item);
+                    }
+                    break;
+                default:
+                    ctxt.handleUnknownProperty(p, this, Envelope.class, name);
+            }
+        }
+        return new Envelope(sensorId, sendTime, dataVersion, (data != null) ? data : new ArrayList<CaliperSendable>());
+    }
+}
@@ -0,0 +1,357 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.joda.time.DateTime;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Streaming Envelope reader that yields the data items of an Envelope one at a time, so that memory use
+ * is bounded by the largest item rather than the whole document.  Each item is copied token by token into
+ * a buffer that is reused for the next item, and is exposed as an {@link Item} view that decodes nothing
+ * until asked: its encoded bytes can be passed through as they are, its id and type are found with a
+ * shallow scan, and its tree or Caliper value are parsed on first access.
+ *
+ * <p>Envelope properties are available once the reader has passed them.  Caliper writes them ahead of
+ * the data, so they are normally known as soon as the reader is opened.  Items are decoded on their own;
+ * an IRI reference to an entity written in full in an earlier item is read as an entity coerced to its
+ * id, typed after its declared type rather than the earlier entity.  A context hoisted to the Envelope,
+ * or the external context of CALIPER_JSON, is restored on decoded items that have none; the encoded
+ * bytes of an item are left as they were.  Readers are not thread-safe.</p>
+ */
+public final class JxnEnvelopeReader implements Closeable {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+
+    private final JsonParser parser;
+    private final JsonFactory factory;
+    private final ReusableByteArrayOutputStream buffer =
+        new ReusableByteArrayOutputStream(BUFFER_SIZE, MAX_RETAINED_BUFFER_SIZE);
+    private final Item item = new Item();
+    private ObjectReader reader;
+    private String sensorId;
+    private DateTime sendTime;
+    private String dataVersion;
+    private JsonldStringContext context;
+    private boolean inData;
+
+    /**
+     * Constructor
+     * @param reader reader for the Envelope's data format
+     * @param parser parser positioned before the Envelope
+     * @throws IOException
+     */
+    private JxnEnvelopeReader(ObjectReader reader, JsonParser parser) throws IOException {
+        this.reader = reader.forType(CaliperSendable.class);
+        this.parser = parser;
+        this.factory = reader.getFactory();
+
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected an Envelope object but found " + parser.getCurrentToken());
+        }
+        readProperties();
+    }
+
+    /**
+     * Open a reader over a JSON-LD Envelope.
+     * @param in
+     * @return reader
+     * @throws IOException
+     */
+    public static JxnEnvelopeReader open(InputStream in) throws IOException {
+        return open(DataFormat.CALIPER_JSONLD, in);
+    }
+
+    /**
+     * Open a reader over an Envelope in the given data format.  The reader closes the stream when closed.
+     * XAPI_JSON cannot be read, since an xAPI statement array does not carry the Envelope or the Caliper
+     * events it was written from.
+     * @param format
+     * @param in
+     * @return reader
+     * @throws IllegalArgumentException if the format is XAPI_JSON
+     * @throws IOException
+     */
+    public static JxnEnvelopeReader open(DataFormat format, InputStream in) throws IOException {
+        if (format == DataFormat.XAPI_JSON) {
+            throw new IllegalArgumentException("Data format " + format + " cannot be read.");
+        }
+        ObjectReader reader = JxnObjectMappers.reader(format);
+        return open(reader, reader.getFactory().createParser(in));
+    }
+
+    /**
+     * Open a reader over an Envelope read from an existing parser.
+     * @param reader reader for the parser's data format, such as {@link JxnObjectMappers#reader(DataFormat)}
+     * @param parser parser positioned before the Envelope
+     * @return reader
+     * @throws IOException
+     */
+    public static JxnEnvelopeReader open(ObjectReader reader, JsonParser parser) throws IOException {
+        return new JxnEnvelopeReader(reader, parser);
+    }
+
+    /**
+     * @return sensor id, or null if not yet read
+     */
+    public String getSensorId() {
+        return sensorId;
+    }
+
+    /**
+     * @return send time, or null if not yet read
+     */
+    public DateTime getSendTime() {
+        return sendTime;
+    }
+
+    /**
+     * @return data version, or null if not yet read
+     */
+    public String getDataVersion() {
+        return dataVersion;
+    }
+
+    /**
+     * @return JSON-LD context hoisted to the Envelope, or null if there is none or it is not yet read
+     */
+    public JsonldStringContext getContext() {
+        return context;
+    }
+
+    /**
+     * Advance to the next data item.
+     * @return view of the item, valid until the next call, or null after the last item
+     * @throws IOException
+     */
+    public Item next() throws IOException {
+        if (!inData) {
+            return null;
+        }
+        if (parser.nextToken() == JsonToken.END_ARRAY) {
+            inData = false;
+            parser.nextToken();
+            readProperties();
+            return null;
+        }
+
+        buffer.reset();
+        try (JsonGenerator gen = factory.createGenerator(buffer)) {
+            gen.copyCurrentStructure(parser);
+        }
+        item.reset();
+        return item;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inData = false;
+        parser.close();
+    }
+
+    /**
+     * Read Envelope properties up to the start of the data or the end of the Envelope.
+     * @throws IOException
+     */
+    private void readProperties() throws IOException {
+        for (JsonToken t = parser.getCurrentToken(); t != null && t != JsonToken.END_OBJECT; t = parser.nextToken()) {
+            if (t != JsonToken.FIELD_NAME) {
+                continue;
+            }
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (name) {
+                case "@context":
+                    if (value == JsonToken.VALUE_STRING) {
+                        context = JsonldStringContext.create(parser.getText());
+                        reader = reader.withAttribute(JxnContextHoisting.EXTERNAL, context.getId());
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "sensor":
+                    sensorId = parser.getValueAsString();
+                    break;
+                case "sendTime":
+                    sendTime = reader.readValue(parser, DateTime.class);
+                    break;
+                case "dataVersion":
+                    dataVersion = parser.getValueAsString();
+                    break;
+                case "data":
+                    if (value != JsonToken.START_ARRAY) {
+                        throw new IOException("Expected an array of data but found " + value);
+                    }
+                    inData = true;
+                    return;
+                default:
+                    parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * View of the current data item.
+     */
+    public final class Item {
+        private String id;
+        private String type;
+        private boolean scanned;
+        private JsonNode tree;
+        private CaliperSendable value;
+
+        /**
+         * Constructor.  Private to the enclosing reader.
+         */
+        private Item() {
+
+        }
+
+        /**
+         * Forget whatever was decoded from the previous item.
+         */
+        private void reset() {
+            id = null;
+            type = null;
+            scanned = false;
+            tree = null;
+            value = null;
+        }
+
+        /**
+         * @return length of the item's encoding
+         */
+        public int size() {
+            return buffer.size();
+        }
+
+        /**
+         * Write the item's encoding, in the Envelope's data format, without decoding it.
+         * @param out
+         * @throws IOException
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(buffer.buffer(), 0, buffer.size());
+        }
+
+        /**
+         * @return copy of the item's encoding in the Envelope's data format
+         */
+        public byte[] toByteArray() {
+            return Arrays.copyOf(buffer.buffer(), buffer.size());
+        }
+
+        /**
+         * @return item id, or null if it has none
+         * @throws IOException
+         */
+        public String getId() throws IOException {
+            scan();
+            return id;
+        }
+
+        /**
+         * @return item type term, or null if it has none
+         * @throws IOException
+         */
+        public String getType() throws IOException {
+            scan();
+            return type;
+        }
+
+        /**
+         * @return item parsed as a tree
+         * @throws IOException
+         */
+        public JsonNode getTree() throws IOException {
+            if (tree == null) {
+                try (JsonParser p = parser()) {
+                    tree = reader.readTree(p);
+                }
+            }
+            return tree;
+        }
+
+        /**
+         * @return item decoded as a Caliper event or entity
+         * @throws IOException
+         */
+        public CaliperSendable getValue() throws IOException {
+            if (value == null) {
+                try (JsonParser p = parser()) {
+                    value = reader.readValue(p);
+                }
+            }
+            return value;
+        }
+
+        /**
+         * Find the top-level id and type without decoding anything else.
+         * @throws IOException
+         */
+        private void scan() throws IOException {
+            if (scanned) {
+                return;
+            }
+            scanned = true;
+            try (JsonParser p = parser()) {
+                if (p.nextToken() == JsonToken.VALUE_STRING) {
+                    id = p.getText();
+                    return;
+                }
+                while (p.nextToken() == JsonToken.FIELD_NAME && (id == null || type == null)) {
+                    String name = p.getCurrentName();
+                    p.nextToken();
+                    if ("id".equals(name)) {
+                        id = p.getValueAsString();
+                    } else if ("type".equals(name)) {
+                        type = p.getValueAsString();
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return parser over the item's encoding
+         * @throws IOException
+         */
+        private JsonParser parser() throws IOException {
+            return factory.createParser(buffer.buffer(), 0, buffer.size());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import org.imsglobal.caliper.Envelope;
+
+import java.io.IOException;
+
+/**
+ * Writes an Envelope through its bean serializer, prefixing the hoisted "@context" when the writer
+ * enables context hoisting.  See {@link JxnContextHoisting}.
+ */
+public class JxnEnvelopeSerializer extends JsonSerializer<Envelope> implements ResolvableSerializer {
+    private final JsonSerializer<Object> defaultSerializer;
+    private JsonSerializer<Object> fieldSerializer;
+
+    /**
+     * Constructor that injects default serializer.
+     * @param defaultSerializer
+     */
+    public JxnEnvelopeSerializer(JsonSerializer<Object> defaultSerializer) {
+        this.defaultSerializer = defaultSerializer;
+        this.fieldSerializer = defaultSerializer.unwrappingSerializer(NameTransformer.NOP);
+    }
+
+    @Override
+    public JsonSerializer<?> getDelegatee() {
+        return defaultSerializer;
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (defaultSerializer instanceof ResolvableSerializer) {
+            ((ResolvableSerializer) defaultSerializer).resolve(provider);
+            fieldSerializer = defaultSerializer.unwrappingSerializer(NameTransformer.NOP);
+        }
+    }
+
+    @Override
+    public void serialize(Envelope value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        String context = JxnContextHoisting.getContext(provider);
+        if (context == null) {
+            defaultSerializer.serialize(value, jgen, provider);
+            return;
+        }
+
+        JxnContextHoisting.enter(provider, context);
+        jgen.writeStartObject(value);
+        jgen.writeStringField("@context", context);
+        if (defaultSerializer instanceof JxnGeneratedSerializer) {
+            ((JxnGeneratedSerializer<Object>) defaultSerializer).serializeFields(value, jgen, provider);
+        } else {
+            fieldSerializer.serialize(value, jgen, provider);
+        }
+        jgen.writeEndObject();
+    }
+}
@@ -0,0 +1,249 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.PropertySerializerMap;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.imsglobal.caliper.entities.CaliperCoercible;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Base class of the streaming serializers generated at compile time by
+ * {@link org.imsglobal.caliper.databind.processor.JxnSerializerProcessor}.  A generated serializer
+ * knows how to write each of its properties but not the order in which Jackson emits them, since
+ * that depends on the order the JVM reports getters in.  The order is therefore taken from the
+ * reflective bean serializer that Jackson builds for the same type (see {@link #orderAs(Iterator)}),
+ * after which no further introspection takes place.  Its property writers also serve as the context
+ * for value serializers, which are cached per property exactly as {@code BeanPropertyWriter} does.
+ */
+public abstract class JxnGeneratedSerializer<T> extends StdSerializer<T> {
+    private final SerializedString[] names;
+    private final BeanProperty[] properties;
+    private final PropertySerializerMap[] serializers;
+    private int[] order;
+
+    /**
+     * Constructor.
+     * @param type
+     * @param names property names, in the order of the generated property indexes
+     */
+    protected JxnGeneratedSerializer(Class<T> type, String... names) {
+        super(type);
+        this.names = new SerializedString[names.length];
+        this.properties = new BeanProperty[names.length];
+        this.serializers = new PropertySerializerMap[names.length];
+        for (int i = 0; i < names.length; i++) {
+            this.names[i] = new SerializedString(names[i]);
+            this.serializers[i] = PropertySerializerMap.emptyForProperties();
+        }
+    }
+
+    /**
+     * Adopt the property order of the reflective serializer.  Fails if the property sets differ,
+     * in which case the reflective serializer must be used instead.
+     * @param properties
+     * @return true if every property could be matched
+     */
+    public boolean orderAs(Iterator<PropertyWriter> properties) {
+        int[] order = new int[names.length];
+        int count = 0;
+        while (properties.hasNext()) {
+            PropertyWriter property = properties.next();
+            int index = indexOf(property.getName());
+            if (index < 0 || count == order.length) {
+                return false;
+            }
+            this.properties[index] = property;
+            order[count++] = index;
+        }
+        if (count != order.length) {
+            return false;
+        }
+        this.order = order;
+        return true;
+    }
+
+    /**
+     * Retrieve the property names known to this serializer.
+     * @return property names
+     */
+    public String[] getPropertyNames() {
+        String[] values = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            values[i] = names[i].getValue();
+        }
+        return values;
+    }
+
+    @Override
+    public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (writeId(value, gen, provider)) {
+            return;
+        }
+        gen.writeStartObject(value);
+        serializeFields(value, gen, provider);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(T value, JsonGenerator gen, SerializerProvider provider,
+                                  TypeSerializer typeSer) throws IOException {
+        if (writeId(value, gen, provider)) {
+            return;
+        }
+        WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, JsonToken.START_OBJECT));
+        serializeFields(value, gen, provider);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, T value) {
+        return value == null || JxnContextHoisting.isHoisted(value, provider);
+    }
+
+    /**
+     * Write every property in the adopted order, without the enclosing object.
+     * @param value
+     * @param gen
+     * @param provider
+     * @throws IOException
+     */
+    public void serializeFields(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int[] order = this.order;
+        for (int i = 0; i < order.length; i++) {
+            writeProperty(order[i], value, gen, provider);
+        }
+    }
+
+    /**
+     * Write the value's identifier in place of the object if it has been coerced to its id or, when
+     * de-duplicating, has already been written.
+     * @param value
+     * @param gen
+     * @param provider
+     * @return true if the identifier was written
+     * @throws IOException
+     */
+    protected boolean writeId(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        return false;
+    }
+
+    /**
+     * Write an entity's identifier if it has already been written in full during this call.
+     * @param value
+     * @param gen
+     * @param provider
+     * @return true if the identifier was written
+     * @throws IOException
+     */
+    protected final boolean writeReference(CaliperCoercible value, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+        return JxnDeduplication.writeReference(value, gen, provider);
+    }
+
+    /**
+     * Write a single property, honouring its inclusion rule.
+     * @param index generated property index
+     * @param value
+     * @param gen
+     * @param provider
+     * @throws IOException
+     */
+    protected abstract void writeProperty(int index, T value, JsonGenerator gen, SerializerProvider provider)
+        throws IOException;
+
+    /**
+     * Retrieve the pre-encoded name of a property.
+     * @param index
+     * @return name
+     */
+    protected final SerializableString name(int index) {
+        return names[index];
+    }
+
+    /**
+     * Write a String property unless it is null or empty.
+     * @param index
+     * @param value
+     * @param gen
+     * @throws IOException
+     */
+    protected final void writeString(int index, String value, JsonGenerator gen) throws IOException {
+        if (value != null && value.length() > 0) {
+            gen.writeFieldName(names[index]);
+            gen.writeString(value);
+        }
+    }
+
+    /**
+     * Write an Object property with the serializer Jackson would select for its runtime type, contextualized
+     * for the property, unless it is null or, if empty values are to be suppressed, that serializer considers it empty.
+     * @param index
+     * @param value
+     * @param suppressEmpty
+     * @param gen
+     * @param provider
+     * @throws IOException
+     */
+    protected final void writeObject(int index, Object value, boolean suppressEmpty, JsonGenerator gen,
+                                     SerializerProvider provider) throws IOException {
+        if (value == null) {
+            return;
+        }
+        Class<?> type = value.getClass();
+        JsonSerializer<Object> serializer = serializers[index].serializerFor(type);
+        if (serializer == null) {
+            PropertySerializerMap.SerializerAndMapResult result
+                = serializers[index].findAndAddSecondarySerializer(type, provider, properties[index]);
+            serializers[index] = result.map;
+            serializer = result.serializer;
+        }
+        if (suppressEmpty && serializer.isEmpty(provider, value)) {
+            return;
+        }
+        gen.writeFieldName(names[index]);
+        serializer.serialize(value, gen, provider);
+    }
+
+    /**
+     * Linear search is adequate: it only runs while the serializer is being constructed.
+     * @param name
+     * @return index or -1
+     */
+    private int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].getValue().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
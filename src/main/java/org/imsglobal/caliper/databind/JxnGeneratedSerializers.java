@@ -0,0 +1,104 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Locates the serializers generated at compile time.  The index is looked up reflectively so that a
+ * build that skipped annotation processing still works, only without the generated serializers.  An
+ * incremental build indexes only the classes it recompiled, so beans missing from the index are looked
+ * up by the generated serializer's naming convention as well.
+ */
+final class JxnGeneratedSerializers {
+    private static final Logger log = LoggerFactory.getLogger(JxnGeneratedSerializers.class);
+    private static final String INDEX = "org.imsglobal.caliper.databind.JxnGeneratedSerializerIndex";
+    private static final String SUFFIX = "_JxnSerializer";
+    private static final Map<Class<?>, Class<?>> serializers = load();
+
+    /**
+     * Constructor.  Private to prevent instantiation.
+     */
+    private JxnGeneratedSerializers() {
+
+    }
+
+    /**
+     * Create a new generated serializer for a bean class.
+     * @param type
+     * @return serializer or null if none was generated
+     */
+    static JxnGeneratedSerializer<?> create(Class<?> type) {
+        Class<?> serializer = serializers.get(type);
+        if (serializer == null) {
+            serializer = find(type);
+            if (serializer == null) {
+                return null;
+            }
+        }
+        try {
+            return (JxnGeneratedSerializer<?>) serializer.getConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            log.warn("Unable to instantiate " + serializer.getName() + ", serializing reflectively", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Retrieve the bean classes for which serializers were generated.
+     * @return bean classes
+     */
+    static Set<Class<?>> types() {
+        return serializers.keySet();
+    }
+
+    /**
+     * Find the serializer generated for a bean class that is not in the index.
+     * @param type
+     * @return serializer class or null if none was generated
+     */
+    private static Class<?> find(Class<?> type) {
+        if (type.getEnclosingClass() != null || type.getClassLoader() == null) {
+            return null;
+        }
+        try {
+            Class<?> serializer = Class.forName(type.getName() + SUFFIX, false, type.getClassLoader());
+            return JxnGeneratedSerializer.class.isAssignableFrom(serializer) ? serializer : null;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Class<?>, Class<?>> load() {
+        try {
+            return (Map<Class<?>, Class<?>>) Class.forName(INDEX).getMethod("serializers").invoke(null);
+        } catch (ClassNotFoundException ex) {
+            log.debug("No generated serializers found, serializing reflectively");
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            log.warn("Unable to load generated serializers, serializing reflectively", ex);
+        }
+        return Collections.emptyMap();
+    }
+}
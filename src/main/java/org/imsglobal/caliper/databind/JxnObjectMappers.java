@@ -0,0 +1,195 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.events.CaliperEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Shared, preconfigured Jackson mappers and writers.  ObjectMapper and ObjectWriter are thread-safe once
+ * configured, and reusing them keeps Jackson's serializer cache warm so that event and entity classes
+ * are introspected once per JVM rather than once per Envelope.  The shared writers leave the output
+ * streams they write to open, so that payloads can be streamed straight into request bodies.
+ */
+public final class JxnObjectMappers {
+    private static final ObjectMapper mapper = create();
+    private static final int DEDUPLICATE_ENTITIES = 1;
+    private static final int HOIST_CONTEXT = 2;
+    private static final Map<DataFormat, ObjectWriter[]> writers = new EnumMap<>(DataFormat.class);
+    private static final Map<DataFormat, ObjectReader> readers = new EnumMap<>(DataFormat.class);
+
+    static {
+        String context = JsonldStringContext.getDefault().getId();
+        register(DataFormat.CALIPER_JSON, mapper.reader().withAttribute(JxnContextHoisting.EXTERNAL, context),
+            mapper.writer().withAttribute(JxnContextHoisting.EXTERNAL, context));
+        register(DataFormat.CALIPER_JSONLD, mapper);
+        register(DataFormat.CALIPER_SMILE, create(new SmileFactory()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES), true));
+        register(DataFormat.CALIPER_CBOR, create(new CBORFactory(), true));
+        register(DataFormat.XAPI_JSON, create().registerModule(new SimpleModule("xAPI")
+            .addSerializer(Envelope.class, new JxnXapiEnvelopeSerializer())
+            .addSerializer(CaliperEvent.class, new JxnXapiSerializer())));
+    }
+
+    /**
+     * Constructor.  Private to prevent instantiation.
+     */
+    private JxnObjectMappers() {
+
+    }
+
+    /**
+     * Create a new Caliper-friendly ObjectMapper.  Prefer the shared instances unless the mapper
+     * is to be reconfigured.
+     * @return ObjectMapper
+     */
+    public static ObjectMapper create() {
+        return create(true);
+    }
+
+    /**
+     * Create a new Caliper-friendly ObjectMapper, optionally without the serializers generated at
+     * compile time.  Output is identical either way; the reflective mapper exists for comparison.
+     * @param generated whether to use generated serializers where available
+     * @return ObjectMapper
+     */
+    public static ObjectMapper create(boolean generated) {
+        return create(null, generated);
+    }
+
+    /**
+     * Create a new Caliper-friendly ObjectMapper over the given encoding.
+     * @param factory JSON, Smile or CBOR factory; null for JSON
+     * @param generated whether to use generated serializers where available
+     * @return ObjectMapper
+     */
+    public static ObjectMapper create(JsonFactory factory, boolean generated) {
+        SimpleFilterProvider provider = new SimpleFilterProvider()
+            .setFailOnUnknownId(true);
+
+        return new ObjectMapper(factory)
+            .setDateFormat(new ISO8601DateFormat())
+            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
+            .setFilterProvider(provider)
+            .registerModules(new JodaModule(), new JxnCoercibleSimpleModule(generated));
+    }
+
+    /**
+     * Retrieve the shared ObjectMapper.  Do not reconfigure it.
+     * @return ObjectMapper
+     */
+    public static ObjectMapper mapper() {
+        return mapper;
+    }
+
+    /**
+     * Retrieve the shared ObjectWriter for the default data format.
+     * @return ObjectWriter
+     */
+    public static ObjectWriter writer() {
+        return writer(DataFormat.CALIPER_JSONLD);
+    }
+
+    /**
+     * Retrieve the shared ObjectWriter for a data format.
+     * @param format
+     * @return ObjectWriter
+     */
+    public static ObjectWriter writer(DataFormat format) {
+        return writer(format, false, false);
+    }
+
+    /**
+     * Retrieve the shared ObjectWriter for a data format and Envelope-level options.
+     * @param format
+     * @param deduplicateEntities write each entity in full only the first time it appears and as its id thereafter
+     * @param hoistContext write the default JSON-LD context once on the Envelope and omit nested copies of it
+     * @return ObjectWriter
+     */
+    public static ObjectWriter writer(DataFormat format, boolean deduplicateEntities, boolean hoistContext) {
+        ObjectWriter[] variants = writers.get(format);
+        if (variants == null) {
+            throw new UnsupportedOperationException("Data format " + format + " is not supported.");
+        }
+        return variants[(deduplicateEntities ? DEDUPLICATE_ENTITIES : 0) | (hoistContext ? HOIST_CONTEXT : 0)];
+    }
+
+    /**
+     * Retrieve the shared ObjectReader for a data format.
+     * @param format
+     * @return ObjectReader
+     */
+    public static ObjectReader reader(DataFormat format) {
+        ObjectReader reader = readers.get(format);
+        if (reader == null) {
+            throw new UnsupportedOperationException("Data format " + format + " is not supported.");
+        }
+        return reader;
+    }
+
+    /**
+     * Register the reader and writer for a data format along with the writer's Envelope-level variants.
+     * @param format
+     * @param mapper
+     */
+    private static void register(DataFormat format, ObjectMapper mapper) {
+        register(format, mapper.reader(), mapper.writer());
+    }
+
+    /**
+     * Register the reader and writer for a data format along with the writer's Envelope-level variants.
+     * @param format
+     * @param reader
+     * @param writer
+     */
+    private static void register(DataFormat format, ObjectReader reader, ObjectWriter writer) {
+        readers.put(format, reader);
+
+        ObjectWriter[] variants = new ObjectWriter[(DEDUPLICATE_ENTITIES | HOIST_CONTEXT) + 1];
+        for (int i = 0; i < variants.length; i++) {
+            ObjectWriter variant = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if ((i & DEDUPLICATE_ENTITIES) != 0) {
+                variant = variant.withAttribute(JxnDeduplication.ENABLED, Boolean.TRUE);
+            }
+            if ((i & HOIST_CONTEXT) != 0) {
+                variant = variant.withAttribute(JxnContextHoisting.CONTEXT, JsonldStringContext.getDefault().getId());
+            }
+            variants[i] = variant;
+        }
+        writers.put(format, variants);
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.events.CaliperEvent;
+
+import java.io.IOException;
+
+/**
+ * Writes an Envelope as the array of xAPI statements accepted by an LRS statements resource.  Only
+ * events become statements; entities sent on their own have no xAPI equivalent and are skipped.
+ */
+public class JxnXapiEnvelopeSerializer extends StdSerializer<Envelope> {
+    private final JxnXapiSerializer statementSerializer = new JxnXapiSerializer();
+
+    /**
+     * Constructor
+     */
+    public JxnXapiEnvelopeSerializer() {
+        super(Envelope.class);
+    }
+
+    @Override
+    public void serialize(Envelope envelope, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartArray();
+        for (CaliperSendable item : envelope.getData()) {
+            if (item instanceof CaliperEvent) {
+                statementSerializer.serialize((CaliperEvent) item, gen, provider);
+            }
+        }
+        gen.writeEndArray();
+    }
+}
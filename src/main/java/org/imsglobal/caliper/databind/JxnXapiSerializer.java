@@ -0,0 +1,261 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.imsglobal.caliper.entities.CaliperEntity;
+import org.imsglobal.caliper.entities.CaliperGeneratable;
+import org.imsglobal.caliper.entities.agent.CaliperAgent;
+import org.imsglobal.caliper.entities.agent.CaliperOrganization;
+import org.imsglobal.caliper.entities.agent.SoftwareApplication;
+import org.imsglobal.caliper.entities.outcome.Result;
+import org.imsglobal.caliper.entities.outcome.Score;
+import org.imsglobal.caliper.entities.resource.Attempt;
+import org.imsglobal.caliper.events.CaliperEvent;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes a Caliper event as an xAPI statement in a single pass over the event graph.
+ * <ul>
+ *     <li>actor: Agent, or Group for organizations, identified by an account on the edApp</li>
+ *     <li>verb: see {@link JxnXapiVerbs}</li>
+ *     <li>object: Activity typed with the Caliper entity type IRI</li>
+ *     <li>result: score from a generated Score or Result; completion and duration from an Attempt</li>
+ *     <li>context: platform from the edApp; group as grouping and target as other context activities;
+ *     session id, membership id and event extensions as extensions</li>
+ * </ul>
+ */
+public class JxnXapiSerializer extends StdSerializer<CaliperEvent> {
+    public static final String CALIPER = "http://purl.imsglobal.org/caliper/";
+    public static final String SESSION_EXTENSION = CALIPER + "session";
+    public static final String MEMBERSHIP_EXTENSION = CALIPER + "membership";
+    public static final String EXTENSIONS_EXTENSION = CALIPER + "extensions";
+
+    private static final String UUID_URN = "urn:uuid:";
+    private static final String LANGUAGE = "en-US";
+
+    /**
+     * Constructor
+     */
+    public JxnXapiSerializer() {
+        super(CaliperEvent.class);
+    }
+
+    @Override
+    public void serialize(CaliperEvent event, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+
+        String id = event.getId();
+        if (id != null && id.regionMatches(true, 0, UUID_URN, 0, UUID_URN.length())) {
+            gen.writeStringField("id", id.substring(UUID_URN.length()));
+        }
+
+        SoftwareApplication edApp = event.getEdApp();
+        gen.writeFieldName("actor");
+        writeAgent(event.getActor(), edApp, gen);
+
+        gen.writeObjectFieldStart("verb");
+        gen.writeStringField("id", JxnXapiVerbs.verb(event.getAction()));
+        writeLanguageMap("display", event.getAction().value(), gen);
+        gen.writeEndObject();
+
+        gen.writeFieldName("object");
+        writeActivity(event.getObject(), gen);
+
+        writeResult(event.getGenerated(), gen);
+        writeContext(event, gen);
+
+        if (event.getEventTime() != null) {
+            gen.writeStringField("timestamp", event.getEventTime().toString());
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * Write an xAPI Agent or Group identified by an account on the edApp, or on the agent itself when
+     * the edApp is unknown.
+     * @param agent
+     * @param edApp
+     * @param gen
+     * @throws IOException
+     */
+    private static void writeAgent(CaliperAgent agent, SoftwareApplication edApp, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("objectType", (agent instanceof CaliperOrganization) ? "Group" : "Agent");
+        if (agent.getName() != null) {
+            gen.writeStringField("name", agent.getName());
+        }
+        gen.writeObjectFieldStart("account");
+        gen.writeStringField("homePage", (edApp != null && edApp.getId() != null) ? edApp.getId() : agent.getId());
+        gen.writeStringField("name", agent.getId());
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Write an xAPI Activity for a Caliper entity.
+     * @param entity
+     * @param gen
+     * @throws IOException
+     */
+    private static void writeActivity(CaliperEntity entity, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("objectType", "Activity");
+        gen.writeStringField("id", entity.getId());
+        gen.writeObjectFieldStart("definition");
+        gen.writeStringField("type", CALIPER + entity.getType().value());
+        if (entity.getName() != null) {
+            writeLanguageMap("name", entity.getName(), gen);
+        }
+        if (entity.getDescription() != null) {
+            writeLanguageMap("description", entity.getDescription(), gen);
+        }
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Write the statement result for generated outcomes and attempts; other generated entities have
+     * no xAPI result.
+     * @param generated
+     * @param gen
+     * @throws IOException
+     */
+    private static void writeResult(CaliperGeneratable generated, JsonGenerator gen) throws IOException {
+        if (generated instanceof Score) {
+            Score score = (Score) generated;
+            gen.writeObjectFieldStart("result");
+            writeScore(score.getScoreGiven(), score.getMaxScore(), gen);
+            if (score.getComment() != null) {
+                gen.writeStringField("response", score.getComment());
+            }
+            gen.writeEndObject();
+        } else if (generated instanceof Result) {
+            Result result = (Result) generated;
+            gen.writeObjectFieldStart("result");
+            writeScore(result.getResultScore(), result.getMaxResultScore(), gen);
+            if (result.getComment() != null) {
+                gen.writeStringField("response", result.getComment());
+            }
+            gen.writeEndObject();
+        } else if (generated instanceof Attempt) {
+            Attempt attempt = (Attempt) generated;
+            gen.writeObjectFieldStart("result");
+            gen.writeBooleanField("completion", attempt.getEndedAtTime() != null);
+            if (attempt.getDuration() != null) {
+                gen.writeStringField("duration", attempt.getDuration());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Write an xAPI score.  xAPI requires min &lt;= raw &lt;= max, so the range and the scaled score are
+     * written only when the raw score falls within [0, max]; otherwise only the raw score is written.
+     * @param raw
+     * @param max
+     * @param gen
+     * @throws IOException
+     */
+    private static void writeScore(double raw, double max, JsonGenerator gen) throws IOException {
+        boolean inRange = max > 0.0 && raw >= 0.0 && raw <= max;
+        gen.writeObjectFieldStart("score");
+        if (inRange) {
+            gen.writeNumberField("scaled", raw / max);
+        }
+        gen.writeNumberField("raw", raw);
+        if (inRange) {
+            gen.writeNumberField("min", 0.0);
+            gen.writeNumberField("max", max);
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * Write the statement context.
+     * @param event
+     * @param gen
+     * @throws IOException
+     */
+    private static void writeContext(CaliperEvent event, JsonGenerator gen) throws IOException {
+        SoftwareApplication edApp = event.getEdApp();
+        CaliperEntity group = event.getGroup();
+        CaliperEntity target = (event.getTarget() instanceof CaliperEntity) ? (CaliperEntity) event.getTarget() : null;
+        CaliperEntity session = event.getSession();
+        CaliperEntity membership = event.getMembership();
+        Map<String, Object> extensions = event.getExtensions();
+        boolean hasExtensions = extensions != null && !extensions.isEmpty();
+
+        if (edApp == null && group == null && target == null && session == null && membership == null
+            && !hasExtensions) {
+            return;
+        }
+
+        gen.writeObjectFieldStart("context");
+        if (edApp != null) {
+            gen.writeStringField("platform", (edApp.getName() != null) ? edApp.getName() : edApp.getId());
+        }
+        if (group != null || target != null) {
+            gen.writeObjectFieldStart("contextActivities");
+            if (group != null) {
+                gen.writeArrayFieldStart("grouping");
+                writeActivity(group, gen);
+                gen.writeEndArray();
+            }
+            if (target != null) {
+                gen.writeArrayFieldStart("other");
+                writeActivity(target, gen);
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+        if (session != null || membership != null || hasExtensions) {
+            gen.writeObjectFieldStart("extensions");
+            if (session != null) {
+                gen.writeStringField(SESSION_EXTENSION, session.getId());
+            }
+            if (membership != null) {
+                gen.writeStringField(MEMBERSHIP_EXTENSION, membership.getId());
+            }
+            if (hasExtensions) {
+                gen.writeFieldName(EXTENSIONS_EXTENSION);
+                gen.writeObject(extensions);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * Write an xAPI language map holding a single en-US entry.
+     * @param name
+     * @param value
+     * @param gen
+     * @throws IOException
+     */
+    private static void writeLanguageMap(String name, String value, JsonGenerator gen) throws IOException {
+        gen.writeObjectFieldStart(name);
+        gen.writeStringField(LANGUAGE, value);
+        gen.writeEndObject();
+    }
+}
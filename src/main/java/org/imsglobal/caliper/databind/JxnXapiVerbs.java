@@ -0,0 +1,100 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import org.imsglobal.caliper.actions.Action;
+import org.imsglobal.caliper.actions.CaliperAction;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Mapping of Caliper actions to xAPI verb IRIs drawn from the ADL, Activity Streams, TinCan and xAPI
+ * video vocabularies.  Actions without a well-known equivalent, and custom actions, map to their Caliper
+ * action IRI.
+ */
+public final class JxnXapiVerbs {
+    public static final String CALIPER_ACTIONS = "http://purl.imsglobal.org/caliper/actions/";
+
+    private static final String ADL = "http://adlnet.gov/expapi/verbs/";
+    private static final String ADL_W3ID = "https://w3id.org/xapi/adl/verbs/";
+    private static final String ACTIVITY_STREAMS = "http://activitystrea.ms/schema/1.0/";
+    private static final String TINCAN = "http://id.tincanapi.com/verb/";
+    private static final String VIDEO = "https://w3id.org/xapi/video/verbs/";
+
+    private static final Map<Action, String> verbs = new EnumMap<>(Action.class);
+
+    static {
+        verbs.put(Action.ABANDONED, ADL_W3ID + "abandoned");
+        verbs.put(Action.ADDED, ACTIVITY_STREAMS + "add");
+        verbs.put(Action.ATTACHED, ACTIVITY_STREAMS + "attach");
+        verbs.put(Action.BOOKMARKED, TINCAN + "bookmarked");
+        verbs.put(Action.COMMENTED, ADL + "commented");
+        verbs.put(Action.COMPLETED, ADL + "completed");
+        verbs.put(Action.CREATED, ACTIVITY_STREAMS + "create");
+        verbs.put(Action.DELETED, ACTIVITY_STREAMS + "delete");
+        verbs.put(Action.DISLIKED, ACTIVITY_STREAMS + "dislike");
+        verbs.put(Action.GRADED, ADL + "scored");
+        verbs.put(Action.JUMPED_TO, VIDEO + "seeked");
+        verbs.put(Action.LIKED, ACTIVITY_STREAMS + "like");
+        verbs.put(Action.LOGGED_IN, ADL_W3ID + "logged-in");
+        verbs.put(Action.LOGGED_OUT, ADL_W3ID + "logged-out");
+        verbs.put(Action.MODIFIED, ACTIVITY_STREAMS + "update");
+        verbs.put(Action.NAVIGATED_TO, ADL + "experienced");
+        verbs.put(Action.PAUSED, VIDEO + "paused");
+        verbs.put(Action.POSTED, ACTIVITY_STREAMS + "post");
+        verbs.put(Action.QUESTIONED, ADL + "asked");
+        verbs.put(Action.REMOVED, ACTIVITY_STREAMS + "remove");
+        verbs.put(Action.REPLIED, ADL + "responded");
+        verbs.put(Action.RESUMED, ADL + "resumed");
+        verbs.put(Action.SHARED, ADL + "shared");
+        verbs.put(Action.SKIPPED, TINCAN + "skipped");
+        verbs.put(Action.STARTED, ADL + "attempted");
+        verbs.put(Action.SUBMITTED, ACTIVITY_STREAMS + "submit");
+        verbs.put(Action.TAGGED, ACTIVITY_STREAMS + "tag");
+        verbs.put(Action.USED, ACTIVITY_STREAMS + "use");
+        verbs.put(Action.VIEWED, TINCAN + "viewed");
+    }
+
+    /**
+     * Constructor.  Private to prevent instantiation.
+     */
+    private JxnXapiVerbs() {
+
+    }
+
+    /**
+     * Retrieve the xAPI verb IRI for a Caliper action.
+     * @param action
+     * @return verb IRI
+     */
+    public static String verb(CaliperAction action) {
+        String verb = verbs.get(action);
+        return (verb != null) ? verb : CALIPER_ACTIONS + action.value();
+    }
+
+    /**
+     * Determine whether a Caliper action has a well-known xAPI verb.
+     * @param action
+     * @return true if the action is in the mapping table
+     */
+    public static boolean isMapped(CaliperAction action) {
+        return verbs.containsKey(action);
+    }
+}
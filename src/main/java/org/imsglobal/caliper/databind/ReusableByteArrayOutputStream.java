@@ -0,0 +1,61 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * ByteArrayOutputStream whose backing array can be read without copying and reused across
+ * payloads.  Intended to be held per thread; buffers that grew beyond the retention limit are
+ * discarded on reset so that one oversized payload does not pin memory indefinitely.
+ */
+public class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+    private final int initialSize;
+    private final int maxRetainedSize;
+
+    /**
+     * Constructor
+     * @param initialSize
+     * @param maxRetainedSize
+     */
+    public ReusableByteArrayOutputStream(int initialSize, int maxRetainedSize) {
+        super(initialSize);
+        this.initialSize = initialSize;
+        this.maxRetainedSize = maxRetainedSize;
+    }
+
+    /**
+     * Backing array.  Only the first size() bytes are valid, and only until the next reset().
+     * @return backing array
+     */
+    public byte[] buffer() {
+        return buf;
+    }
+
+    /**
+     * Discard the contents, releasing the backing array if it grew beyond the retention limit.
+     */
+    @Override
+    public synchronized void reset() {
+        super.reset();
+        if (buf.length > maxRetainedSize) {
+            buf = new byte[initialSize];
+        }
+    }
+}
@@ -0,0 +1,640 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Annotation processor that generates a streaming {@code JxnGeneratedSerializer} for every concrete,
+ * top-level class whose hierarchy declares {@code @JsonProperty} fields, together with the
+ * {@code JxnGeneratedSerializerIndex} through which they are discovered at runtime.
+ *
+ * <p>The property set follows Jackson's default bean introspection: annotated or public fields and
+ * public getters, merged by their implicit name, less anything marked {@code @JsonIgnore} or listed in
+ * {@code @JsonIgnoreProperties}.  Properties are written inline for Strings and primitives and through
+ * the provider's serializer otherwise.  Classes using any other Jackson feature, or exposing a property
+ * only through a private field, are left to the reflective serializer.</p>
+ */
+@SupportedAnnotationTypes(JxnSerializerProcessor.JSON_PROPERTY)
+public class JxnSerializerProcessor extends AbstractProcessor {
+    static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+    static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+    static final String JSON_INCLUDE = "com.fasterxml.jackson.annotation.JsonInclude";
+    static final String JSON_VALUE = "com.fasterxml.jackson.annotation.JsonValue";
+    static final String JSON_IGNORE_PROPERTIES = "com.fasterxml.jackson.annotation.JsonIgnoreProperties";
+    static final String JACKSON_PACKAGE = "com.fasterxml.jackson.";
+    static final String COERCIBLE = "org.imsglobal.caliper.entities.CaliperCoercible";
+    static final String TARGET_PACKAGE = "org.imsglobal.caliper.databind";
+    static final String BASE_CLASS = TARGET_PACKAGE + ".JxnGeneratedSerializer";
+    static final String INDEX_CLASS = "JxnGeneratedSerializerIndex";
+    static final String SUFFIX = "_JxnSerializer";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+    private final Map<String, String> generated = new TreeMap<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment env) {
+        super.init(env);
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.filer = env.getFiler();
+        this.messager = env.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        // Serializers are generated in the round their bean first appears in; the index, which must list
+        // the beans of every round, is written once all rounds are done.
+        if (round.processingOver()) {
+            if (!generated.isEmpty()) {
+                try {
+                    writeIndex(generated);
+                } catch (IOException ex) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, "Unable to generate serializer index: " + ex);
+                }
+            }
+            return false;
+        }
+
+        for (TypeElement type : ElementFilter.typesIn(round.getRootElements())) {
+            String name = type.getQualifiedName().toString();
+            if (generated.containsKey(name) || !isCandidate(type)) {
+                continue;
+            }
+            List<Property> properties = collect(type);
+            if (properties == null) {
+                messager.printMessage(Diagnostic.Kind.NOTE,
+                    "Serializing " + type.getQualifiedName() + " reflectively", type);
+                continue;
+            }
+            try {
+                generated.put(name, write(type, properties));
+            } catch (IOException ex) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Unable to generate serializer: " + ex, type);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Concrete, public, non-generic top-level classes with at least one @JsonProperty field in the
+     * hierarchy, no class-level Jackson customisation and no @JsonValue method.
+     * @param type
+     * @return boolean
+     */
+    private boolean isCandidate(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getNestingKind() != NestingKind.TOP_LEVEL
+            || !type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)
+            || !type.getTypeParameters().isEmpty()) {
+            return false;
+        }
+
+        boolean annotated = false;
+        for (TypeElement current : hierarchy(type)) {
+            for (AnnotationMirror mirror : current.getAnnotationMirrors()) {
+                String name = annotationName(mirror);
+                if (name.startsWith(JACKSON_PACKAGE) && !name.equals(JSON_IGNORE_PROPERTIES)) {
+                    return false;
+                }
+            }
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                annotated |= find(field, JSON_PROPERTY) != null;
+            }
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (find(method, JSON_VALUE) != null) {
+                return false;
+            }
+        }
+        return annotated;
+    }
+
+    /**
+     * Collect the serializable properties of a type in field declaration order, superclass first.
+     * @param type
+     * @return properties or null if the type cannot be handled
+     */
+    private List<Property> collect(TypeElement type) {
+        Map<String, Property> properties = new LinkedHashMap<>();
+        Set<String> ignored = new HashSet<>();
+
+        for (TypeElement current : hierarchy(type)) {
+            AnnotationMirror ignoreProperties = find(current, JSON_IGNORE_PROPERTIES);
+            if (ignoreProperties != null) {
+                for (AnnotationValue value : values(ignoreProperties, "value")) {
+                    ignored.add(value.getValue().toString());
+                }
+            }
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                Property property = property(properties, field.getSimpleName().toString());
+                if (!property.annotate(field)) {
+                    return null;
+                }
+                property.field = field;
+                property.visible |= modifiers.contains(Modifier.PUBLIC) || find(field, JSON_PROPERTY) != null;
+            }
+        }
+
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            String name = getterName(method);
+            if (name == null) {
+                continue;
+            }
+            Property property = property(properties, name);
+            if (property.getter != null && method.getSimpleName().toString().startsWith("is")) {
+                continue;
+            }
+            for (ExecutableElement declaration : declarations(type, method)) {
+                if (!property.annotate(declaration)) {
+                    return null;
+                }
+            }
+            property.getter = method;
+            property.visible |= method.getModifiers().contains(Modifier.PUBLIC) || property.explicit;
+        }
+
+        List<Property> result = new ArrayList<>();
+        for (Property property : properties.values()) {
+            if (property.ignored) {
+                if (property.explicit) {
+                    return null;
+                }
+                continue;
+            }
+            if (!property.visible || ignored.contains(property.name())) {
+                continue;
+            }
+            if (!property.resolve(type)) {
+                return null;
+            }
+            result.add(property);
+        }
+        return result;
+    }
+
+    /**
+     * Superclasses, outermost first, stopping short of java.lang.Object.
+     * @param type
+     * @return hierarchy
+     */
+    private List<TypeElement> hierarchy(TypeElement type) {
+        List<TypeElement> chain = new ArrayList<>();
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            chain.add(0, current);
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return chain;
+    }
+
+    /**
+     * Every declaration of a getter across classes and interfaces, since Jackson merges the
+     * annotations of overridden methods.
+     * @param type
+     * @param method
+     * @return declarations
+     */
+    private List<ExecutableElement> declarations(TypeElement type, ExecutableElement method) {
+        List<ExecutableElement> result = new ArrayList<>();
+        collectDeclarations(type, method.getSimpleName().toString(), result, new HashSet<TypeElement>());
+        return result;
+    }
+
+    private void collectDeclarations(TypeElement type, String name, List<ExecutableElement> result,
+                                     Set<TypeElement> visited) {
+        if (type == null || !visited.add(type)) {
+            return;
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty()) {
+                result.add(method);
+            }
+        }
+        List<TypeMirror> supertypes = new ArrayList<>(type.getInterfaces());
+        supertypes.add(type.getSuperclass());
+        for (TypeMirror supertype : supertypes) {
+            if (supertype.getKind() == TypeKind.DECLARED) {
+                collectDeclarations((TypeElement) ((DeclaredType) supertype).asElement(), name, result, visited);
+            }
+        }
+    }
+
+    /**
+     * Derive the implicit property name of a getter the way Jackson's legacy bean naming does.
+     * @param method
+     * @return name or null if the method is not a getter
+     */
+    private String getterName(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        Element owner = method.getEnclosingElement();
+        if (modifiers.contains(Modifier.STATIC) || !method.getParameters().isEmpty()
+            || method.getReturnType().getKind() == TypeKind.VOID
+            || ((TypeElement) owner).getQualifiedName().contentEquals("java.lang.Object")) {
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        if (name.startsWith("get")) {
+            return mangle(name, 3);
+        }
+        if (name.startsWith("is") && isBoolean(method.getReturnType())) {
+            return mangle(name, 2);
+        }
+        return null;
+    }
+
+    private boolean isBoolean(TypeMirror type) {
+        return type.getKind() == TypeKind.BOOLEAN || type.toString().equals("java.lang.Boolean");
+    }
+
+    /**
+     * Lower-case the leading run of upper-case characters.
+     * @param name
+     * @param offset
+     * @return property name
+     */
+    static String mangle(String name, int offset) {
+        if (name.length() == offset) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(name.length() - offset);
+        for (int i = offset; i < name.length(); i++) {
+            char c = name.charAt(i);
+            char lower = Character.toLowerCase(c);
+            if (c == lower) {
+                builder.append(name, i, name.length());
+                break;
+            }
+            builder.append(lower);
+        }
+        return builder.toString();
+    }
+
+    private Property property(Map<String, Property> properties, String name) {
+        Property property = properties.get(name);
+        if (property == null) {
+            property = new Property(name);
+            properties.put(name, property);
+        }
+        return property;
+    }
+
+    private static String annotationName(AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static AnnotationMirror find(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (annotationName(mirror).equals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static Object value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<AnnotationValue> values(AnnotationMirror mirror, String name) {
+        Object value = value(mirror, name);
+        return value == null ? new ArrayList<AnnotationValue>() : (List<AnnotationValue>) value;
+    }
+
+    /**
+     * Write the generated serializer source.
+     * @param type
+     * @param properties
+     * @return generated class name
+     * @throws IOException
+     */
+    private String write(TypeElement type, List<Property> properties) throws IOException {
+        String packageName = ((PackageElement) elements.getPackageOf(type)).getQualifiedName().toString();
+        String beanName = type.getSimpleName().toString();
+        String className = beanName + SUFFIX;
+        boolean coercible = types.isAssignable(type.asType(),
+            types.erasure(elements.getTypeElement(COERCIBLE).asType()));
+
+        JavaFileObject file = filer.createSourceFile(packageName + "." + className, type);
+        try (Writer writer = file.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("import com.fasterxml.jackson.core.JsonGenerator;");
+            out.println("import com.fasterxml.jackson.databind.SerializerProvider;");
+            out.println("import " + BASE_CLASS + ";");
+            out.println();
+            out.println("import java.io.IOException;");
+            out.println();
+            out.println("/**");
+            out.println(" * Streaming serializer for {@link " + beanName + "}, generated by "
+                + getClass().getSimpleName() + ".  Do not edit.");
+            out.println(" */");
+            out.println("public final class " + className + " extends JxnGeneratedSerializer<" + beanName + "> {");
+            out.println();
+            out.println("    public " + className + "() {");
+            out.print("        super(" + beanName + ".class");
+            for (Property property : properties) {
+                out.print(", " + literal(property.name()));
+            }
+            out.println(");");
+            out.println("    }");
+
+            if (coercible) {
+                out.println();
+                out.println("    @Override");
+                out.println("    protected boolean writeId(" + beanName
+                    + " value, JsonGenerator gen, SerializerProvider provider) throws IOException {");
+                out.println("        if (value.isCoercedToId()) {");
+                out.println("            gen.writeString(value.getId());");
+                out.println("            return true;");
+                out.println("        }");
+                out.println("        return writeReference(value, gen, provider);");
+                out.println("    }");
+            }
+
+            out.println();
+            out.println("    @Override");
+            out.println("    protected void writeProperty(int index, " + beanName
+                + " value, JsonGenerator gen, SerializerProvider provider) throws IOException {");
+            out.println("        switch (index) {");
+            for (int i = 0; i < properties.size(); i++) {
+                out.println("            case " + i + ": {");
+                properties.get(i).write(out, i, "                ");
+                out.println("                break;");
+                out.println("            }");
+            }
+            out.println("            default:");
+            out.println("                throw new IllegalArgumentException(\"No property \" + index);");
+            out.println("        }");
+            out.println("    }");
+            out.println("}");
+        }
+        return packageName + "." + className;
+    }
+
+    /**
+     * Write the index of generated serializers, keyed by bean class.
+     * @param generated
+     * @throws IOException
+     */
+    private void writeIndex(Map<String, String> generated) throws IOException {
+        JavaFileObject file = filer.createSourceFile(TARGET_PACKAGE + "." + INDEX_CLASS);
+        try (Writer writer = file.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+            out.println("package " + TARGET_PACKAGE + ";");
+            out.println();
+            out.println("import java.util.HashMap;");
+            out.println("import java.util.Map;");
+            out.println();
+            out.println("/**");
+            out.println(" * Generated serializers keyed by bean class, generated by "
+                + getClass().getSimpleName() + ".  Do not edit.");
+            out.println(" */");
+            out.println("public final class " + INDEX_CLASS + " {");
+            out.println();
+            out.println("    private " + INDEX_CLASS + "() {");
+            out.println();
+            out.println("    }");
+            out.println();
+            out.println("    public static Map<Class<?>, Class<?>> serializers() {");
+            out.println("        Map<Class<?>, Class<?>> serializers = new HashMap<>();");
+            for (Map.Entry<String, String> entry : generated.entrySet()) {
+                out.println("        serializers.put(" + entry.getKey() + ".class, " + entry.getValue() + ".class);");
+            }
+            out.println("        return serializers;");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * A bean property assembled from its field and getter.
+     */
+    private final class Property {
+        private final String implicitName;
+        private String explicitName;
+        private boolean explicit;
+        private boolean ignored;
+        private boolean visible;
+        private String include;
+        private VariableElement field;
+        private ExecutableElement getter;
+        private String accessor;
+        private TypeMirror valueType;
+
+        private Property(String implicitName) {
+            this.implicitName = implicitName;
+        }
+
+        private String name() {
+            return explicitName != null ? explicitName : implicitName;
+        }
+
+        /**
+         * Merge the Jackson annotations of an accessor.
+         * @param element
+         * @return false if the accessor carries an annotation the generator does not support
+         */
+        private boolean annotate(Element element) {
+            for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+                String annotation = annotationName(mirror);
+                if (annotation.equals(JSON_PROPERTY)) {
+                    explicit = true;
+                    Object value = value(mirror, "value");
+                    if (value != null && !value.toString().isEmpty()) {
+                        explicitName = value.toString();
+                    }
+                } else if (annotation.equals(JSON_IGNORE)) {
+                    Object value = value(mirror, "value");
+                    ignored |= value == null || Boolean.TRUE.equals(value);
+                } else if (annotation.equals(JSON_INCLUDE)) {
+                    Object value = value(mirror, "value");
+                    include = value == null ? "ALWAYS" : ((VariableElement) value).getSimpleName().toString();
+                } else if (annotation.startsWith(JACKSON_PACKAGE)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Choose the accessor: the getter if it is public, otherwise a field the generated class can reach.
+         * @param type
+         * @return false if the value cannot be read from generated code
+         */
+        private boolean resolve(TypeElement type) {
+            DeclaredType owner = (DeclaredType) type.asType();
+            if (getter != null && getter.getModifiers().contains(Modifier.PUBLIC)) {
+                accessor = "value." + getter.getSimpleName() + "()";
+                valueType = ((ExecutableType) types.asMemberOf(owner, getter)).getReturnType();
+            } else if (field != null && (field.getModifiers().contains(Modifier.PUBLIC)
+                    || (!field.getModifiers().contains(Modifier.PRIVATE)
+                    && elements.getPackageOf(field).equals(elements.getPackageOf(type))))) {
+                accessor = "value." + field.getSimpleName();
+                valueType = types.asMemberOf(owner, field);
+            } else {
+                return false;
+            }
+            if (include == null) {
+                include = "NON_EMPTY";
+            }
+            if (include.equals("NON_DEFAULT")) {
+                // Jackson suppresses the primitive default of a wrapper type; leave those to it.
+                return valueType.getKind().isPrimitive() || !isWrapper(valueType);
+            }
+            return include.equals("NON_EMPTY");
+        }
+
+        /**
+         * Emit the statements writing this property.
+         * @param out
+         * @param index
+         * @param indent
+         */
+        private void write(PrintWriter out, int index, String indent) {
+            boolean nonDefault = include.equals("NON_DEFAULT");
+            TypeKind kind = valueType.getKind();
+            if (kind.isPrimitive()) {
+                String condition = null;
+                if (nonDefault) {
+                    switch (kind) {
+                        case BOOLEAN:
+                            condition = "v";
+                            break;
+                        case DOUBLE:
+                            condition = "Double.doubleToLongBits(v) != 0L";
+                            break;
+                        case FLOAT:
+                            condition = "Float.floatToIntBits(v) != 0";
+                            break;
+                        default:
+                            condition = "v != 0";
+                    }
+                }
+                out.println(indent + valueType + " v = " + accessor + ";");
+                if (condition != null) {
+                    out.println(indent + "if (" + condition + ") {");
+                }
+                String inner = condition != null ? indent + "    " : indent;
+                out.println(inner + "gen.writeFieldName(name(" + index + "));");
+                switch (kind) {
+                    case BOOLEAN:
+                        out.println(inner + "gen.writeBoolean(v);");
+                        break;
+                    case CHAR:
+                        out.println(inner + "gen.writeString(String.valueOf(v));");
+                        break;
+                    case BYTE:
+                    case SHORT:
+                        out.println(inner + "gen.writeNumber((int) v);");
+                        break;
+                    default:
+                        out.println(inner + "gen.writeNumber(v);");
+                }
+                if (condition != null) {
+                    out.println(indent + "}");
+                }
+            } else if (valueType.toString().equals("java.lang.String")) {
+                out.println(indent + "writeString(" + index + ", " + accessor + ", gen);");
+            } else {
+                // NON_DEFAULT only suppresses empty values for containers; Jackson uses null as the
+                // default of any other reference type.
+                boolean suppressEmpty = !nonDefault || isContainer(valueType);
+                out.println(indent + "writeObject(" + index + ", " + accessor + ", " + suppressEmpty
+                    + ", gen, provider);");
+            }
+        }
+
+        private boolean isWrapper(TypeMirror type) {
+            try {
+                types.unboxedType(type);
+                return true;
+            } catch (IllegalArgumentException ex) {
+                return false;
+            }
+        }
+
+        private boolean isContainer(TypeMirror type) {
+            if (type.getKind() == TypeKind.ARRAY) {
+                return true;
+            }
+            TypeMirror erased = types.erasure(type);
+            return types.isAssignable(erased, types.erasure(elements.getTypeElement("java.util.Collection").asType()))
+                || types.isAssignable(erased, types.erasure(elements.getTypeElement("java.util.Map").asType()));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.dispatch;
+
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.validators.SensorValidator;
+
+/**
+ * Batching options.  A batch is flushed as soon as any one of the limits is reached.  The byte limit
+ * is optional; when unset the serialized size of each event is not measured.  When set, event sizes
+ * are estimated in the data format of the Client the batches are destined for.
+ */
+public class BatchOptions {
+    private final int maxEvents;
+    private final int maxBytes;
+    private final int lingerMs;
+    private final String dataVersion;
+    private final DataFormat dataFormat;
+
+    /**
+     * Default batch limits.  Linger is expressed in milliseconds.
+     */
+    public static final int MAX_EVENTS = 100;
+    public static final int LINGER_MS = 1000;
+
+    /**
+     * Constructor
+     * @param builder
+     */
+    private BatchOptions(OptionsBuilder builder) {
+        this.maxEvents = SensorValidator.chkPositiveIntValue(builder.maxEvents, MAX_EVENTS);
+        this.maxBytes = Math.max(builder.maxBytes, 0);
+        this.lingerMs = SensorValidator.chkPositiveIntValue(builder.lingerMs, LINGER_MS);
+        this.dataVersion = SensorValidator.chkStrValue(builder.dataVersion, Config.DATA_VERSION);
+        this.dataFormat = (builder.dataFormat != null) ? builder.dataFormat : DataFormat.CALIPER_JSONLD;
+    }
+
+    /**
+     * Get the maximum number of events per Envelope.
+     * @return max events
+     */
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+
+    /**
+     * Get the maximum serialized size of the events in an Envelope; zero means unlimited.  The size of
+     * a batch is an estimate, so Envelopes may occasionally exceed it by a small margin.
+     * @return max bytes
+     */
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Get the maximum time the first event of a batch waits before the batch is flushed.
+     * @return linger in milliseconds
+     */
+    public int getLingerMs() {
+        return lingerMs;
+    }
+
+    /**
+     * Get the dataVersion stamped on each Envelope.
+     * @return data version
+     */
+    public String getDataVersion() {
+        return dataVersion;
+    }
+
+    /**
+     * Get the data format in which event sizes are measured against the byte limit.
+     * @return data format
+     */
+    public DataFormat getDataFormat() {
+        return dataFormat;
+    }
+
+    /**
+     * Builder class provides a fluid interface for setting options properties.
+     */
+    public static class OptionsBuilder {
+        private int maxEvents = 0;
+        private int maxBytes = 0;
+        private int lingerMs = 0;
+        private String dataVersion;
+        private DataFormat dataFormat;
+
+        /**
+         * Constructor
+         */
+        public OptionsBuilder() {
+
+        }
+
+        /**
+         * @param maxEvents
+         * @return builder
+         */
+        public OptionsBuilder maxEvents(final int maxEvents) {
+            this.maxEvents = maxEvents;
+            return this;
+        }
+
+        /**
+         * @param maxBytes
+         * @return builder
+         */
+        public OptionsBuilder maxBytes(final int maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * @param lingerMs
+         * @return builder
+         */
+        public OptionsBuilder lingerMs(final int lingerMs) {
+            this.lingerMs = lingerMs;
+            return this;
+        }
+
+        /**
+         * @param dataVersion
+         * @return builder
+         */
+        public OptionsBuilder dataVersion(final String dataVersion) {
+            this.dataVersion = dataVersion;
+            return this;
+        }
+
+        /**
+         * @param dataFormat
+         * @return builder
+         */
+        public OptionsBuilder dataFormat(final DataFormat dataFormat) {
+            this.dataFormat = dataFormat;
+            return this;
+        }
+
+        /**
+         * Client invokes build method in order to create an immutable object.
+         * @return a new instance of Options.
+         */
+        public BatchOptions build() {
+            return new BatchOptions(this);
+        }
+    }
+
+    /**
+     * Static Factory method.
+     * @return new builder instance
+     */
+    public static OptionsBuilder builder() {
+        return new OptionsBuilder();
+    }
+}
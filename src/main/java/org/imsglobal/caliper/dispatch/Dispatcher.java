@@ -0,0 +1,223 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.dispatch;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Decouples Envelope producers from Envelope transmission.  Producers enqueue Envelopes into a
+ * bounded lock-free RingBuffer and return immediately; a small pool of dispatcher threads drains
+ * the buffer and hands each Envelope to the delivery sink.  When the buffer is full the Envelope
+ * is dropped rather than blocking the producer.  Once shutdown has begun further Envelopes are
+ * refused; producers already inside offer are waited for so that nothing they enqueue is stranded.
+ */
+public class Dispatcher {
+    private final RingBuffer<Envelope> buffer;
+    private final Consumer<Envelope> sink;
+    private final Statistics statistics;
+    private final List<Thread> threads;
+    private final AtomicInteger producers = new AtomicInteger();
+    private volatile boolean running;
+    private volatile boolean stopped;
+
+    private static final int SPIN_TRIES = 100;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final Logger log = LoggerFactory.getLogger(Dispatcher.class);
+
+    /**
+     * Constructor
+     * @param name
+     * @param capacity
+     * @param threadCount
+     * @param sink
+     */
+    public Dispatcher(String name, int capacity, int threadCount, Consumer<Envelope> sink) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Dispatcher requires at least one thread.");
+        }
+
+        this.buffer = new RingBuffer<>(capacity);
+        this.sink = sink;
+        this.statistics = new Statistics();
+        this.threads = new ArrayList<>(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            }, "caliper-dispatcher-" + name + "-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+    }
+
+    /**
+     * Start the dispatcher threads.  A dispatcher that has been shut down cannot be restarted.
+     */
+    public synchronized void start() {
+        if (running || stopped) {
+            return;
+        }
+        running = true;
+        for (Thread thread : threads) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Enqueue an Envelope for delivery.  Never blocks on I/O.
+     * @param envelope
+     * @return true if enqueued; false if the buffer was full and the Envelope was dropped.
+     * @throws IllegalStateException if the dispatcher has been shut down
+     */
+    public boolean offer(Envelope envelope) {
+        // Register before reading the stopped flag; shutdown sets the flag before waiting for
+        // registered producers, so an Envelope is either refused here or seen by the final drain.
+        producers.incrementAndGet();
+        try {
+            if (stopped) {
+                throw new IllegalStateException("Dispatcher has been shut down.");
+            }
+            if (running && buffer.offer(envelope)) {
+                return true;
+            }
+        } finally {
+            producers.decrementAndGet();
+        }
+
+        statistics.updateDropped(1);
+        return false;
+    }
+
+    /**
+     * Stop accepting Envelopes, deliver what remains in the buffer and wait for the
+     * dispatcher threads to exit.
+     * @param timeout
+     * @param unit
+     * @return true if all threads exited before the timeout elapsed.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        synchronized (this) {
+            stopped = true;
+            running = false;
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (producers.get() > 0) {
+            if (deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            Thread.yield();
+        }
+
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                if (remaining > 0) {
+                    thread.join(remaining);
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (thread.isAlive()) {
+                return false;
+            }
+        }
+
+        // Deliver anything a producer managed to enqueue while the threads were exiting.
+        Envelope envelope;
+        while ((envelope = buffer.poll()) != null) {
+            deliver(envelope);
+        }
+        return true;
+    }
+
+    /**
+     * Approximate number of Envelopes waiting for delivery.
+     * @return depth
+     */
+    public int getDepth() {
+        return buffer.size();
+    }
+
+    /**
+     * Get statistics.
+     * @return statistics
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Dispatcher thread loop.  Spins briefly, then yields, then parks with a capped backoff
+     * while the buffer is empty.  Remaining Envelopes are delivered after shutdown is requested.
+     */
+    private void drain() {
+        int idle = 0;
+        long parkNanos = 1000L;
+
+        for (;;) {
+            Envelope envelope = buffer.poll();
+            if (envelope != null) {
+                idle = 0;
+                parkNanos = 1000L;
+                statistics.updateQueueDepth(buffer.size());
+                deliver(envelope);
+            } else if (!running) {
+                return;
+            } else if (idle < SPIN_TRIES) {
+                idle++;
+            } else if (idle < SPIN_TRIES * 2) {
+                idle++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, parkNanos);
+                parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Hand an Envelope to the sink, isolating the dispatcher thread from delivery failures.
+     * @param envelope
+     */
+    private void deliver(Envelope envelope) {
+        try {
+            sink.accept(envelope);
+            statistics.updateDispatched(1);
+        } catch (RuntimeException re) {
+            log.warn("Envelope dispatch failed: " + re.getMessage(), re);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.dispatch;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.databind.JxnObjectMappers;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accepts individual Caliper events and entities and packs them into a single Envelope, which is
+ * handed to the Sensor when the batch reaches its maximum event count, its maximum serialized size
+ * or its maximum linger time, whichever comes first.  Serialized sizes are approximate: the first
+ * few items of each class, and every 32nd item thereafter, are serialized in the target data format
+ * to measure them, and the remaining items are assumed to be the mean size of their class.
+ */
+public class EnvelopeBatcher implements Closeable {
+    private final Sensor sensor;
+    private final BatchOptions options;
+    private final Statistics statistics;
+    private final ScheduledExecutorService timer;
+    private final ObjectWriter writer;
+    private final ConcurrentMap<Class<?>, SizeEstimate> estimates = new ConcurrentHashMap<>();
+
+    private List<CaliperSendable> batch;
+    private long batchBytes;
+    private long batchStarted;
+    private long generation;
+    private boolean closed;
+
+    /**
+     * Number of items of each class measured before sizes are estimated, and the sampling interval after that.
+     */
+    private static final int SAMPLES = 8;
+    private static final int SAMPLE_INTERVAL = 32;
+
+    private static final Logger log = LoggerFactory.getLogger(EnvelopeBatcher.class);
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory method.
+     * @param sensor
+     * @param options
+     */
+    private EnvelopeBatcher(Sensor sensor, BatchOptions options) {
+        this.sensor = sensor;
+        this.options = options;
+        this.statistics = new Statistics();
+        this.batch = new ArrayList<>(options.getMaxEvents());
+
+        final String name = "caliper-batcher-" + sensor.getId();
+        this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        this.writer = (options.getMaxBytes() > 0) ? JxnObjectMappers.writer(options.getDataFormat()) : null;
+    }
+
+    /**
+     * Add an event or entity to the current batch, flushing the batch if a limit is reached.
+     * @param data
+     * @throws IOException if the byte limit is set and the item cannot be serialized.
+     */
+    public void add(CaliperSendable data) throws IOException {
+        long size = (writer != null) ? estimate(data) : 0;
+
+        List<CaliperSendable> full = null;
+        long fullStarted = 0;
+
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("EnvelopeBatcher is closed.");
+            }
+
+            // Flush first if the new item would push the batch beyond the byte limit.
+            if (!batch.isEmpty() && options.getMaxBytes() > 0 && batchBytes + size > options.getMaxBytes()) {
+                fullStarted = batchStarted;
+                full = swap();
+            }
+
+            if (batch.isEmpty()) {
+                batchStarted = System.nanoTime();
+                scheduleLinger(generation);
+            }
+            batch.add(data);
+            batchBytes += size;
+
+            if (full == null && (batch.size() >= options.getMaxEvents()
+                    || (options.getMaxBytes() > 0 && batchBytes >= options.getMaxBytes()))) {
+                fullStarted = batchStarted;
+                full = swap();
+            }
+        }
+
+        if (full != null) {
+            dispatch(full, fullStarted);
+        }
+    }
+
+    /**
+     * Flush the current batch, if any, regardless of the limits.
+     */
+    public void flush() {
+        List<CaliperSendable> full;
+        long started;
+
+        synchronized (this) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            started = batchStarted;
+            full = swap();
+        }
+
+        dispatch(full, started);
+    }
+
+    /**
+     * Get statistics.
+     * @return statistics
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Flush the current batch and stop the linger timer.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        timer.shutdownNow();
+    }
+
+    /**
+     * Replace the current batch with an empty one.  Caller must hold the monitor.
+     * @return the previous batch
+     */
+    private List<CaliperSendable> swap() {
+        List<CaliperSendable> full = batch;
+        batch = new ArrayList<>(options.getMaxEvents());
+        batchBytes = 0;
+        generation++;
+        return full;
+    }
+
+    /**
+     * Schedule a linger flush for the batch identified by its generation.  Caller must hold the monitor.
+     * @param target
+     */
+    private void scheduleLinger(final long target) {
+        timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                List<CaliperSendable> full;
+                long started;
+
+                synchronized (EnvelopeBatcher.this) {
+                    if (generation != target || batch.isEmpty()) {
+                        return;
+                    }
+                    started = batchStarted;
+                    full = swap();
+                }
+
+                try {
+                    dispatch(full, started);
+                } catch (RuntimeException re) {
+                    log.warn("Failed to send batched envelope: " + re.getMessage(), re);
+                }
+            }
+        }, options.getLingerMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wrap the batch in an Envelope and hand it to the Sensor.
+     * @param data
+     * @param started
+     */
+    private void dispatch(List<CaliperSendable> data, long started) {
+        statistics.updateBatchFillRatio((double) data.size() / options.getMaxEvents());
+        statistics.updateBatchLinger(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        sensor.send(new Envelope(sensor.getId(), new DateTime(), options.getDataVersion(), data));
+    }
+
+    /**
+     * Estimate the serialized size of an item from the sizes measured for items of the same class,
+     * measuring the item itself while its class is being sampled.
+     * @param data
+     * @return size in bytes
+     * @throws IOException
+     */
+    private long estimate(CaliperSendable data) throws IOException {
+        SizeEstimate estimate = estimates.get(data.getClass());
+        if (estimate == null) {
+            SizeEstimate created = new SizeEstimate();
+            estimate = estimates.putIfAbsent(data.getClass(), created);
+            if (estimate == null) {
+                estimate = created;
+            }
+        }
+
+        long seen = estimate.seen.getAndIncrement();
+        if (seen < SAMPLES || seen % SAMPLE_INTERVAL == 0) {
+            long size = measure(data);
+            estimate.record(size);
+            return size;
+        }
+        return estimate.mean;
+    }
+
+    /**
+     * Measure the serialized size of an item without retaining the serialized bytes.
+     * @param data
+     * @return size in bytes
+     * @throws IOException
+     */
+    private long measure(CaliperSendable data) throws IOException {
+        CountingOutputStream out = new CountingOutputStream(ByteStreams.nullOutputStream());
+        writer.writeValue(out, data);
+        return out.getCount();
+    }
+
+    /**
+     * Running mean of the measured sizes of one class of items.
+     */
+    private static class SizeEstimate {
+        private final AtomicLong seen = new AtomicLong();
+        private long measured;
+        private long total;
+        private volatile long mean;
+
+        synchronized void record(long size) {
+            measured++;
+            total += size;
+            mean = total / measured;
+        }
+    }
+
+    /**
+     * Factory method for creating batchers that feed the given Sensor.
+     * @param sensor
+     * @param options
+     * @return batcher
+     */
+    public static EnvelopeBatcher create(Sensor sensor, BatchOptions options) {
+        return new EnvelopeBatcher(sensor, options);
+    }
+}
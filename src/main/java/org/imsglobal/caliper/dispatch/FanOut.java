@@ -0,0 +1,209 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.dispatch;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.clients.CaliperClient;
+import org.imsglobal.caliper.clients.SerializedEnvelope;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Sends an Envelope to each Client on an executor so that the Clients are called in parallel and
+ * end-to-end latency is that of the slowest Client rather than the sum of all of them.  Each send
+ * is represented by a CompletableFuture that is completed with a TimeoutException if the Client
+ * does not finish within the configured timeout.  A timed-out send is not interrupted: blocking
+ * socket I/O cannot be cancelled, so the Client's own socket timeout still bounds the work.
+ * Once the FanOut has been shut down further sends are refused.
+ */
+public class FanOut {
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final ScheduledExecutorService timer;
+    private final long timeout;
+    private volatile boolean shutdown;
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * Constructor.  If no executor is supplied a pool of daemon threads is created and owned by this
+     * FanOut; when its queue is full the sending thread runs the Client itself, unless the pool has
+     * been shut down.
+     * @param name
+     * @param executor supplied executor, or null
+     * @param threads size of the owned pool
+     * @param timeout per-Client timeout in milliseconds; 0 disables the timeout
+     */
+    public FanOut(final String name, Executor executor, int threads, long timeout) {
+        if (executor != null) {
+            this.executor = executor;
+            this.ownedExecutor = null;
+        } else {
+            final AtomicInteger count = new AtomicInteger();
+            this.ownedExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "caliper-fanout-" + name + "-" + count.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                new RejectedExecutionHandler() {
+                    @Override
+                    public void rejectedExecution(Runnable runnable, ThreadPoolExecutor pool) {
+                        if (pool.isShutdown()) {
+                            throw new RejectedExecutionException("Parallel delivery has been shut down.");
+                        }
+                        runnable.run();
+                    }
+                });
+            this.executor = ownedExecutor;
+        }
+
+        this.timeout = timeout;
+        this.timer = (timeout > 0) ? Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "caliper-fanout-timer-" + name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        }) : null;
+    }
+
+    /**
+     * Send the Envelope to the Client on the executor.
+     * @param client
+     * @param envelope
+     * @return future completed when the Client returns, fails or times out
+     */
+    public CompletableFuture<Void> submit(CaliperClient client, Envelope envelope) {
+        return submit(client, envelope, null);
+    }
+
+    /**
+     * Send the Envelope to the Client on the executor, handing the Client the shared serialization
+     * if one is supplied.
+     * @param client
+     * @param envelope
+     * @param serialized shared serialization of the Envelope, or null
+     * @return future completed when the Client returns, fails or times out
+     * @throws IllegalStateException if the FanOut has been shut down
+     */
+    public CompletableFuture<Void> submit(final CaliperClient client, final Envelope envelope,
+                                          final SerializedEnvelope serialized) {
+        if (shutdown) {
+            throw new IllegalStateException("Parallel delivery has been shut down.");
+        }
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final AtomicBoolean settled = new AtomicBoolean();
+        final ScheduledFuture<?> task = (timer != null) ? timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                // Count the timeout before completing the future, so that waiters observe the statistic.
+                if (settled.compareAndSet(false, true)) {
+                    client.getStatistics().updateTimeouts(1);
+                    future.completeExceptionally(new TimeoutException("Client " + client.getId()
+                        + " did not complete within " + timeout + "ms"));
+                }
+            }
+        }, timeout, TimeUnit.MILLISECONDS) : null;
+
+        try {
+            CompletableFuture.runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    if (serialized != null) {
+                        client.send(serialized);
+                    } else {
+                        client.send(envelope);
+                    }
+                }
+            }, executor).whenComplete(new BiConsumer<Void, Throwable>() {
+                @Override
+                public void accept(Void result, Throwable failure) {
+                    if (task != null) {
+                        task.cancel(false);
+                    }
+                    if (settled.compareAndSet(false, true)) {
+                        if (failure != null) {
+                            future.completeExceptionally(
+                                (failure instanceof CompletionException) ? failure.getCause() : failure);
+                        } else {
+                            future.complete(null);
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            // Shut down concurrently, or the supplied executor refused the send.
+            if (task != null) {
+                task.cancel(false);
+            }
+            if (settled.compareAndSet(false, true)) {
+                future.completeExceptionally(ree);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Stop the timer and, if the executor is owned by this FanOut, the pool threads after in-flight
+     * sends have completed.
+     * @param timeout
+     * @param unit
+     * @return true if the owned pool terminated before the timeout elapsed.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        shutdown = true;
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        if (ownedExecutor == null) {
+            return true;
+        }
+
+        ownedExecutor.shutdown();
+        try {
+            return ownedExecutor.awaitTermination(timeout, unit);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.dispatch;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Aggregate result of sending an Envelope to the registered Clients: one future per Client, keyed
+ * by Client id.  Callers can wait for all Clients, for the first one to finish, or not at all.
+ */
+public class SendResult {
+    private final Map<String, CompletableFuture<Void>> futures;
+
+    /**
+     * Constructor
+     * @param futures
+     */
+    public SendResult(Map<String, CompletableFuture<Void>> futures) {
+        this.futures = Collections.unmodifiableMap(new LinkedHashMap<>(futures));
+    }
+
+    /**
+     * @return futures keyed by Client id
+     */
+    public Map<String, CompletableFuture<Void>> getFutures() {
+        return futures;
+    }
+
+    /**
+     * @param clientId
+     * @return the future for a Client, or null if the Envelope was not sent to it
+     */
+    public CompletableFuture<Void> get(String clientId) {
+        return futures.get(clientId);
+    }
+
+    /**
+     * @return a future completed when every Client has finished
+     */
+    public CompletableFuture<Void> all() {
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    /**
+     * @return a future completed when the first Client has finished
+     */
+    public CompletableFuture<Object> any() {
+        return CompletableFuture.anyOf(futures.values().toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    /**
+     * Wait for every Client to finish, successfully or not.
+     * @param timeout
+     * @param unit
+     * @return true if all Clients finished before the timeout elapsed
+     * @throws InterruptedException
+     */
+    public boolean awaitAll(long timeout, TimeUnit unit) throws InterruptedException {
+        return await(all(), timeout, unit);
+    }
+
+    /**
+     * Wait for the first Client to finish, successfully or not.
+     * @param timeout
+     * @param unit
+     * @return true if a Client finished before the timeout elapsed
+     * @throws InterruptedException
+     */
+    public boolean awaitAny(long timeout, TimeUnit unit) throws InterruptedException {
+        return await(any(), timeout, unit);
+    }
+
+    /**
+     * @return the failures of the Clients that have finished, keyed by Client id
+     */
+    public Map<String, Throwable> getFailures() {
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<Void>> entry : futures.entrySet()) {
+            if (entry.getValue().isCompletedExceptionally()) {
+                try {
+                    entry.getValue().join();
+                } catch (CompletionException ce) {
+                    failures.put(entry.getKey(), ce.getCause());
+                } catch (RuntimeException re) {
+                    failures.put(entry.getKey(), re);
+                }
+            }
+        }
+        return failures;
+    }
+
+    private static boolean await(CompletableFuture<?> future, long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            future.get(timeout, unit);
+        } catch (ExecutionException ee) {
+            // Finished, unsuccessfully; failures are reported by getFailures().
+        } catch (TimeoutException te) {
+            return false;
+        }
+        return true;
+    }
+}
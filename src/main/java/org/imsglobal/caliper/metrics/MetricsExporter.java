@@ -0,0 +1,199 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import com.sun.net.httpserver.HttpHandler;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.clients.CaliperClient;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.imsglobal.caliper.statistics.StatisticsMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports the statistics of registered Sensors as JMX MBeans and as OpenMetrics text.
+ *
+ * MBeans are registered in the {@value #DOMAIN} domain as type=Client (one per Client), type=Dispatcher
+ * and type=Events (per event type counters), keyed by sensor and client id.  Clients registered with a
+ * Sensor after it was exported are picked up by {@link #refresh()}; the OpenMetrics exposition picks
+ * them up on its own.
+ */
+public class MetricsExporter implements Closeable {
+    public static final String DOMAIN = "org.imsglobal.caliper";
+
+    private final MBeanServer server;
+    private final OpenMetricsWriter writer = new OpenMetricsWriter();
+    private final Map<ObjectName, StatisticsMap> registered = new HashMap<>();
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsExporter.class);
+
+    /**
+     * Export to the platform MBean server.
+     */
+    public MetricsExporter() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Export to the given MBean server, or only as OpenMetrics text if null.
+     * @param server
+     */
+    public MetricsExporter(MBeanServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Export a Sensor's statistics.
+     * @param sensor
+     */
+    public synchronized void register(Sensor sensor) {
+        writer.register(sensor);
+        refresh();
+    }
+
+    /**
+     * Stop exporting a Sensor's statistics.
+     * @param sensor
+     */
+    public synchronized void unregister(Sensor sensor) {
+        writer.unregister(sensor);
+        refresh();
+    }
+
+    /**
+     * Register MBeans for Clients added since the last refresh and unregister those of removed Clients.
+     */
+    public synchronized void refresh() {
+        Map<ObjectName, StatisticsMap> wanted = new LinkedHashMap<>();
+        for (Sensor sensor : writer.getSensors()) {
+            String id = ObjectName.quote(sensor.getId());
+            for (CaliperClient client : sensor.getClients().values()) {
+                if (client.getStatistics() != null) {
+                    wanted.put(name("type=Client,sensor=" + id + ",client=" + ObjectName.quote(client.getId())),
+                        client.getStatistics());
+                }
+            }
+            Statistics dispatcher = sensor.getDispatcherStatistics();
+            if (dispatcher != null) {
+                wanted.put(name("type=Dispatcher,sensor=" + id), dispatcher);
+            }
+            wanted.put(name("type=Events,sensor=" + id), sensor.getEventStatistics());
+        }
+
+        for (ObjectName name : new ArrayList<>(registered.keySet())) {
+            if (wanted.get(name) != registered.get(name)) {
+                unregisterMBean(name);
+            }
+        }
+        for (Map.Entry<ObjectName, StatisticsMap> entry : wanted.entrySet()) {
+            if (!registered.containsKey(entry.getKey())) {
+                registerMBean(entry.getKey(), entry.getValue());
+            }
+        }
+        writer.invalidate();
+    }
+
+    /**
+     * Get the names of the registered MBeans.
+     * @return names
+     */
+    public synchronized List<ObjectName> getObjectNames() {
+        return new ArrayList<>(registered.keySet());
+    }
+
+    /**
+     * Get the OpenMetrics writer.
+     * @return writer
+     */
+    public OpenMetricsWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * Render the OpenMetrics exposition.
+     * @return exposition
+     */
+    public String scrape() {
+        return writer.scrape();
+    }
+
+    /**
+     * Create an HttpHandler serving the OpenMetrics exposition.
+     * @return handler
+     */
+    public HttpHandler handler() {
+        return new MetricsHandler(writer);
+    }
+
+    /**
+     * Unregister all MBeans and Sensors.
+     */
+    @Override
+    public synchronized void close() {
+        for (Sensor sensor : new ArrayList<>(writer.getSensors())) {
+            writer.unregister(sensor);
+        }
+        for (ObjectName name : new ArrayList<>(registered.keySet())) {
+            unregisterMBean(name);
+        }
+    }
+
+    private void registerMBean(ObjectName name, StatisticsMap statistics) {
+        if (server != null) {
+            try {
+                server.registerMBean(new StatisticsMBean(name.getKeyProperty("type") + " statistics", statistics), name);
+            } catch (JMException ex) {
+                log.warn("Unable to register MBean " + name + ": " + ex.getMessage());
+                return;
+            }
+        }
+        registered.put(name, statistics);
+    }
+
+    private void unregisterMBean(ObjectName name) {
+        registered.remove(name);
+        if (server != null) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException ex) {
+                log.warn("Unable to unregister MBean " + name + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    private static ObjectName name(String properties) {
+        try {
+            return new ObjectName(DOMAIN + ":" + properties);
+        } catch (MalformedObjectNameException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+}
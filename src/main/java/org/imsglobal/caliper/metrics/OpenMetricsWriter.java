@@ -0,0 +1,543 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.clients.CaliperClient;
+import org.imsglobal.caliper.statistics.HistogramStatistic;
+import org.imsglobal.caliper.statistics.Statistic;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.imsglobal.caliper.statistics.StatisticsMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Renders the statistics of registered Sensors in the OpenMetrics text exposition format.
+ *
+ * Every Client statistic becomes a family named caliper_client_&lt;key&gt; labelled with the sensor and
+ * client ids; dispatcher statistics are exported as caliper_dispatcher_&lt;key&gt; and the per event type
+ * counters of each Sensor as caliper_sensor_events_total.  Counting statistics are exposed as counters
+ * (_total); statistics that record a value per update as a summary (_count, _sum) plus _min and _max
+ * gauges, durations in seconds; histograms as a summary with p50/p90/p99/p99.9 quantiles in seconds
+ * or bytes.
+ *
+ * The metric names, labels and the statistics they read are resolved once into a plan that is only
+ * rebuilt when a Client or statistic is added or removed, and output is rendered into reused buffers,
+ * so a steady-state scrape does not allocate.
+ */
+public class OpenMetricsWriter {
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private static final String PREFIX = "caliper_";
+    private static final double MICROS_PER_SECOND = 1e6;
+    private static final int FRACTION_DIGITS = 9;
+    private static final long NANOS = 1000000000L;
+    private static final double MAX_FIXED = 1e9;
+    private static final long[] POWERS_OF_TEN =
+        { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L };
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+    private static final String[] QUANTILE_LABELS = { "0.5", "0.9", "0.99", "0.999" };
+
+    private final List<Sensor> sensors = new CopyOnWriteArrayList<>();
+
+    private Family[] families = new Family[0];
+    private Watch[] watches = new Watch[0];
+    private boolean stale = true;
+
+    private final StringBuilder text = new StringBuilder(8192);
+    private byte[] bytes = new byte[8192];
+    private final Statistic.Snapshot snapshot = new Statistic.Snapshot();
+
+    /**
+     * Include a Sensor's statistics in the exposition.
+     * @param sensor
+     */
+    public void register(Sensor sensor) {
+        if (!sensors.contains(sensor)) {
+            sensors.add(sensor);
+            invalidate();
+        }
+    }
+
+    /**
+     * Remove a Sensor's statistics from the exposition.
+     * @param sensor
+     */
+    public void unregister(Sensor sensor) {
+        if (sensors.remove(sensor)) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Get the registered Sensors.
+     * @return sensors
+     */
+    public List<Sensor> getSensors() {
+        return sensors;
+    }
+
+    /**
+     * Force the plan to be rebuilt on the next scrape.
+     */
+    public synchronized void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Write the exposition, terminated by # EOF, to a stream.
+     * @param out
+     * @return number of bytes written
+     * @throws IOException
+     */
+    public synchronized int write(OutputStream out) throws IOException {
+        render();
+        int length = encode();
+        out.write(bytes, 0, length);
+        return length;
+    }
+
+    /**
+     * Render the exposition as a String.
+     * @return exposition
+     */
+    public String scrape() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(out);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void render() {
+        if (stale || changed()) {
+            plan();
+        }
+
+        text.setLength(0);
+        for (Family family : families) {
+            switch (family.kind) {
+                case STATISTIC:
+                    renderStatistic(family);
+                    break;
+                case HISTOGRAM:
+                    renderHistogram(family);
+                    break;
+                default:
+                    renderCounter(family);
+            }
+        }
+        text.append("# EOF\n");
+    }
+
+    private void renderStatistic(Family family) {
+        type(family.name, "summary");
+        unit(family.name, family.unit);
+        for (Series series : family.series) {
+            series.statistic.snapshot(snapshot);
+            sample(family.count, series.labels, null, snapshot.getCount());
+            sample(family.sum, series.labels, null, snapshot.getSum() / family.scale);
+        }
+        type(family.min, "gauge");
+        unit(family.min, family.unit);
+        for (Series series : family.series) {
+            sample(family.min, series.labels, null, series.statistic.snapshot(snapshot).getMin() / family.scale);
+        }
+        type(family.max, "gauge");
+        unit(family.max, family.unit);
+        for (Series series : family.series) {
+            sample(family.max, series.labels, null, series.statistic.snapshot(snapshot).getMax() / family.scale);
+        }
+    }
+
+    private void renderHistogram(Family family) {
+        type(family.name, "summary");
+        unit(family.name, family.unit);
+        for (Series series : family.series) {
+            HistogramStatistic histogram = series.histogram;
+            synchronized (histogram) {
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    sample(family.name, series.labels, QUANTILE_LABELS[i],
+                        histogram.getValueAtPercentile(QUANTILES[i] * 100) / family.scale);
+                }
+                long count = histogram.getCount();
+                sample(family.count, series.labels, null, count);
+                sample(family.sum, series.labels, null, histogram.getMean() * count / family.scale);
+            }
+        }
+    }
+
+    private void renderCounter(Family family) {
+        type(family.name, "counter");
+        for (Series series : family.series) {
+            sample(family.count, series.labels, null, series.statistic.getCount());
+        }
+    }
+
+    private void type(String name, String type) {
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private void unit(String name, String unit) {
+        if (unit != null) {
+            text.append("# UNIT ").append(name).append(' ').append(unit).append('\n');
+        }
+    }
+
+    private void sample(String name, String labels, String quantile, long value) {
+        labels(name, labels, quantile);
+        text.append(value).append('\n');
+    }
+
+    private void sample(String name, String labels, String quantile, double value) {
+        labels(name, labels, quantile);
+        if (Double.isNaN(value)) {
+            text.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            text.append(value > 0 ? "+Inf" : "-Inf");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            text.append((long) value);
+        } else if (Math.abs(value) < MAX_FIXED && Math.abs(value) >= 1.0 / NANOS) {
+            appendFixed(value);
+        } else {
+            text.append(value);
+        }
+        text.append('\n');
+    }
+
+    /**
+     * Append a value with up to nine fractional digits.  StringBuilder.append(double) allocates on
+     * every call, which would dominate the cost of a scrape.
+     * @param value finite, with an absolute value below MAX_FIXED
+     */
+    private void appendFixed(double value) {
+        double abs = Math.abs(value);
+        long whole = (long) abs;
+        long fraction = Math.round((abs - whole) * NANOS);
+        if (fraction >= NANOS) {
+            whole++;
+            fraction -= NANOS;
+        }
+
+        if (value < 0) {
+            text.append('-');
+        }
+        text.append(whole);
+        if (fraction > 0) {
+            text.append('.');
+            int digits = FRACTION_DIGITS;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            for (long pad = fraction; digits > 1 && pad < POWERS_OF_TEN[digits - 1]; digits--) {
+                text.append('0');
+            }
+            text.append(fraction);
+        }
+    }
+
+    private void labels(String name, String labels, String quantile) {
+        text.append(name).append('{').append(labels);
+        if (quantile != null) {
+            text.append(",quantile=\"").append(quantile).append('"');
+        }
+        text.append("} ");
+    }
+
+    /**
+     * Encode the rendered text as UTF-8 into the reused byte buffer.
+     * @return length
+     */
+    private int encode() {
+        int length = text.length();
+        ensureCapacity(length * 3);
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[pos++] = (byte) (0xc0 | (c >> 6));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                bytes[pos++] = (byte) (0xf0 | (cp >> 18));
+                bytes[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                bytes[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                bytes[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else {
+                bytes[pos++] = (byte) (0xe0 | (c >> 12));
+                bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return pos;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (bytes.length < capacity) {
+            bytes = new byte[Math.max(capacity, bytes.length * 2)];
+        }
+    }
+
+    /**
+     * Check, without allocating, whether Clients or statistics were added or removed since the plan
+     * was built.
+     * @return true if the plan must be rebuilt
+     */
+    private boolean changed() {
+        for (Watch watch : watches) {
+            if (watch.changed()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolve the registered Sensors into metric families sorted by name.
+     */
+    private void plan() {
+        Map<String, Family> planned = new TreeMap<>();
+        List<Watch> watched = new ArrayList<>();
+
+        for (Sensor sensor : sensors) {
+            String sensorLabel = "sensor=\"" + escape(sensor.getId()) + "\"";
+
+            List<CaliperClient> clients = new ArrayList<>(sensor.getClients().values());
+            watched.add(new ClientsWatch(sensor, clients));
+            for (CaliperClient client : clients) {
+                Statistics statistics = client.getStatistics();
+                if (statistics != null) {
+                    String labels = sensorLabel + ",client=\"" + escape(client.getId()) + "\"";
+                    plan(planned, watched, PREFIX + "client_", labels, statistics);
+                }
+            }
+
+            Statistics dispatcher = sensor.getDispatcherStatistics();
+            if (dispatcher != null) {
+                plan(planned, watched, PREFIX + "dispatcher_", sensorLabel, dispatcher);
+            }
+
+            StatisticsMap events = sensor.getEventStatistics();
+            watched.add(new StatisticsWatch(events));
+            for (Map.Entry<String, Statistic> entry : events.entrySet()) {
+                String labels = sensorLabel + ",type=\"" + escape(entry.getKey()) + "\"";
+                family(planned, PREFIX + "sensor_events", Kind.COUNTER, null, 1)
+                    .add(new Series(labels, entry.getValue(), null));
+            }
+        }
+
+        families = planned.values().toArray(new Family[0]);
+        watches = watched.toArray(new Watch[0]);
+        stale = false;
+    }
+
+    private void plan(Map<String, Family> planned, List<Watch> watched, String prefix, String labels,
+                      Statistics statistics) {
+        watched.add(new StatisticsWatch(statistics));
+        for (Map.Entry<String, Statistic> entry : statistics.entrySet()) {
+            // Counters are exported as such; durations recorded in milli- or microseconds in seconds
+            String key = entry.getKey();
+            String name = prefix + snakeCase(key);
+            double unitsPerSecond = Statistics.getUnitsPerSecond(key);
+            Family family;
+            if (Statistics.isCounter(key)) {
+                family = family(planned, name, Kind.COUNTER, null, 1);
+            } else if (unitsPerSecond > 0) {
+                family = family(planned, name + "_seconds", Kind.STATISTIC, "seconds", unitsPerSecond);
+            } else {
+                family = family(planned, name, Kind.STATISTIC, null, 1);
+            }
+            family.add(new Series(labels, entry.getValue(), null));
+        }
+        for (Map.Entry<String, HistogramStatistic> entry : statistics.getHistograms().entrySet()) {
+            // Sizes are recorded in bytes, times in microseconds which are exported in seconds
+            String name = prefix + snakeCase(entry.getKey());
+            Family family = name.endsWith("_bytes")
+                ? family(planned, name, Kind.HISTOGRAM, "bytes", 1)
+                : family(planned, name + "_seconds", Kind.HISTOGRAM, "seconds", MICROS_PER_SECOND);
+            family.add(new Series(labels, null, entry.getValue()));
+        }
+    }
+
+    private static Family family(Map<String, Family> planned, String name, Kind kind, String unit, double scale) {
+        Family family = planned.get(name);
+        if (family == null) {
+            family = new Family(name, kind, unit, scale);
+            planned.put(name, family);
+        }
+        return family;
+    }
+
+    /**
+     * Convert a statistic key such as "SendLatency" to a metric name fragment such as "send_latency".
+     * @param key
+     * @return snake case name
+     */
+    static String snakeCase(String key) {
+        StringBuilder name = new StringBuilder(key.length() + 8);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0 && name.charAt(name.length() - 1) != '_') {
+                    name.append('_');
+                }
+                name.append(Character.toLowerCase(c));
+            } else if (Character.isLetterOrDigit(c) && c < 0x80) {
+                name.append(c);
+            } else if (name.length() > 0 && name.charAt(name.length() - 1) != '_') {
+                name.append('_');
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * Escape a label value.
+     * @param value
+     * @return escaped value
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private enum Kind {
+        STATISTIC, HISTOGRAM, COUNTER
+    }
+
+    private static final class Family {
+        final String name;
+        final String count;
+        final String sum;
+        final String min;
+        final String max;
+        final Kind kind;
+        final String unit;
+        final double scale;
+        Series[] series = new Series[0];
+
+        Family(String name, Kind kind, String unit, double scale) {
+            this.name = name;
+            this.count = name + (kind == Kind.COUNTER ? "_total" : "_count");
+            this.sum = name + "_sum";
+            // A family with a unit must end in it, so the gauges are named e.g. x_min_seconds
+            String suffix = (unit != null && name.endsWith("_" + unit)) ? "_" + unit : "";
+            String stem = name.substring(0, name.length() - suffix.length());
+            this.min = stem + "_min" + suffix;
+            this.max = stem + "_max" + suffix;
+            this.kind = kind;
+            this.unit = unit;
+            this.scale = scale;
+        }
+
+        void add(Series added) {
+            Series[] grown = new Series[series.length + 1];
+            System.arraycopy(series, 0, grown, 0, series.length);
+            grown[series.length] = added;
+            series = grown;
+        }
+    }
+
+    private static final class Series {
+        final String labels;
+        final Statistic statistic;
+        final HistogramStatistic histogram;
+
+        Series(String labels, Statistic statistic, HistogramStatistic histogram) {
+            this.labels = labels;
+            this.statistic = statistic;
+            this.histogram = histogram;
+        }
+    }
+
+    private interface Watch {
+        boolean changed();
+    }
+
+    /**
+     * Detects Clients registered with or removed from a Sensor.
+     */
+    private static final class ClientsWatch implements Watch {
+        private final Sensor sensor;
+        private final String[] ids;
+        private final CaliperClient[] clients;
+
+        ClientsWatch(Sensor sensor, List<CaliperClient> clients) {
+            this.sensor = sensor;
+            this.clients = clients.toArray(new CaliperClient[0]);
+            this.ids = new String[this.clients.length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = this.clients[i].getId();
+            }
+        }
+
+        @Override
+        public boolean changed() {
+            if (sensor.getClients().size() != clients.length) {
+                return true;
+            }
+            for (int i = 0; i < ids.length; i++) {
+                if (sensor.getClient(ids[i]) != clients[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Detects statistics and histograms created since the plan was built.
+     */
+    private static final class StatisticsWatch implements Watch {
+        private final StatisticsMap statistics;
+        private final int size;
+        private final int histograms;
+
+        StatisticsWatch(StatisticsMap statistics) {
+            this.statistics = statistics;
+            this.size = statistics.size();
+            this.histograms = histogramCount(statistics);
+        }
+
+        @Override
+        public boolean changed() {
+            return statistics.size() != size || histogramCount(statistics) != histograms;
+        }
+
+        private static int histogramCount(StatisticsMap statistics) {
+            return (statistics instanceof Statistics) ? ((Statistics) statistics).getHistogramCount() : 0;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import org.imsglobal.caliper.statistics.HistogramStatistic;
+import org.imsglobal.caliper.statistics.Statistic;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.imsglobal.caliper.statistics.StatisticsMap;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only MBean exposing a live StatisticsMap.  Each statistic contributes the attributes
+ * &lt;key&gt;.Count, .Sum, .Average, .Min, .Max, .StandardDeviation and .Last; each histogram of a
+ * Statistics instance contributes &lt;key&gt;.Count, .P50, .P90, .P99, .P999, .Max and .Mean.
+ * Statistics created after registration appear the next time the MBean info is read.
+ */
+public class StatisticsMBean implements DynamicMBean {
+    private static final String[] STATISTIC_FIELDS =
+        { "Count", "Sum", "Average", "Min", "Max", "StandardDeviation", "Last" };
+    private static final String[] HISTOGRAM_FIELDS = { "Count", "P50", "P90", "P99", "P999", "Max", "Mean" };
+
+    private final String description;
+    private final StatisticsMap statistics;
+
+    public StatisticsMBean(String description, StatisticsMap statistics) {
+        this.description = description;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Get the statistics exposed by this MBean.
+     * @return statistics
+     */
+    public StatisticsMap getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        int dot = attribute.lastIndexOf('.');
+        if (dot > 0) {
+            String key = attribute.substring(0, dot);
+            String field = attribute.substring(dot + 1);
+
+            Statistic statistic = statistics.get(key);
+            if (statistic != null) {
+                Object value = statisticValue(statistic, field);
+                if (value != null) {
+                    return value;
+                }
+            }
+
+            HistogramStatistic histogram = histograms().get(key);
+            if (histogram != null) {
+                Object value = histogramValue(histogram, field);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException ex) {
+                // Omitted from the result, as specified by DynamicMBean
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String key : statistics.keySet()) {
+            for (String field : STATISTIC_FIELDS) {
+                String type = field.equals("Count") ? Integer.class.getName() : Double.class.getName();
+                attributes.add(new MBeanAttributeInfo(key + "." + field, type, key + " " + field, true, false, false));
+            }
+        }
+        for (String key : histograms().keySet()) {
+            for (String field : HISTOGRAM_FIELDS) {
+                String type = field.equals("Mean") ? Double.class.getName() : Long.class.getName();
+                attributes.add(new MBeanAttributeInfo(key + "." + field, type, key + " " + field, true, false, false));
+            }
+        }
+        return new MBeanInfo(getClass().getName(), description,
+            attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[0], null);
+    }
+
+    private Map<String, HistogramStatistic> histograms() {
+        return (statistics instanceof Statistics)
+            ? ((Statistics) statistics).getHistograms()
+            : Collections.<String, HistogramStatistic>emptyMap();
+    }
+
+    private static Object statisticValue(Statistic statistic, String field) {
+        switch (field) {
+            case "Count":
+                return statistic.getCount();
+            case "Last":
+                return statistic.getLast();
+            default:
+                Statistic.Snapshot snapshot = statistic.snapshot();
+                switch (field) {
+                    case "Sum":
+                        return snapshot.getSum();
+                    case "Average":
+                        return snapshot.getAverage();
+                    case "Min":
+                        return snapshot.getMin();
+                    case "Max":
+                        return snapshot.getMax();
+                    case "StandardDeviation":
+                        return snapshot.getStandardDeviation();
+                    default:
+                        return null;
+                }
+        }
+    }
+
+    private static Object histogramValue(HistogramStatistic histogram, String field) {
+        switch (field) {
+            case "Count":
+                return histogram.getCount();
+            case "P50":
+                return histogram.getP50();
+            case "P90":
+                return histogram.getP90();
+            case "P99":
+                return histogram.getP99();
+            case "P999":
+                return histogram.getP999();
+            case "Max":
+                return histogram.getMax();
+            case "Mean":
+                return histogram.getMean();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.spool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Durable write-ahead spool for payloads that could not be delivered.  Payloads are appended to
+ * memory-mapped, CRC-framed segment files that roll over when full.  A checkpoint file records the
+ * position of the next payload to replay, so replay resumes in order after a restart.  Segments are
+ * deleted once they have been fully replayed.
+ */
+public class Spool implements Closeable {
+    private final SpoolOptions options;
+    private final Deque<SpoolSegment> segments = new ArrayDeque<>();
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpoint;
+    private final Object replayLock = new Object();
+
+    private volatile int replayOffset;
+
+    static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int CHECKPOINT_SIZE = 16;
+
+    private static final Logger log = LoggerFactory.getLogger(Spool.class);
+
+    /**
+     * Sink that receives replayed payloads.
+     */
+    public interface Sink {
+
+        /**
+         * Deliver a payload.
+         * @param payload
+         * @return true if the payload was delivered and can be removed from the spool
+         */
+        boolean deliver(byte[] payload);
+    }
+
+    /**
+     * Constructor.  Scope is private to force use of the static factory method.
+     * @param options
+     * @throws IOException
+     */
+    private Spool(SpoolOptions options) throws IOException {
+        this.options = options;
+
+        File directory = options.getDirectory();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create spool directory " + directory);
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(new File(directory, CHECKPOINT_FILE), "rw");
+        this.checkpointChannel = raf.getChannel();
+        this.checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, CHECKPOINT_SIZE);
+
+        List<Long> sequences = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                long sequence = SpoolSegment.parseSequence(file.getName());
+                if (sequence >= 0) {
+                    sequences.add(sequence);
+                }
+            }
+        }
+        Collections.sort(sequences);
+        for (Long sequence : sequences) {
+            segments.addLast(SpoolSegment.open(directory, sequence, options.getSegmentSize()));
+        }
+        if (segments.isEmpty()) {
+            segments.addLast(SpoolSegment.open(directory, 0, options.getSegmentSize()));
+        }
+
+        restoreCheckpoint();
+    }
+
+    /**
+     * Append a payload.  Cheap enough to be called on the sending thread: the payload is copied
+     * into the mapped segment and nothing is forced to disk.
+     * @param payload
+     * @param offset
+     * @param length
+     * @return true if the payload was spooled; false if it does not fit within the disk bound.
+     * @throws IOException if a new segment could not be created.
+     */
+    public synchronized boolean append(byte[] payload, int offset, int length) throws IOException {
+        if (length <= 0 || length > options.getSegmentSize() - SpoolSegment.FRAME_HEADER) {
+            return false;
+        }
+
+        SpoolSegment active = segments.peekLast();
+        if (active.append(payload, offset, length)) {
+            return true;
+        }
+
+        if (segments.size() >= options.getMaxSegments()) {
+            return false;
+        }
+
+        active.force();
+        SpoolSegment next = SpoolSegment.open(options.getDirectory(), active.getSequence() + 1, options.getSegmentSize());
+        segments.addLast(next);
+        return next.append(payload, offset, length);
+    }
+
+    /**
+     * Append a payload.
+     * @param payload
+     * @return true if the payload was spooled.
+     * @throws IOException
+     */
+    public boolean append(byte[] payload) throws IOException {
+        return append(payload, 0, payload.length);
+    }
+
+    /**
+     * Replay spooled payloads in order, stopping at the first payload the sink does not accept.
+     * @param sink
+     * @return number of payloads delivered
+     * @throws IOException
+     */
+    public int replay(Sink sink) throws IOException {
+        int delivered = 0;
+
+        synchronized (replayLock) {
+            for (;;) {
+                SpoolSegment head;
+                boolean isActive;
+                synchronized (this) {
+                    head = segments.peekFirst();
+                    isActive = (head == segments.peekLast());
+                }
+
+                byte[] payload = head.read(replayOffset);
+                if (payload == null) {
+                    if (isActive) {
+                        return delivered;
+                    }
+
+                    // Head segment exhausted (or its tail torn); move on to the next one.
+                    synchronized (this) {
+                        segments.pollFirst();
+                        head.delete();
+                        writeCheckpoint(segments.peekFirst().getSequence(), 0);
+                    }
+                    continue;
+                }
+
+                boolean accepted;
+                try {
+                    accepted = sink.deliver(payload);
+                } catch (RuntimeException re) {
+                    log.warn("Spool replay failed: " + re.getMessage());
+                    accepted = false;
+                }
+                if (!accepted) {
+                    return delivered;
+                }
+
+                delivered++;
+                writeCheckpoint(head.getSequence(), replayOffset + SpoolSegment.FRAME_HEADER + payload.length);
+            }
+        }
+    }
+
+    /**
+     * @return true if no payloads are waiting to be replayed.
+     */
+    public synchronized boolean isEmpty() {
+        SpoolSegment head = segments.peekFirst();
+        return segments.size() == 1 && replayOffset >= head.getWritePosition();
+    }
+
+    /**
+     * @return number of segment files on disk
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Flush segments and the checkpoint to disk and release the files.
+     * @throws IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        checkpoint.force();
+        for (SpoolSegment segment : segments) {
+            segment.force();
+            segment.close();
+        }
+        segments.clear();
+        checkpointChannel.close();
+    }
+
+    /**
+     * Restore the replay position from the checkpoint file, falling back to the start of the oldest
+     * segment if the checkpoint is missing, corrupt or refers to a deleted segment.
+     */
+    private void restoreCheckpoint() {
+        long sequence = checkpoint.getLong(0);
+        int offset = checkpoint.getInt(8);
+        int crc = checkpoint.getInt(12);
+
+        SpoolSegment head = segments.peekFirst();
+        if (crc != checksum(sequence, offset) || sequence != head.getSequence()
+                || offset < 0 || offset > head.getWritePosition()) {
+            sequence = head.getSequence();
+            offset = 0;
+        }
+        writeCheckpoint(sequence, offset);
+    }
+
+    /**
+     * Record the replay position.
+     * @param sequence
+     * @param offset
+     */
+    private void writeCheckpoint(long sequence, int offset) {
+        this.replayOffset = offset;
+        checkpoint.putLong(0, sequence);
+        checkpoint.putInt(8, offset);
+        checkpoint.putInt(12, checksum(sequence, offset));
+    }
+
+    /**
+     * Checkpoint checksum.
+     * @param sequence
+     * @param offset
+     * @return crc
+     */
+    private static int checksum(long sequence, int offset) {
+        CRC32 crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (sequence >>> shift));
+        }
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            crc.update(offset >>> shift);
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Factory method that opens (or creates) the spool described by the options.
+     * @param options
+     * @return spool
+     * @throws IOException
+     */
+    public static Spool open(SpoolOptions options) throws IOException {
+        return new Spool(options);
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.spool;
+
+import org.imsglobal.caliper.validators.SensorValidator;
+
+import java.io.File;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Spool options.  Disk usage is bounded by segmentSize * maxSegments; once the bound is reached
+ * further payloads are rejected until the replayer has drained older segments.
+ */
+public class SpoolOptions {
+    private final File directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int replayInterval;
+
+    /**
+     * Default spool settings.  Segment size is expressed in bytes, replay interval in milliseconds.
+     */
+    public static final int SEGMENT_SIZE = 8 * 1024 * 1024;
+    public static final int MAX_SEGMENTS = 32;
+    public static final int REPLAY_INTERVAL = 5000;
+
+    /**
+     * Constructor
+     * @param builder
+     */
+    private SpoolOptions(OptionsBuilder builder) {
+        checkArgument(builder.directory != null, "Spool directory must be specified.");
+
+        this.directory = builder.directory;
+        this.segmentSize = SensorValidator.chkPositiveIntValue(builder.segmentSize, SEGMENT_SIZE);
+        this.maxSegments = SensorValidator.chkPositiveIntValue(builder.maxSegments, MAX_SEGMENTS);
+        this.replayInterval = SensorValidator.chkPositiveIntValue(builder.replayInterval, REPLAY_INTERVAL);
+    }
+
+    /**
+     * Get the directory that holds the segment and checkpoint files.
+     * @return directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the size of each memory-mapped segment file.
+     * @return segment size in bytes
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Get the maximum number of segment files kept on disk.
+     * @return max segments
+     */
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    /**
+     * Get the delay between replay attempts.
+     * @return replay interval in milliseconds
+     */
+    public int getReplayInterval() {
+        return replayInterval;
+    }
+
+    /**
+     * Builder class provides a fluid interface for setting options properties.
+     */
+    public static class OptionsBuilder {
+        private File directory;
+        private int segmentSize = 0;
+        private int maxSegments = 0;
+        private int replayInterval = 0;
+
+        /**
+         * Constructor
+         */
+        public OptionsBuilder() {
+
+        }
+
+        /**
+         * @param directory
+         * @return builder
+         */
+        public OptionsBuilder directory(final File directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * @param segmentSize
+         * @return builder
+         */
+        public OptionsBuilder segmentSize(final int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * @param maxSegments
+         * @return builder
+         */
+        public OptionsBuilder maxSegments(final int maxSegments) {
+            this.maxSegments = maxSegments;
+            return this;
+        }
+
+        /**
+         * @param replayInterval
+         * @return builder
+         */
+        public OptionsBuilder replayInterval(final int replayInterval) {
+            this.replayInterval = replayInterval;
+            return this;
+        }
+
+        /**
+         * Client invokes build method in order to create an immutable object.
+         * @return a new instance of Options.
+         */
+        public SpoolOptions build() {
+            return new SpoolOptions(this);
+        }
+    }
+
+    /**
+     * Static Factory method.
+     * @return new builder instance
+     */
+    public static OptionsBuilder builder() {
+        return new OptionsBuilder();
+    }
+}
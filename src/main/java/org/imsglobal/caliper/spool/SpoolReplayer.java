@@ -0,0 +1,102 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.spool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background task that periodically drains a Spool into a sink, in order, once the sink starts
+ * accepting payloads again.
+ */
+public class SpoolReplayer implements Closeable {
+    private final Spool spool;
+    private final Spool.Sink sink;
+    private final ScheduledExecutorService executor;
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolReplayer.class);
+
+    /**
+     * Constructor
+     * @param name
+     * @param spool
+     * @param sink
+     */
+    public SpoolReplayer(final String name, Spool spool, Spool.Sink sink) {
+        this.spool = spool;
+        this.sink = sink;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "caliper-spool-replayer-" + name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Schedule replay attempts at a fixed delay.
+     * @param interval
+     * @param unit
+     */
+    public void start(long interval, TimeUnit unit) {
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                replay();
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Drain the spool once.
+     * @return number of payloads delivered
+     */
+    public int replay() {
+        try {
+            if (spool.isEmpty()) {
+                return 0;
+            }
+            int delivered = spool.replay(sink);
+            if (delivered > 0 && log.isDebugEnabled()) {
+                log.debug("Replayed " + delivered + " spooled payloads.");
+            }
+            return delivered;
+        } catch (IOException ioe) {
+            log.warn("Spool replay failed: " + ioe.getMessage(), ioe);
+            return 0;
+        }
+    }
+
+    /**
+     * Stop replaying.  The spool itself is left open.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.spool;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * A fixed-size, memory-mapped spool segment file holding a sequence of CRC-framed payloads.  Each
+ * frame is laid out as [int length][int crc32][payload].  The length is written last, so a frame
+ * torn by a crash reads back as a zero length or a CRC mismatch and marks the end of the segment.
+ * Appends are made by a single writer at a time; readers may run concurrently and only see
+ * frames below the published write position.
+ */
+class SpoolSegment implements Closeable {
+    static final int FRAME_HEADER = 8;
+    static final String SUFFIX = ".seg";
+
+    private final long sequence;
+    private final File file;
+    private final FileChannel channel;
+    // Typed as ByteBuffer, and positioned through Buffer, so that classes built on JDK 9+ for Java 8
+    // do not link against the covariant overrides later JDKs added to MappedByteBuffer and ByteBuffer.
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private volatile int writePosition;
+
+    /**
+     * Constructor
+     * @param sequence
+     * @param file
+     * @param channel
+     * @param buffer
+     */
+    private SpoolSegment(long sequence, File file, FileChannel channel, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+        this.writePosition = recover();
+    }
+
+    /**
+     * Open or create the segment with the given sequence number.
+     * @param directory
+     * @param sequence
+     * @param size
+     * @return segment
+     * @throws IOException
+     */
+    static SpoolSegment open(File directory, long sequence, int size) throws IOException {
+        File file = new File(directory, fileName(sequence));
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            int length = (int) Math.max(channel.size(), size);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            return new SpoolSegment(sequence, file, channel, buffer);
+        } catch (IOException ioe) {
+            raf.close();
+            throw ioe;
+        }
+    }
+
+    /**
+     * Segment file name; zero padded so that lexical order is sequence order.
+     * @param sequence
+     * @return file name
+     */
+    static String fileName(long sequence) {
+        return String.format("%020d%s", sequence, SUFFIX);
+    }
+
+    /**
+     * Parse the sequence number from a segment file name.
+     * @param name
+     * @return sequence or -1 if the name is not a segment file name
+     */
+    static long parseSequence(String name) {
+        if (!name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
+    }
+
+    /**
+     * Append a frame.  Must not be called concurrently with another append.
+     * @param payload
+     * @param offset
+     * @param length
+     * @return true if the frame fit in the segment
+     */
+    boolean append(byte[] payload, int offset, int length) {
+        int position = writePosition;
+        if (length <= 0 || (long) position + FRAME_HEADER + length > capacity) {
+            return false;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload, offset, length);
+
+        ((Buffer) buffer).position(position + FRAME_HEADER);
+        buffer.put(payload, offset, length);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, length);
+
+        writePosition = position + FRAME_HEADER + length;
+        return true;
+    }
+
+    /**
+     * Read the frame that starts at the given offset.
+     * @param offset
+     * @return payload or null if no complete frame starts at the offset
+     */
+    byte[] read(int offset) {
+        if (offset + FRAME_HEADER > writePosition) {
+            return null;
+        }
+
+        ByteBuffer view = buffer.duplicate();
+        int length = view.getInt(offset);
+        if (length <= 0 || offset + FRAME_HEADER + length > writePosition) {
+            return null;
+        }
+
+        byte[] payload = new byte[length];
+        ((Buffer) view).position(offset + FRAME_HEADER);
+        view.get(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, length);
+        if ((int) crc.getValue() != view.getInt(offset + 4)) {
+            return null;
+        }
+        return payload;
+    }
+
+    /**
+     * Scan the segment for the end of the last intact frame.
+     * @return write position
+     */
+    private int recover() {
+        ByteBuffer view = buffer.duplicate();
+        CRC32 crc = new CRC32();
+        byte[] scratch = new byte[0];
+        int position = 0;
+
+        while (position + FRAME_HEADER <= capacity) {
+            int length = view.getInt(position);
+            if (length <= 0 || (long) position + FRAME_HEADER + length > capacity) {
+                break;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[length];
+            }
+            ((Buffer) view).position(position + FRAME_HEADER);
+            view.get(scratch, 0, length);
+            crc.reset();
+            crc.update(scratch, 0, length);
+            if ((int) crc.getValue() != view.getInt(position + 4)) {
+                break;
+            }
+            position += FRAME_HEADER + length;
+        }
+        return position;
+    }
+
+    /**
+     * Flush written frames to the storage device.
+     */
+    void force() {
+        ((MappedByteBuffer) buffer).force();
+    }
+
+    /**
+     * @return sequence number
+     */
+    long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return position following the last frame
+     */
+    int getWritePosition() {
+        return writePosition;
+    }
+
+    /**
+     * @return segment capacity in bytes
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Close and delete the segment file.
+     * @throws IOException
+     */
+    void delete() throws IOException {
+        close();
+        if (!file.delete() && file.exists()) {
+            throw new IOException("Unable to delete spool segment " + file);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.statistics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * A statistic that captures the distribution of a series of non-negative integer values (latencies,
+ * payload sizes) in a high dynamic range histogram with three significant digits of precision.
+ * Values are recorded wait-free; readers fold the values recorded since the previous read into an
+ * accumulated histogram.  Histograms can be merged, e.g. to aggregate several clients.
+ */
+public class HistogramStatistic {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder recorder;
+    private final Histogram accumulated;
+    private Histogram interval;
+
+    public HistogramStatistic() {
+        recorder = new Recorder(SIGNIFICANT_DIGITS);
+        accumulated = new Histogram(SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Add a value to this statistic.  Negative values are recorded as zero.
+     * @param val
+     */
+    public void record(long val) {
+        recorder.recordValue(Math.max(0, val));
+    }
+
+    /**
+     * Merge the values of another statistic into this one.
+     * @param other
+     */
+    public void merge(HistogramStatistic other) {
+        Histogram values = other.snapshot();
+        synchronized (this) {
+            drain().add(values);
+        }
+    }
+
+    /**
+     * Get a copy of the accumulated histogram.
+     * @return histogram
+     */
+    public synchronized Histogram snapshot() {
+        return drain().copy();
+    }
+
+    public synchronized void clear() {
+        drain().reset();
+    }
+
+    /**
+     * Get the total amount of values that represent this statistic
+     * @return
+     */
+    public synchronized long getCount() {
+        return drain().getTotalCount();
+    }
+
+    /**
+     * Get the value below which the given percentage of values fall
+     * @param percentile between 0 and 100
+     * @return
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        return drain().getValueAtPercentile(percentile);
+    }
+
+    public long getP50() {
+        return getValueAtPercentile(50.0);
+    }
+
+    public long getP90() {
+        return getValueAtPercentile(90.0);
+    }
+
+    public long getP99() {
+        return getValueAtPercentile(99.0);
+    }
+
+    public long getP999() {
+        return getValueAtPercentile(99.9);
+    }
+
+    /**
+     * Get the maximum value
+     * @return
+     */
+    public synchronized long getMax() {
+        return drain().getMaxValue();
+    }
+
+    /**
+     * Get the average value
+     * @return
+     */
+    public synchronized double getMean() {
+        return drain().getMean();
+    }
+
+    /**
+     * Fold the values recorded since the last read into the accumulated histogram.  The interval
+     * histogram is recycled to avoid allocating on every read.
+     * @return accumulated histogram
+     */
+    private Histogram drain() {
+        interval = recorder.getIntervalHistogram(interval);
+        accumulated.add(interval);
+        return accumulated;
+    }
+
+    @Override
+    public synchronized String toString() {
+        Histogram values = drain();
+        return String.format(
+            "[Count : %d], [p50 : %d], [p90 : %d], [p99 : %d], [p99.9 : %d], [Max : %d]",
+            values.getTotalCount(), values.getValueAtPercentile(50.0), values.getValueAtPercentile(90.0),
+            values.getValueAtPercentile(99.0), values.getValueAtPercentile(99.9), values.getMaxValue());
+    }
+}
@@ -15,41 +15,38 @@
  * You should have received a copy of the GNU Lesser General Public License along
  * with this program. If not, see <http://www.gnu.org/licenses/>.
  */
-
 package org.imsglobal.caliper.statistics;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-
 /**
  * A statistic that captures properties {min, max, avg, sum, std.dev} of 
  * a series of numeric values.
  *
+ * Updates are striped across per-thread cells, each holding its own Welford
+ * accumulator, so concurrent writers rarely touch the same cell and no value is
+ * ever dropped. Reads merge the cells into an exact {@link Snapshot}.
  */
 public class Statistic {
 
-    private AtomicDouble sum;
-    private AtomicInteger count;
-
-    private AtomicDouble last;
+    private static final int MAX_STRIPES = 64;
 
-    // Standard deviation variables based on
-    // http://www.johndcook.com/standard_deviation.html
-    private AtomicBoolean lock;
+    private final Cell[] cells;
+    private final int mask;
 
-    private double oldM;
-    private double newM;
-    private double oldS;
-    private double newS;
-
-    private double min;
-    private double max;
+    private final AtomicDouble last;
 
     public Statistic() {
-        sum = new AtomicDouble(0.0);
-        count = new AtomicInteger(0);
+        int stripes = 1;
+        int cpus = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES);
+        while (stripes < cpus) {
+            stripes <<= 1;
+        }
+
+        cells = new Cell[stripes];
+        for (int i = 0; i < stripes; i++) {
+            cells[i] = new Cell();
+        }
+        mask = stripes - 1;
         last = new AtomicDouble(0.0);
-        lock = new AtomicBoolean(false);
     }
 
     /**
@@ -57,57 +54,37 @@ public class Statistic {
      * @param val
      */
     public void update(double val) {
-
-        int n = count.addAndGet(1);
-
-        if (lock.compareAndSet(false, true)) {
-            if (n == 1) {
-                // this is the first time we are executing, so clear the numbers
-
-                oldM = newM = val;
-                oldS = 0.0;
-
-                min = val;
-                max = val;
-            } else {
-                // this is not our first update
-                newM = oldM + (val - oldM) / n;
-                newS = oldS + (val - oldM) * (val * newM);
-
-                oldM = newM;
-                oldS = newS;
-            }
-
-            if (val < min) {
-                min = val;
-            }
-
-            if (val > max) {
-                max = val;
-            }
-
-            lock.set(false);
-        }
-
-        sum.addAndGet(val);
-
+        cells[(int) Thread.currentThread().getId() & mask].update(val);
         last.set(val);
     }
 
     public void clear() {
-        count.set(0);
-        sum.set(0.0);
-
+        for (Cell cell : cells) {
+            cell.clear();
+        }
         last.set(0.0);
+    }
 
-        min = 0;
-        max = 0;
-
-        oldM = 0;
-        newM = 0;
-        oldS = 0;
-        newS = 0;
+    /**
+     * Merge the per-thread cells into a consistent view of this statistic.
+     * @return snapshot
+     */
+    public Snapshot snapshot() {
+        return snapshot(new Snapshot());
+    }
 
+    /**
+     * Merge the per-thread cells into a caller-owned snapshot, e.g. to read many statistics without
+     * allocating.
+     * @param snapshot overwritten with the current values
+     * @return snapshot
+     */
+    public Snapshot snapshot(Snapshot snapshot) {
+        snapshot.reset();
+        for (Cell cell : cells) {
+            cell.mergeInto(snapshot);
+        }
+        return snapshot;
     }
 
     /**
@@ -115,7 +92,7 @@ public class Statistic {
      * @return
      */
     public double getSum() {
-        return sum.get();
+        return snapshot().getSum();
     }
 
     /**
@@ -123,7 +100,11 @@ public class Statistic {
      * @return
      */
     public int getCount() {
-        return count.get();
+        long count = 0;
+        for (Cell cell : cells) {
+            count += cell.count();
+        }
+        return (int) count;
     }
 
     /**
@@ -131,7 +112,7 @@ public class Statistic {
      * @return
      */
     public double getAverage() {
-        return count.get() > 0 ? (sum.get() / count.get()) : 0.0;
+        return snapshot().getAverage();
     }
 
     /**
@@ -139,7 +120,7 @@ public class Statistic {
      * @return
      */
     public double getVariance() {
-        return (count.get() > 1) ? newS / (count.get() - 1) : 1.0;
+        return snapshot().getVariance();
     }
 
     /**
@@ -147,7 +128,7 @@ public class Statistic {
      * @return
      */
     public double getStandardDeviation() {
-        return Math.sqrt(getVariance());
+        return snapshot().getStandardDeviation();
     }
 
     /**
@@ -155,7 +136,7 @@ public class Statistic {
      * @return
      */
     public double getMin() {
-        return min;
+        return snapshot().getMin();
     }
 
     /**
@@ -163,7 +144,7 @@ public class Statistic {
      * @return
      */
     public double getMax() {
-        return max;
+        return snapshot().getMax();
     }
 
     /**
@@ -176,18 +157,158 @@ public class Statistic {
 
     @Override
     public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * One stripe of a Statistic. Writers that hash to the same cell serialize on
+     * its monitor, which is almost always uncontended.
+     */
+    private static final class Cell {
+        private long count;
+        private double sum;
+        private double mean;
+        private double m2;
+        private double min;
+        private double max;
+
+        synchronized void update(double val) {
+            long n = ++count;
+            sum += val;
+
+            // Welford, see http://www.johndcook.com/standard_deviation.html
+            double delta = val - mean;
+            mean += delta / n;
+            m2 += delta * (val - mean);
 
-        if (min == 1.0 && max == 1.0) {
+            if (n == 1) {
+                min = val;
+                max = val;
+            } else {
+                if (val < min) {
+                    min = val;
+                }
+                if (val > max) {
+                    max = val;
+                }
+            }
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized void mergeInto(Snapshot snapshot) {
+            snapshot.merge(count, sum, mean, m2, min, max);
+        }
+
+        synchronized void clear() {
+            count = 0;
+            sum = 0.0;
+            mean = 0.0;
+            m2 = 0.0;
+            min = 0.0;
+            max = 0.0;
+        }
+    }
+
+    /**
+     * An exact view of a Statistic at a point in time.  Only {@link Statistic#snapshot(Snapshot)} writes to it.
+     */
+    public static final class Snapshot {
+        private long count;
+        private double sum;
+        private double mean;
+        private double m2;
+        private double min;
+        private double max;
+
+        public Snapshot() {
+        }
+
+        private void reset() {
+            count = 0;
+            sum = 0.0;
+            mean = 0.0;
+            m2 = 0.0;
+            min = 0.0;
+            max = 0.0;
+        }
+
+        /**
+         * Combine a partial accumulator using the parallel variance algorithm of Chan et al.
+         */
+        private void merge(long n, double s, double m, double sq, double lo, double hi) {
+            if (n == 0) {
+                return;
+            }
+            if (count == 0) {
+                count = n;
+                sum = s;
+                mean = m;
+                m2 = sq;
+                min = lo;
+                max = hi;
+                return;
+            }
+
+            long total = count + n;
+            double delta = m - mean;
+            mean += delta * n / total;
+            m2 += sq + delta * delta * count * n / total;
+            count = total;
+            sum += s;
+            min = Math.min(min, lo);
+            max = Math.max(max, hi);
+        }
 
-            // this is just a count
-            return "" + getCount();
+        public long getCount() {
+            return count;
+        }
 
-        } else {
+        public double getSum() {
+            return sum;
+        }
 
-            return String.format(
-                "[Count : %d], [Min : %s], [Max : %s], [Average : %s], [Std. Dev. : %s]",
-                getCount(), getMin(), getMax(), getAverage(), getStandardDeviation());
+        public double getAverage() {
+            return count > 0 ? sum / count : 0.0;
+        }
 
+        /**
+         * Get the sample variance, or 0 with fewer than two values.
+         * @return
+         */
+        public double getVariance() {
+            return count > 1 ? m2 / (count - 1) : 0.0;
+        }
+
+        public double getStandardDeviation() {
+            return Math.sqrt(getVariance());
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+
+            if (min == 1.0 && max == 1.0) {
+
+                // this is just a count
+                return "" + count;
+
+            } else {
+
+                return String.format(
+                    "[Count : %d], [Min : %s], [Max : %s], [Average : %s], [Std. Dev. : %s]",
+                    count, getMin(), getMax(), getAverage(), getStandardDeviation());
+
+            }
         }
     }
-}
\ No newline at end of file
+}
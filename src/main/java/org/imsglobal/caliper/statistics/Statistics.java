@@ -18,6 +18,13 @@
 
 package org.imsglobal.caliper.statistics;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Statistics extends StatisticsMap {
 
@@ -29,6 +36,53 @@ public class Statistics extends StatisticsMap {
     private static String SUCCESSFUL_KEY = "Successful";
     private static String FAILED_KEY = "Failed";
 
+    private static String DISPATCHED_KEY = "Dispatched";
+    private static String DROPPED_KEY = "Dropped";
+    private static String QUEUE_DEPTH_KEY = "QueueDepth";
+
+    private static String BATCH_FILL_RATIO_KEY = "BatchFillRatio";
+    private static String BATCH_LINGER_KEY = "BatchLinger";
+
+    private static String COMPRESSION_RATIO_KEY = "CompressionRatio";
+    private static String COMPRESSION_TIME_KEY = "CompressionTime";
+
+    private static String SPOOLED_KEY = "Spooled";
+    private static String SPOOL_REJECTED_KEY = "SpoolRejected";
+    private static String REPLAYED_KEY = "Replayed";
+
+    private static String RETRIES_KEY = "Retries";
+    private static String BREAKER_OPENED_KEY = "BreakerOpened";
+    private static String BREAKER_HALF_OPENED_KEY = "BreakerHalfOpened";
+    private static String BREAKER_CLOSED_KEY = "BreakerClosed";
+    private static String BREAKER_REJECTED_KEY = "BreakerRejected";
+
+    private static String TIMEOUTS_KEY = "Timeouts";
+
+    /**
+     * Statistics that count occurrences.  The others record a value per update; those that record a
+     * duration are mapped to the number of recorded units per second.
+     */
+    private static final Set<String> COUNTER_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        MEASURE_KEY, DESCRIBE_KEY, SUCCESSFUL_KEY, FAILED_KEY, DISPATCHED_KEY, DROPPED_KEY, SPOOLED_KEY,
+        SPOOL_REJECTED_KEY, REPLAYED_KEY, RETRIES_KEY, BREAKER_OPENED_KEY, BREAKER_HALF_OPENED_KEY,
+        BREAKER_CLOSED_KEY, BREAKER_REJECTED_KEY, TIMEOUTS_KEY)));
+    private static final Map<String, Double> UNITS_PER_SECOND = new HashMap<>();
+    static {
+        UNITS_PER_SECOND.put(BATCH_LINGER_KEY, 1e3);
+        UNITS_PER_SECOND.put(COMPRESSION_TIME_KEY, 1e6);
+    }
+
+    /**
+     * Histogram keys.  Times are recorded in microseconds, sizes in bytes.
+     */
+    private static String SEND_LATENCY_KEY = "SendLatency";
+    private static String SERIALIZATION_TIME_KEY = "SerializationTime";
+    private static String ROUND_TRIP_KEY = "RoundTrip";
+    private static String SERIALIZED_BYTES_KEY = "SerializedBytes";
+    private static String COMPRESSED_BYTES_KEY = "CompressedBytes";
+
+    private transient volatile Map<String, HistogramStatistic> histograms;
+
     public Statistic getDescribes() {
         return ensure(DESCRIBE_KEY);
     }
@@ -60,4 +114,255 @@ public class Statistics extends StatisticsMap {
     public void updateFailed(double val) {
         update(FAILED_KEY, val);
     }
-}
\ No newline at end of file
+
+    public Statistic getDispatched() {
+        return ensure(DISPATCHED_KEY);
+    }
+
+    public void updateDispatched(double val) {
+        update(DISPATCHED_KEY, val);
+    }
+
+    public Statistic getDropped() {
+        return ensure(DROPPED_KEY);
+    }
+
+    public void updateDropped(double val) {
+        update(DROPPED_KEY, val);
+    }
+
+    public Statistic getQueueDepth() {
+        return ensure(QUEUE_DEPTH_KEY);
+    }
+
+    public void updateQueueDepth(double val) {
+        update(QUEUE_DEPTH_KEY, val);
+    }
+
+    public Statistic getBatchFillRatio() {
+        return ensure(BATCH_FILL_RATIO_KEY);
+    }
+
+    public void updateBatchFillRatio(double val) {
+        update(BATCH_FILL_RATIO_KEY, val);
+    }
+
+    public Statistic getBatchLinger() {
+        return ensure(BATCH_LINGER_KEY);
+    }
+
+    public void updateBatchLinger(double val) {
+        update(BATCH_LINGER_KEY, val);
+    }
+
+    public Statistic getCompressionRatio() {
+        return ensure(COMPRESSION_RATIO_KEY);
+    }
+
+    public void updateCompressionRatio(double val) {
+        update(COMPRESSION_RATIO_KEY, val);
+    }
+
+    public Statistic getCompressionTime() {
+        return ensure(COMPRESSION_TIME_KEY);
+    }
+
+    public void updateCompressionTime(double val) {
+        update(COMPRESSION_TIME_KEY, val);
+    }
+
+    public Statistic getSpooled() {
+        return ensure(SPOOLED_KEY);
+    }
+
+    public void updateSpooled(double val) {
+        update(SPOOLED_KEY, val);
+    }
+
+    public Statistic getSpoolRejected() {
+        return ensure(SPOOL_REJECTED_KEY);
+    }
+
+    public void updateSpoolRejected(double val) {
+        update(SPOOL_REJECTED_KEY, val);
+    }
+
+    public Statistic getReplayed() {
+        return ensure(REPLAYED_KEY);
+    }
+
+    public void updateReplayed(double val) {
+        update(REPLAYED_KEY, val);
+    }
+
+    public Statistic getRetries() {
+        return ensure(RETRIES_KEY);
+    }
+
+    public void updateRetries(double val) {
+        update(RETRIES_KEY, val);
+    }
+
+    public Statistic getBreakerOpened() {
+        return ensure(BREAKER_OPENED_KEY);
+    }
+
+    public void updateBreakerOpened(double val) {
+        update(BREAKER_OPENED_KEY, val);
+    }
+
+    public Statistic getBreakerHalfOpened() {
+        return ensure(BREAKER_HALF_OPENED_KEY);
+    }
+
+    public void updateBreakerHalfOpened(double val) {
+        update(BREAKER_HALF_OPENED_KEY, val);
+    }
+
+    public Statistic getBreakerClosed() {
+        return ensure(BREAKER_CLOSED_KEY);
+    }
+
+    public void updateBreakerClosed(double val) {
+        update(BREAKER_CLOSED_KEY, val);
+    }
+
+    public Statistic getBreakerRejected() {
+        return ensure(BREAKER_REJECTED_KEY);
+    }
+
+    public void updateBreakerRejected(double val) {
+        update(BREAKER_REJECTED_KEY, val);
+    }
+
+    public Statistic getTimeouts() {
+        return ensure(TIMEOUTS_KEY);
+    }
+
+    public void updateTimeouts(double val) {
+        update(TIMEOUTS_KEY, val);
+    }
+
+    public HistogramStatistic getSendLatency() {
+        return ensureHistogram(SEND_LATENCY_KEY);
+    }
+
+    public void updateSendLatency(long micros) {
+        ensureHistogram(SEND_LATENCY_KEY).record(micros);
+    }
+
+    public HistogramStatistic getSerializationTime() {
+        return ensureHistogram(SERIALIZATION_TIME_KEY);
+    }
+
+    public void updateSerializationTime(long micros) {
+        ensureHistogram(SERIALIZATION_TIME_KEY).record(micros);
+    }
+
+    public HistogramStatistic getRoundTrip() {
+        return ensureHistogram(ROUND_TRIP_KEY);
+    }
+
+    public void updateRoundTrip(long micros) {
+        ensureHistogram(ROUND_TRIP_KEY).record(micros);
+    }
+
+    public HistogramStatistic getSerializedBytes() {
+        return ensureHistogram(SERIALIZED_BYTES_KEY);
+    }
+
+    public void updateSerializedBytes(long bytes) {
+        ensureHistogram(SERIALIZED_BYTES_KEY).record(bytes);
+    }
+
+    public HistogramStatistic getCompressedBytes() {
+        return ensureHistogram(COMPRESSED_BYTES_KEY);
+    }
+
+    public void updateCompressedBytes(long bytes) {
+        ensureHistogram(COMPRESSED_BYTES_KEY).record(bytes);
+    }
+
+    /**
+     * Check whether a statistic counts occurrences rather than recording a value per update.
+     * @param key
+     * @return true for counters
+     */
+    public static boolean isCounter(String key) {
+        return COUNTER_KEYS.contains(key);
+    }
+
+    /**
+     * Get the number of recorded units per second of a statistic that records a duration.
+     * @param key
+     * @return units per second, or 0 if the statistic does not record a duration
+     */
+    public static double getUnitsPerSecond(String key) {
+        Double units = UNITS_PER_SECOND.get(key);
+        return (units != null) ? units : 0;
+    }
+
+    /**
+     * Get the histograms recorded so far, keyed by name.
+     * @return histograms
+     */
+    public Map<String, HistogramStatistic> getHistograms() {
+        return Collections.unmodifiableMap(histograms());
+    }
+
+    /**
+     * Get the number of histograms recorded so far.
+     * @return count
+     */
+    public int getHistogramCount() {
+        return histograms().size();
+    }
+
+    /**
+     * Merge the histograms of another Statistics instance into this one.
+     * @param other
+     */
+    public void mergeHistograms(Statistics other) {
+        for (Entry<String, HistogramStatistic> entry : other.histograms().entrySet()) {
+            ensureHistogram(entry.getKey()).merge(entry.getValue());
+        }
+    }
+
+    public HistogramStatistic ensureHistogram(String key) {
+        Map<String, HistogramStatistic> map = histograms();
+        HistogramStatistic histogram = map.get(key);
+        if (histogram == null) {
+            HistogramStatistic created = new HistogramStatistic();
+            histogram = map.putIfAbsent(key, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * The histogram map is transient and created lazily, so that it also exists after deserialization.
+     * @return histograms
+     */
+    private Map<String, HistogramStatistic> histograms() {
+        Map<String, HistogramStatistic> map = histograms;
+        if (map == null) {
+            synchronized (this) {
+                map = histograms;
+                if (map == null) {
+                    histograms = map = new ConcurrentHashMap<>();
+                }
+            }
+        }
+        return map;
+    }
+
+    @Override
+    protected void appendEntries(StringBuilder builder) {
+        super.appendEntries(builder);
+        for (Entry<String, HistogramStatistic> entry : histograms().entrySet()) {
+            builder.append(String.format("%s : %s\n", entry.getKey(), entry.getValue().toString()));
+        }
+    }
+}
@@ -19,25 +19,26 @@
 package org.imsglobal.caliper.statistics;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class StatisticsMap extends ConcurrentHashMap<String, Statistic> {
 
     private static final long serialVersionUID = -8837006750327885446L;
 
-    public Statistic ensure(String key) {
-        if (this.containsKey(key)) return this.get(key);
+    private static final Function<String, Statistic> CREATE = new Function<String, Statistic>() {
+        @Override
+        public Statistic apply(String key) {
+            return new Statistic();
+        }
+    };
 
-        Statistic statistic = new Statistic();
-        this.put(key, statistic);
-        return statistic;
+    public Statistic ensure(String key) {
+        Statistic statistic = this.get(key);
+        return statistic != null ? statistic : this.computeIfAbsent(key, CREATE);
     }
 
     public void update(String operation, double val) {
-        if (!this.containsKey(operation)) {
-            this.putIfAbsent(operation, new Statistic());
-        }
-
-        this.get(operation).update(val);
+        ensure(operation).update(val);
     }
 
     @Override
@@ -47,6 +48,18 @@ public class StatisticsMap extends ConcurrentHashMap<String, Statistic> {
 
         builder.append("\n-------- Caliper Java Statistics --------\n");
 
+        appendEntries(builder);
+
+        builder.append("----------------------------------------\n");
+
+        return builder.toString();
+    }
+
+    /**
+     * Append one line per statistic.
+     * @param builder
+     */
+    protected void appendEntries(StringBuilder builder) {
         for (Entry<String, Statistic> entry : entrySet()) {
 
             String operation = entry.getKey();
@@ -54,9 +67,5 @@ public class StatisticsMap extends ConcurrentHashMap<String, Statistic> {
 
             builder.append(String.format("%s : %s\n", operation, statistic.toString()));
         }
-
-        builder.append("----------------------------------------\n");
-
-        return builder.toString();
     }
 }
\ No newline at end of file
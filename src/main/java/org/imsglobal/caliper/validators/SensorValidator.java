@@ -82,6 +82,16 @@ public class SensorValidator {
         return (builderValue > defaultValue) ? builderValue : defaultValue;
     }
 
+    /**
+     * Check user-supplied integer value; if not positive return the default config value.
+     * @param builderValue
+     * @param defaultValue
+     * @return
+     */
+    public static int chkPositiveIntValue(int builderValue, int defaultValue) {
+        return (builderValue > 0) ? builderValue : defaultValue;
+    }
+
     /**
      * Check user-supplied integer value against default config value;
      * if null or empty return default config value.
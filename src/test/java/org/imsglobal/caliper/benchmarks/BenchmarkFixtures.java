@@ -0,0 +1,140 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.actions.Action;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.entities.agent.CourseSection;
+import org.imsglobal.caliper.entities.agent.Membership;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.imsglobal.caliper.entities.agent.Role;
+import org.imsglobal.caliper.entities.agent.SoftwareApplication;
+import org.imsglobal.caliper.entities.agent.Status;
+import org.imsglobal.caliper.entities.resource.Assessment;
+import org.imsglobal.caliper.entities.resource.Attempt;
+import org.imsglobal.caliper.entities.session.Session;
+import org.imsglobal.caliper.events.AssessmentEvent;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds representative Caliper events and Envelopes for the benchmarks.
+ */
+public class BenchmarkFixtures {
+    public static final String BASE_IRI = "https://example.edu";
+    public static final String SENSOR_ID = BASE_IRI.concat("/sensors/1");
+
+    /**
+     * Build an AssessmentEvent that mirrors the caliperEnvelopeEventSingle fixture.
+     * @param i event index used to vary the identifier
+     * @return event
+     */
+    public static AssessmentEvent assessmentEvent(int i) {
+        Person actor = Person.builder().id(BASE_IRI.concat("/users/554433")).build();
+        Person actorToId = Person.builder().id(actor.getId()).coercedToId(true).build();
+
+        Assessment object = Assessment.builder()
+            .id(BASE_IRI.concat("/terms/201601/courses/7/sections/1/assess/1"))
+            .name("Quiz One")
+            .dateToStartOn(new DateTime(2016, 11, 14, 5, 0, 0, 0, DateTimeZone.UTC))
+            .dateToSubmit(new DateTime(2016, 11, 18, 11, 59, 59, 0, DateTimeZone.UTC))
+            .maxAttempts(2)
+            .maxSubmits(2)
+            .maxScore(25)
+            .version("1.0")
+            .build();
+
+        Attempt generated = Attempt.builder()
+            .id(BASE_IRI.concat("/terms/201601/courses/7/sections/1/assess/1/users/554433/attempts/1"))
+            .assignable(Assessment.builder().id(object.getId()).coercedToId(true).build())
+            .assignee(actorToId)
+            .count(1)
+            .dateCreated(new DateTime(2016, 11, 15, 10, 15, 0, 0, DateTimeZone.UTC))
+            .startedAtTime(new DateTime(2016, 11, 15, 10, 15, 0, 0, DateTimeZone.UTC))
+            .build();
+
+        CourseSection group = CourseSection.builder().id(BASE_IRI.concat("/terms/201601/courses/7/sections/1"))
+            .courseNumber("CPS 435-01")
+            .academicSession("Fall 2016")
+            .build();
+
+        Membership membership = Membership.builder()
+            .id(BASE_IRI.concat("/terms/201601/courses/7/sections/1/rosters/1"))
+            .member(actorToId)
+            .organization(CourseSection.builder().id(group.getId()).coercedToId(true).build())
+            .status(Status.ACTIVE)
+            .role(Role.LEARNER)
+            .dateCreated(new DateTime(2016, 8, 1, 6, 0, 0, 0, DateTimeZone.UTC))
+            .build();
+
+        Session session = Session.builder()
+            .id(BASE_IRI.concat("/sessions/1f6442a482de72ea6ad134943812bff564a76259"))
+            .startedAtTime(new DateTime(2016, 11, 15, 10, 0, 0, 0, DateTimeZone.UTC))
+            .build();
+
+        return AssessmentEvent.builder()
+            .context(JsonldStringContext.getDefault())
+            .id("urn:uuid:c51570e4-f8ed-4c18-bb3a-" + String.format("%012d", i))
+            .actor(actor)
+            .action(Action.STARTED)
+            .object(object)
+            .eventTime(new DateTime(2016, 11, 15, 10, 15, 0, 0, DateTimeZone.UTC))
+            .generated(generated)
+            .edApp(SoftwareApplication.builder().id(BASE_IRI).version("v2").build())
+            .group(group)
+            .membership(membership)
+            .session(session)
+            .build();
+    }
+
+    /**
+     * Build an Envelope holding the given number of AssessmentEvents.
+     * @param size
+     * @return envelope
+     */
+    public static Envelope envelope(int size) {
+        List<CaliperSendable> data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            data.add(assessmentEvent(i));
+        }
+        return new Envelope(SENSOR_ID, new DateTime(2016, 11, 15, 11, 5, 1, 0, DateTimeZone.UTC),
+            Config.DATA_VERSION, data);
+    }
+
+    /**
+     * Build an Envelope holding the given number of events, cycling through every event class.
+     * @param size
+     * @return envelope
+     */
+    public static Envelope mixedEnvelope(int size) {
+        EventFixture[] fixtures = EventFixture.values();
+        List<CaliperSendable> data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            data.add(fixtures[i % fixtures.length].build(i));
+        }
+        return new Envelope(SENSOR_ID, new DateTime(2016, 11, 15, 11, 5, 1, 0, DateTimeZone.UTC),
+            Config.DATA_VERSION, data);
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.imsglobal.caliper.databind.JxnDoubleSerializer;
+import org.imsglobal.caliper.databind.ReusableByteArrayOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JxnDoubleSerializer against the DecimalFormat-per-value implementation it replaced, writing 64
+ * score-like doubles into a reused generator per operation.  Run with -prof gc to compare allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DoubleSerializerBenchmark {
+    private static final int VALUES = 64;
+
+    private final JxnDoubleSerializer serializer = new JxnDoubleSerializer();
+    private final ReusableByteArrayOutputStream out = new ReusableByteArrayOutputStream(4096, 65536);
+    private Double[] values;
+    private JsonGenerator gen;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(7);
+        values = new Double[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = Math.round(random.nextDouble() * 10000) / 100.0 + (i % 3 == 0 ? 0.005 : 0.0);
+        }
+        gen = new JsonFactory().createGenerator(out);
+    }
+
+    @Benchmark
+    public int decimalFormat() throws IOException {
+        out.reset();
+        gen.writeStartArray();
+        for (Double value : values) {
+            if (Double.isNaN(value / value)) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(new DecimalFormat("##0.0#").format(value));
+            }
+        }
+        gen.writeEndArray();
+        gen.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public int jxnDoubleSerializer() throws IOException {
+        out.reset();
+        gen.writeStartArray();
+        for (Double value : values) {
+            serializer.serialize(value, gen, null);
+        }
+        gen.writeEndArray();
+        gen.flush();
+        return out.size();
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.databind.JxnEnvelopeReader;
+import org.imsglobal.caliper.databind.JxnObjectMappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to read a 100-event mixed Envelope back into Caliper objects, whole or item by item, against parsing
+ * it into a tree and against splitting it into items without decoding them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnvelopeDeserializationBenchmark {
+
+    @Param({"CALIPER_JSONLD", "CALIPER_SMILE"})
+    public DataFormat format;
+
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws Exception {
+        reader = JxnObjectMappers.reader(format);
+        encoded = JxnObjectMappers.writer(format).writeValueAsBytes(BenchmarkFixtures.mixedEnvelope(100));
+    }
+
+    @Benchmark
+    public Envelope envelope() throws Exception {
+        return reader.forType(Envelope.class).readValue(new ByteArrayInputStream(encoded));
+    }
+
+    @Benchmark
+    public JsonNode tree() throws Exception {
+        return reader.readTree(new ByteArrayInputStream(encoded));
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) throws Exception {
+        try (JxnEnvelopeReader items = JxnEnvelopeReader.open(format, new ByteArrayInputStream(encoded))) {
+            for (JxnEnvelopeReader.Item item = items.next(); item != null; item = items.next()) {
+                blackhole.consume(item.getValue());
+            }
+        }
+    }
+
+    @Benchmark
+    public void passThrough(Blackhole blackhole) throws Exception {
+        try (JxnEnvelopeReader items = JxnEnvelopeReader.open(format, new ByteArrayInputStream(encoded))) {
+            for (JxnEnvelopeReader.Item item = items.next(); item != null; item = items.next()) {
+                blackhole.consume(item.getType());
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.databind.JxnObjectMappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-Envelope serialization cost of building a new ObjectMapper for every Envelope (the former
+ * AbstractClient behavior) versus reusing the shared, preconfigured ObjectWriter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnvelopeSerializationBenchmark {
+
+    @Param({"1", "10"})
+    public int events;
+
+    private Envelope envelope;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setup() {
+        envelope = BenchmarkFixtures.envelope(events);
+        writer = JxnObjectMappers.writer();
+    }
+
+    @Benchmark
+    public String mapperPerEnvelope() throws Exception {
+        return JxnObjectMappers.create().writeValueAsString(envelope);
+    }
+
+    @Benchmark
+    public String sharedWriter() throws Exception {
+        return writer.writeValueAsString(envelope);
+    }
+}
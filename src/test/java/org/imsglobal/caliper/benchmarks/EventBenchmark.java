@@ -0,0 +1,71 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.imsglobal.caliper.databind.JxnObjectMappers;
+import org.imsglobal.caliper.events.CaliperEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction (builders and validators) and serialization throughput of every event class.  Run with
+ * -prof gc to report allocation per operation; see src/test/resources/benchmarks/baseline.txt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EventBenchmark {
+
+    @Param({"EVENT", "ANNOTATION", "ASSESSMENT", "ASSESSMENT_ITEM", "ASSIGNABLE", "FORUM", "GRADE", "MEDIA",
+        "MESSAGE", "NAVIGATION", "SESSION", "THREAD", "TOOL_USE", "VIEW"})
+    public EventFixture type;
+
+    private CaliperEvent event;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setup() {
+        event = type.build(0);
+        writer = JxnObjectMappers.writer();
+    }
+
+    @Benchmark
+    public CaliperEvent build() {
+        return type.build(1);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerialize() throws Exception {
+        return writer.writeValueAsBytes(type.build(1));
+    }
+}
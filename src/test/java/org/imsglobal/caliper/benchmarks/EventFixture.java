@@ -0,0 +1,466 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import org.imsglobal.caliper.actions.Action;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.entities.agent.CourseSection;
+import org.imsglobal.caliper.entities.agent.Membership;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.imsglobal.caliper.entities.agent.Role;
+import org.imsglobal.caliper.entities.agent.SoftwareApplication;
+import org.imsglobal.caliper.entities.agent.Status;
+import org.imsglobal.caliper.entities.annotation.BookmarkAnnotation;
+import org.imsglobal.caliper.entities.outcome.Score;
+import org.imsglobal.caliper.entities.resource.Assessment;
+import org.imsglobal.caliper.entities.resource.AssessmentItem;
+import org.imsglobal.caliper.entities.resource.Attempt;
+import org.imsglobal.caliper.entities.resource.Document;
+import org.imsglobal.caliper.entities.resource.Forum;
+import org.imsglobal.caliper.entities.resource.MediaLocation;
+import org.imsglobal.caliper.entities.resource.Message;
+import org.imsglobal.caliper.entities.resource.Page;
+import org.imsglobal.caliper.entities.resource.Thread;
+import org.imsglobal.caliper.entities.resource.VideoObject;
+import org.imsglobal.caliper.entities.resource.WebPage;
+import org.imsglobal.caliper.entities.session.Session;
+import org.imsglobal.caliper.events.AnnotationEvent;
+import org.imsglobal.caliper.events.AssessmentItemEvent;
+import org.imsglobal.caliper.events.AssignableEvent;
+import org.imsglobal.caliper.events.CaliperEvent;
+import org.imsglobal.caliper.events.Event;
+import org.imsglobal.caliper.events.ForumEvent;
+import org.imsglobal.caliper.events.GradeEvent;
+import org.imsglobal.caliper.events.MediaEvent;
+import org.imsglobal.caliper.events.MessageEvent;
+import org.imsglobal.caliper.events.NavigationEvent;
+import org.imsglobal.caliper.events.SessionEvent;
+import org.imsglobal.caliper.events.ThreadEvent;
+import org.imsglobal.caliper.events.ToolUseEvent;
+import org.imsglobal.caliper.events.ViewEvent;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import static org.imsglobal.caliper.benchmarks.BenchmarkFixtures.BASE_IRI;
+
+/**
+ * One representative event per Caliper event class, modelled on the fixture tests under
+ * src/test/java/org/imsglobal/caliper/events.  Each build constructs the whole entity graph, so the
+ * builder and validator cost is included.
+ */
+public enum EventFixture {
+    EVENT {
+        @Override
+        public CaliperEvent build(int i) {
+            return Event.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.CREATED)
+                .object(Document.builder()
+                    .id(SECTION_IRI.concat("/resources/123"))
+                    .name("Course Syllabus")
+                    .dateCreated(time(7, 15))
+                    .version("1")
+                    .build())
+                .eventTime(time(10, 15))
+                .build();
+        }
+    },
+    ANNOTATION {
+        @Override
+        public CaliperEvent build(int i) {
+            Page page = Page.builder()
+                .id(BASE_IRI.concat("/#/texts/imscaliperimplguide/cfi/6/10!/4/2/2/2@0:0"))
+                .name("IMS Caliper Implementation Guide, pg 5")
+                .version("1.1")
+                .build();
+            return AnnotationEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.BOOKMARKED)
+                .object(page)
+                .generated(BookmarkAnnotation.builder()
+                    .id(BASE_IRI.concat("/users/554433/texts/imscaliperimplguide/bookmarks/1"))
+                    .annotated(Page.builder().id(page.getId()).coercedToId(true).build())
+                    .annotator(actorToId())
+                    .bookmarkNotes("Caliper profiles model discrete learning activities.")
+                    .dateCreated(time(10, 15))
+                    .build())
+                .eventTime(time(10, 15))
+                .edApp(edApp())
+                .group(group())
+                .membership(membership())
+                .session(session())
+                .build();
+        }
+    },
+    ASSESSMENT {
+        @Override
+        public CaliperEvent build(int i) {
+            return BenchmarkFixtures.assessmentEvent(i);
+        }
+    },
+    ASSESSMENT_ITEM {
+        @Override
+        public CaliperEvent build(int i) {
+            AssessmentItem item = AssessmentItem.builder()
+                .id(SECTION_IRI.concat("/assess/1/items/3"))
+                .name("Assessment Item 3")
+                .isPartOf(Assessment.builder().id(SECTION_IRI.concat("/assess/1")).build())
+                .dateToStartOn(new DateTime(2016, 11, 14, 5, 0, 0, 0, DateTimeZone.UTC))
+                .dateToSubmit(new DateTime(2016, 11, 18, 11, 59, 59, 0, DateTimeZone.UTC))
+                .maxAttempts(2)
+                .maxSubmits(2)
+                .maxScore(1)
+                .isTimeDependent(false)
+                .version("1.0")
+                .build();
+            return AssessmentItemEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.STARTED)
+                .object(item)
+                .generated(Attempt.builder()
+                    .id(SECTION_IRI.concat("/assess/1/items/3/users/554433/attempts/1"))
+                    .assignable(AssessmentItem.builder().id(item.getId()).coercedToId(true).build())
+                    .assignee(actorToId())
+                    .isPartOf(Attempt.builder().id(SECTION_IRI.concat("/assess/1/users/554433/attempts/1")).build())
+                    .count(1)
+                    .dateCreated(time(10, 15))
+                    .startedAtTime(time(10, 15))
+                    .build())
+                .eventTime(time(10, 15))
+                .edApp(edApp())
+                .group(group())
+                .membership(membership())
+                .session(session())
+                .build();
+        }
+    },
+    ASSIGNABLE {
+        @Override
+        public CaliperEvent build(int i) {
+            return AssignableEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.ACTIVATED)
+                .object(assessment())
+                .eventTime(time(10, 15))
+                .edApp(edApp())
+                .group(group())
+                .membership(membership())
+                .session(session())
+                .build();
+        }
+    },
+    FORUM {
+        @Override
+        public CaliperEvent build(int i) {
+            return ForumEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.SUBSCRIBED)
+                .object(Forum.builder()
+                    .id(SECTION_IRI.concat("/forums/1"))
+                    .name("Caliper Forum")
+                    .isPartOf(CourseSection.builder().id(SECTION_IRI).build())
+                    .dateCreated(time(11, 0))
+                    .build())
+                .eventTime(time(10, 16))
+                .edApp(edApp())
+                .group(group())
+                .membership(membership())
+                .session(session())
+                .build();
+        }
+    },
+    GRADE {
+        @Override
+        public CaliperEvent build(int i) {
+            SoftwareApplication autograder = SoftwareApplication.builder()
+                .id(BASE_IRI.concat("/autograder")).version("v2").build();
+            Attempt attempt = Attempt.builder()
+                .id(SECTION_IRI.concat("/assess/1/users/554433/attempts/1"))
+                .assignable(Assessment.builder().id(SECTION_IRI.concat("/assess/1")).coercedToId(true).build())
+                .assignee(actorToId())
+                .count(1)
+                .dateCreated(time(10, 5))
+                .startedAtTime(time(10, 5))
+                .endedAtTime(time(10, 55))
+                .duration("PT50M12S")
+                .build();
+            return GradeEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(autograder)
+                .action(Action.GRADED)
+                .object(attempt)
+                .generated(Score.builder()
+                    .id(attempt.getId().concat("/scores/1"))
+                    .attempt(Attempt.builder().id(attempt.getId()).coercedToId(true).build())
+                    .maxScore(15)
+                    .scoreGiven(10)
+                    .scoredBy(SoftwareApplication.builder().id(autograder.getId()).coercedToId(true).build())
+                    .comment("auto-graded exam")
+                    .dateCreated(time(10, 56))
+                    .build())
+                .eventTime(time(10, 57))
+                .edApp(edApp())
+                .group(group())
+                .build();
+        }
+    },
+    MEDIA {
+        @Override
+        public CaliperEvent build(int i) {
+            return MediaEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.PAUSED)
+                .object(VideoObject.builder()
+                    .id(BASE_IRI.concat("/UQVK-dsU7-Y"))
+                    .name("Information and Welcome")
+                    .mediaType("video/ogg")
+                    .duration("PT20M20S")
+                    .build())
+                .target(MediaLocation.builder()
+                    .id(BASE_IRI.concat("/UQVK-dsU7-Y?t=321"))
+                    .currentTime("PT05M21S")
+                    .build())
+                .eventTime(time(10, 15))
+                .edApp(edApp())
+                .group(group())
+                .membership(membership())
+                .session(session())
+                .build();
+        }
+    },
+    MESSAGE {
+        @Override
+        public CaliperEvent build(int i) {
+            Thread thread = Thread.builder()
+                .id(SECTION_IRI.concat("/forums/2/topics/1"))
+                .name("Caliper Adoption")
+                .isPartOf(Forum.builder().id(SECTION_IRI.concat("/forums/2")).name("Caliper Forum").build())
+                .build();
+            return MessageEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.POSTED)
+                .object(Message.builder()
+                    .id(SECTION_IRI.concat("/forums/2/topics/1/messages/2"))
+                    .creator(actorToId())
+                    .body("Are the Caliper Sensor reference implementations production-ready?")
+                    .isPartOf(thread)
+                    .dateCreated(time(10, 15))
+                    .build())
+                .eventTime(time(10, 15))
+                .edApp(edApp())
+                .group(group())
+                .membership(membership())
+                .session(session())
+                .build();
+        }
+    },
+    NAVIGATION {
+        @Override
+        public CaliperEvent build(int i) {
+            return NavigationEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.NAVIGATED_TO)
+                .object(WebPage.builder()
+                    .id(SECTION_IRI.concat("/pages/2"))
+                    .name("Learning Analytics Specifications")
+                    .description("Overview of Learning Analytics Specifications with particular emphasis on IMS Caliper.")
+                    .dateCreated(time(9, 0))
+                    .build())
+                .referrer(WebPage.builder().id(SECTION_IRI.concat("/pages/1")).build())
+                .eventTime(time(10, 15))
+                .edApp(SoftwareApplication.builder().id(BASE_IRI).coercedToId(true).build())
+                .group(group())
+                .membership(membership())
+                .session(session())
+                .build();
+        }
+    },
+    SESSION {
+        @Override
+        public CaliperEvent build(int i) {
+            SoftwareApplication app = SoftwareApplication.builder().id(BASE_IRI).version("v2").build();
+            return SessionEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.LOGGED_IN)
+                .object(app)
+                .eventTime(time(10, 15))
+                .edApp(SoftwareApplication.builder().id(app.getId()).coercedToId(true).build())
+                .session(Session.builder()
+                    .id(BASE_IRI.concat("/sessions/1f6442a482de72ea6ad134943812bff564a76259"))
+                    .user(actorToId())
+                    .dateCreated(time(10, 0))
+                    .startedAtTime(time(10, 0))
+                    .build())
+                .build();
+        }
+    },
+    THREAD {
+        @Override
+        public CaliperEvent build(int i) {
+            return ThreadEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.MARKED_AS_READ)
+                .object(Thread.builder()
+                    .id(SECTION_IRI.concat("/forums/1/topics/1"))
+                    .name("Caliper Information Model")
+                    .isPartOf(Forum.builder()
+                        .id(SECTION_IRI.concat("/forums/1"))
+                        .name("Caliper Forum")
+                        .dateCreated(time(10, 15))
+                        .build())
+                    .dateCreated(time(10, 16))
+                    .build())
+                .eventTime(time(10, 16))
+                .edApp(edApp())
+                .group(group())
+                .membership(membership())
+                .session(session())
+                .build();
+        }
+    },
+    TOOL_USE {
+        @Override
+        public CaliperEvent build(int i) {
+            return ToolUseEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.USED)
+                .object(SoftwareApplication.builder().id(BASE_IRI).build())
+                .eventTime(time(10, 15))
+                .edApp(SoftwareApplication.builder().id(BASE_IRI).coercedToId(true).build())
+                .group(group())
+                .membership(membership())
+                .session(session())
+                .build();
+        }
+    },
+    VIEW {
+        @Override
+        public CaliperEvent build(int i) {
+            return ViewEvent.builder()
+                .context(JsonldStringContext.getDefault())
+                .id(id(i))
+                .actor(actor())
+                .action(Action.VIEWED)
+                .object(Document.builder()
+                    .id(BASE_IRI.concat("/etexts/201.epub"))
+                    .name("IMS Caliper Implementation Guide")
+                    .version("1.1")
+                    .dateCreated(new DateTime(2016, 8, 1, 6, 0, 0, 0, DateTimeZone.UTC))
+                    .datePublished(new DateTime(2016, 10, 1, 6, 0, 0, 0, DateTimeZone.UTC))
+                    .build())
+                .eventTime(time(10, 15))
+                .edApp(edApp())
+                .group(group())
+                .membership(membership())
+                .session(session())
+                .build();
+        }
+    };
+
+    private static final String SECTION_IRI = BASE_IRI.concat("/terms/201601/courses/7/sections/1");
+
+    /**
+     * Build the event.
+     * @param i event index used to vary the identifier
+     * @return event
+     */
+    public abstract CaliperEvent build(int i);
+
+    private static String id(int i) {
+        return "urn:uuid:c51570e4-f8ed-4c18-bb3a-" + String.format("%012d", i);
+    }
+
+    private static DateTime time(int hour, int minute) {
+        return new DateTime(2016, 11, 15, hour, minute, 0, 0, DateTimeZone.UTC);
+    }
+
+    private static Person actor() {
+        return Person.builder().id(BASE_IRI.concat("/users/554433")).build();
+    }
+
+    private static Person actorToId() {
+        return Person.builder().id(BASE_IRI.concat("/users/554433")).coercedToId(true).build();
+    }
+
+    private static SoftwareApplication edApp() {
+        return SoftwareApplication.builder().id(BASE_IRI).version("v2").build();
+    }
+
+    private static Assessment assessment() {
+        return Assessment.builder()
+            .id(SECTION_IRI.concat("/assess/1"))
+            .name("Quiz One")
+            .dateToStartOn(new DateTime(2016, 11, 14, 5, 0, 0, 0, DateTimeZone.UTC))
+            .dateToSubmit(new DateTime(2016, 11, 18, 11, 59, 59, 0, DateTimeZone.UTC))
+            .maxAttempts(2)
+            .maxSubmits(2)
+            .maxScore(25)
+            .version("1.0")
+            .build();
+    }
+
+    private static CourseSection group() {
+        return CourseSection.builder()
+            .id(SECTION_IRI)
+            .courseNumber("CPS 435-01")
+            .academicSession("Fall 2016")
+            .build();
+    }
+
+    private static Membership membership() {
+        return Membership.builder()
+            .id(SECTION_IRI.concat("/rosters/1"))
+            .member(actorToId())
+            .organization(CourseSection.builder().id(SECTION_IRI).coercedToId(true).build())
+            .status(Status.ACTIVE)
+            .role(Role.LEARNER)
+            .dateCreated(new DateTime(2016, 8, 1, 6, 0, 0, 0, DateTimeZone.UTC))
+            .build();
+    }
+
+    private static Session session() {
+        return Session.builder()
+            .id(BASE_IRI.concat("/sessions/1f6442a482de72ea6ad134943812bff564a76259"))
+            .startedAtTime(time(10, 0))
+            .build();
+    }
+}
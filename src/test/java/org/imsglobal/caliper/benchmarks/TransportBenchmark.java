@@ -0,0 +1,100 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.benchmarks;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.clients.H2StubServer;
+import org.imsglobal.caliper.clients.Http2Client;
+import org.imsglobal.caliper.clients.HttpClient;
+import org.imsglobal.caliper.clients.HttpClientOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envelope POST throughput with 32 concurrent senders against a local stub endpoint: the pooled
+ * HTTP/1.1 HttpClient, limited to a few connections, versus the HTTP/2 Http2Client multiplexing
+ * all senders over a single h2c connection.  The stub's response latency stands in for a remote
+ * Caliper store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class TransportBenchmark {
+
+    @Param({"0", "5"})
+    public long latency;
+
+    @Param({"4"})
+    public int connections;
+
+    private H2StubServer http1Server;
+    private H2StubServer http2Server;
+    private HttpClient http1Client;
+    private Http2Client http2Client;
+    private Envelope envelope;
+
+    @Setup
+    public void setup() throws Exception {
+        http1Server = new H2StubServer(latency, false);
+        http2Server = new H2StubServer(latency, true);
+
+        http1Client = HttpClient.create("http1", HttpClientOptions.builder()
+            .apiKey("key")
+            .host(http1Server.getUrl())
+            .maxConnections(connections)
+            .maxConnectionsPerRoute(connections)
+            .build());
+        http2Client = Http2Client.create("http2", HttpClientOptions.builder()
+            .apiKey("key")
+            .host(http2Server.getUrl())
+            .maxConcurrentStreams(100)
+            .build());
+
+        envelope = BenchmarkFixtures.envelope(10);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        http1Client.close();
+        http2Client.close();
+        http1Server.close();
+        http2Server.close();
+    }
+
+    @Benchmark
+    public void http11Pooled() {
+        http1Client.send(envelope);
+    }
+
+    @Benchmark
+    public void http2Multiplexed() {
+        http2Client.send(envelope);
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class CompressingEntityTest {
+    private static final String JSON = "{\"data\":[" + Strings.repeat(
+        "{\"@context\":\"http://purl.imsglobal.org/ctx/caliper/v1p1\",\"type\":\"NavigationEvent\"},", 50) + "{}]}";
+
+    @Test
+    public void gzipRoundTrip() throws Exception {
+        Statistics statistics = new Statistics();
+        byte[] body = write(Compression.GZIP, statistics);
+
+        assertEquals(JSON, read(new GZIPInputStream(new ByteArrayInputStream(body))));
+        assertEquals(1, statistics.getCompressionRatio().getCount());
+        assertTrue(statistics.getCompressionRatio().getLast() < 0.5);
+    }
+
+    @Test
+    public void deflateRoundTrip() throws Exception {
+        Statistics statistics = new Statistics();
+        byte[] body = write(Compression.DEFLATE, statistics);
+
+        assertEquals(JSON, read(new InflaterInputStream(new ByteArrayInputStream(body))));
+        assertEquals(1, statistics.getCompressionTime().getCount());
+    }
+
+    @Test
+    public void getContentReturnsCompressedBody() throws Exception {
+        Statistics statistics = new Statistics();
+        CompressingEntity entity = new CompressingEntity(
+            new StringEntity(JSON, ContentType.APPLICATION_JSON), Compression.GZIP, statistics);
+
+        assertEquals(JSON, read(new GZIPInputStream(entity.getContent())));
+        assertEquals(0, statistics.getCompressionRatio().getCount());
+    }
+
+    @Test
+    public void advertisesContentEncoding() {
+        CompressingEntity entity = new CompressingEntity(
+            new StringEntity(JSON, ContentType.APPLICATION_JSON), Compression.GZIP, null);
+        assertEquals("gzip", entity.getContentEncoding().getValue());
+        assertEquals(-1, entity.getContentLength());
+    }
+
+    private byte[] write(Compression compression, Statistics statistics) throws Exception {
+        CompressingEntity entity = new CompressingEntity(
+            new StringEntity(JSON, ContentType.APPLICATION_JSON), compression, statistics);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private String read(InputStream in) throws Exception {
+        return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+    }
+}
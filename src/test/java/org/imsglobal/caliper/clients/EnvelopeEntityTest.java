@@ -0,0 +1,67 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.benchmarks.BenchmarkFixtures;
+import org.imsglobal.caliper.databind.JxnObjectMappers;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class EnvelopeEntityTest {
+
+    @Test
+    public void streamsSameJsonAsStringSerialization() throws Exception {
+        Envelope envelope = BenchmarkFixtures.envelope(3);
+        EnvelopeEntity entity = new EnvelopeEntity(JxnObjectMappers.writer(), envelope);
+        String expected = JxnObjectMappers.writer().writeValueAsString(envelope);
+
+        CloseTrackingOutputStream out = new CloseTrackingOutputStream();
+        entity.writeTo(out);
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertFalse("Connection stream must be left open", out.closed);
+
+        // Repeatable
+        out.reset();
+        entity.writeTo(out);
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        assertTrue(entity.isChunked());
+        assertEquals(-1, entity.getContentLength());
+    }
+
+    private static class CloseTrackingOutputStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
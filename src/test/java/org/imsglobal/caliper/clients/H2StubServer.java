@@ -0,0 +1,152 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local cleartext endpoint that accepts Envelope POSTs, discards the body and answers 200 after a
+ * configurable delay.  Speaks either HTTP/2 with prior knowledge (h2c) or HTTP/1.1.
+ */
+public class H2StubServer implements Closeable {
+    private final HttpAsyncServer server;
+    private final ScheduledExecutorService timer;
+    private final int port;
+    private final AtomicInteger h2Requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /**
+     * Start an h2c server on an ephemeral loopback port.
+     * @param latencyMillis delay before each response
+     * @throws Exception
+     */
+    public H2StubServer(long latencyMillis) throws Exception {
+        this(latencyMillis, true);
+    }
+
+    /**
+     * Start the server on an ephemeral loopback port.
+     * @param latencyMillis delay before each response
+     * @param http2 true for h2c, false for HTTP/1.1
+     * @throws Exception
+     */
+    public H2StubServer(final long latencyMillis, boolean http2) throws Exception {
+        this.timer = Executors.newSingleThreadScheduledExecutor();
+        this.server = H2ServerBootstrap.bootstrap()
+            .setVersionPolicy(http2 ? HttpVersionPolicy.FORCE_HTTP_2 : HttpVersionPolicy.FORCE_HTTP_1)
+            .setH2Config(H2Config.custom().setMaxConcurrentStreams(1000).build())
+            .register("*", new AsyncServerRequestHandler<Message<HttpRequest, Void>>() {
+                @Override
+                public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(
+                        HttpRequest request, EntityDetails entityDetails, HttpContext context) {
+                    return new BasicRequestConsumer<>(
+                        (entityDetails != null) ? new DiscardingEntityConsumer<Void>() : null);
+                }
+
+                @Override
+                public void handle(Message<HttpRequest, Void> message, final ResponseTrigger trigger,
+                                   final HttpContext context) throws HttpException, IOException {
+                    if (HttpVersion.HTTP_2.equals(context.getProtocolVersion())) {
+                        h2Requests.incrementAndGet();
+                    }
+                    int current = inFlight.incrementAndGet();
+                    while (current > maxInFlight.get()) {
+                        maxInFlight.compareAndSet(maxInFlight.get(), current);
+                    }
+
+                    Runnable respond = new Runnable() {
+                        @Override
+                        public void run() {
+                            inFlight.decrementAndGet();
+                            try {
+                                trigger.submitResponse(AsyncResponseBuilder.create(200)
+                                    .setEntity(new byte[0], ContentType.APPLICATION_JSON).build(), context);
+                            } catch (HttpException | IOException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }
+                    };
+                    if (latencyMillis > 0) {
+                        timer.schedule(respond, latencyMillis, TimeUnit.MILLISECONDS);
+                    } else {
+                        respond.run();
+                    }
+                }
+            })
+            .create();
+        this.server.start();
+
+        ListenerEndpoint endpoint = server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP).get();
+        this.port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+    }
+
+    /**
+     * @return endpoint URL
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + port + "/";
+    }
+
+    /**
+     * @return number of requests received over HTTP/2
+     */
+    public int getH2Requests() {
+        return h2Requests.get();
+    }
+
+    /**
+     * @return highest number of requests awaiting a response at the same time
+     */
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        server.close(CloseMode.IMMEDIATE);
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Config;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class Http2ClientTest {
+
+    @Test
+    public void multiplexesConcurrentPosts() throws Exception {
+        try (H2StubServer server = new H2StubServer(50);
+             Http2Client client = Http2Client.create("h2", options(server, 16, Compression.NONE))) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(client.sendAsync(envelope()));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+            assertEquals(64, server.getH2Requests());
+            assertEquals(64, client.getStatistics().getSuccessful().getCount());
+            assertTrue(server.getMaxInFlight() > 1);
+            assertTrue(server.getMaxInFlight() <= 16);
+
+            assertEquals(64, client.getStatistics().getRoundTrip().getCount());
+            assertEquals(64, client.getStatistics().getSendLatency().getCount());
+            assertEquals(64, client.getStatistics().getSerializedBytes().getCount());
+            assertTrue(client.getStatistics().getRoundTrip().getP50() >= 50000);
+        }
+    }
+
+    @Test
+    public void sendsCompressedBody() throws Exception {
+        try (H2StubServer server = new H2StubServer(0);
+             Http2Client client = Http2Client.create("h2", HttpClientOptions.builder()
+                 .apiKey("key")
+                 .host(server.getUrl())
+                 .compression(Compression.GZIP)
+                 .compressionThreshold(1)
+                 .build())) {
+            client.send(envelope());
+            assertEquals(1, client.getStatistics().getSuccessful().getCount());
+        }
+    }
+
+    private static HttpClientOptions options(H2StubServer server, int streams, Compression compression) {
+        return HttpClientOptions.builder()
+            .apiKey("key")
+            .host(server.getUrl())
+            .maxConcurrentStreams(streams)
+            .compression(compression)
+            .build();
+    }
+
+    private static Envelope envelope() {
+        return new Envelope("sensor", DateTime.now(), Config.DATA_VERSION, new ArrayList<CaliperSendable>());
+    }
+}
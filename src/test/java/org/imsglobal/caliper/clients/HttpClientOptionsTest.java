@@ -0,0 +1,51 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class HttpClientOptionsTest {
+
+    @Test
+    public void keepsShortTimeouts() {
+        HttpClientOptions options = HttpClientOptions.builder()
+            .apiKey("key")
+            .connectionTimeout(2000)
+            .connectionRequestTimeout(2000)
+            .socketTimeout(2000)
+            .build();
+
+        assertEquals(2000, options.getConnTimeout());
+        assertEquals(2000, options.getConnRequestTimeout());
+        assertEquals(2000, options.getSocketTimeout());
+    }
+
+    @Test
+    public void defaultsUnsetTimeouts() {
+        HttpClientOptions options = HttpClientOptions.builder().apiKey("key").build();
+
+        assertEquals(HttpClientOptions.CONNECTION_TIMEOUT, options.getConnTimeout());
+        assertEquals(HttpClientOptions.CONNECTION_REQUEST_TIMEOUT, options.getConnRequestTimeout());
+        assertEquals(HttpClientOptions.SOCKET_TIMEOUT, options.getSocketTimeout());
+    }
+}
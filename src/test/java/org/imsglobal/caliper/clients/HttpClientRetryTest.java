@@ -0,0 +1,234 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.spool.Spool;
+import org.imsglobal.caliper.spool.SpoolOptions;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class HttpClientRetryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private final ConcurrentLinkedQueue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try (InputStream in = exchange.getRequestBody()) {
+                    while (in.read() >= 0) {
+                        // drain
+                    }
+                }
+                requests.incrementAndGet();
+                Integer status = statuses.poll();
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                exchange.sendResponseHeaders(status != null ? status : 200, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void retriesTransientStatus() throws IOException {
+        statuses.add(503);
+        statuses.add(429);
+
+        try (HttpClient client = HttpClient.create("retry", options(RetryPolicy.builder().maxAttempts(3).build(), 0))) {
+            client.send(envelope());
+
+            assertEquals(3, requests.get());
+            assertEquals(2, client.getStatistics().getRetries().getCount());
+            assertEquals(1, client.getStatistics().getSuccessful().getCount());
+        }
+    }
+
+    @Test
+    public void doesNotRetryClientError() throws IOException {
+        statuses.add(400);
+
+        try (HttpClient client = HttpClient.create("retry", options(RetryPolicy.builder().build(), 0))) {
+            try {
+                client.send(envelope());
+                fail("expected failure");
+            } catch (RuntimeException expected) {
+                // expected
+            }
+            assertEquals(1, requests.get());
+            assertEquals(0, client.getStatistics().getRetries().getCount());
+        }
+    }
+
+    @Test
+    public void openBreakerFailsFast() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            statuses.add(503);
+        }
+
+        try (HttpClient client = HttpClient.create("breaker", options(null, 2))) {
+            for (int i = 0; i < 4; i++) {
+                try {
+                    client.send(envelope());
+                    fail("expected failure");
+                } catch (RuntimeException expected) {
+                    // expected
+                }
+            }
+            assertEquals(2, requests.get());
+            assertEquals(1, client.getStatistics().getBreakerOpened().getCount());
+            assertEquals(2, client.getStatistics().getBreakerRejected().getCount());
+        }
+    }
+
+    @Test
+    public void openBreakerSpoolsEnvelopeBeingSent() throws IOException {
+        statuses.add(503);
+
+        File dir = folder.newFolder();
+        SpoolOptions spoolOptions = SpoolOptions.builder().directory(dir).replayInterval(60000).build();
+        HttpClientOptions options = HttpClientOptions.builder()
+            .apiKey("key")
+            .host("http://127.0.0.1:" + server.getAddress().getPort() + "/")
+            .circuitBreakerThreshold(1)
+            .circuitBreakerTimeout(60000)
+            .spool(spoolOptions)
+            .build();
+
+        try (HttpClient client = HttpClient.create("breaker", options)) {
+            client.send(envelope("https://example.edu/sensors/1"));
+            client.send(envelope("https://example.edu/sensors/2"));
+
+            assertEquals(1, requests.get());
+            assertEquals(1, client.getStatistics().getBreakerRejected().getCount());
+            assertEquals(2, client.getStatistics().getSpooled().getCount());
+        }
+
+        final List<byte[]> payloads = new ArrayList<>();
+        try (Spool spool = Spool.open(spoolOptions)) {
+            spool.replay(new Spool.Sink() {
+                @Override
+                public boolean deliver(byte[] payload) {
+                    payloads.add(payload);
+                    return true;
+                }
+            });
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(2, payloads.size());
+        JsonNode first = mapper.readTree(payloads.get(0));
+        JsonNode second = mapper.readTree(payloads.get(1));
+        assertEquals("https://example.edu/sensors/1", first.get("sensor").asText());
+        assertEquals("https://example.edu/sensors/2", second.get("sensor").asText());
+    }
+
+    @Test
+    public void failedSerializationDoesNotStrandTrialRequest() throws Exception {
+        statuses.add(503);
+
+        HttpClientOptions options = HttpClientOptions.builder()
+            .apiKey("key")
+            .host("http://127.0.0.1:" + server.getAddress().getPort() + "/")
+            .circuitBreakerThreshold(1)
+            .circuitBreakerTimeout(50)
+            .build();
+
+        try (HttpClient client = HttpClient.create("breaker", options)) {
+            try {
+                client.send(envelope());
+                fail("expected failure");
+            } catch (RuntimeException expected) {
+                // expected
+            }
+            assertEquals(1, client.getStatistics().getBreakerOpened().getCount());
+            Thread.sleep(100);
+
+            // The breaker's timeout has elapsed; an Envelope that cannot be serialized must not use up the trial.
+            List<CaliperSendable> data = new ArrayList<>();
+            data.add(new Unserializable());
+            client.send(new Envelope("https://example.edu/sensors/1", DateTime.now(), Config.DATA_VERSION, data));
+
+            client.send(envelope());
+            assertEquals(2, requests.get());
+            assertEquals(1, client.getStatistics().getSuccessful().getCount());
+            assertEquals(1, client.getStatistics().getBreakerClosed().getCount());
+        }
+    }
+
+    private HttpClientOptions options(RetryPolicy retryPolicy, int circuitBreakerThreshold) {
+        return HttpClientOptions.builder()
+            .apiKey("key")
+            .host("http://127.0.0.1:" + server.getAddress().getPort() + "/")
+            .retryPolicy(retryPolicy)
+            .circuitBreakerThreshold(circuitBreakerThreshold)
+            .build();
+    }
+
+    private static Envelope envelope() {
+        return envelope("https://example.edu/sensors/1");
+    }
+
+    private static Envelope envelope(String sensorId) {
+        return new Envelope(sensorId, DateTime.now(), Config.DATA_VERSION, new ArrayList<>());
+    }
+
+    public static class Unserializable implements CaliperSendable {
+        public String getId() {
+            throw new IllegalStateException("not serializable");
+        }
+    }
+}
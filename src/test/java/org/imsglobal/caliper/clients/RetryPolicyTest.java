@@ -0,0 +1,86 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import org.apache.http.client.utils.DateUtils;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class RetryPolicyTest {
+
+    @Test
+    public void backoffGrowsWithJitterUpToMax() {
+        RetryPolicy policy = RetryPolicy.builder().maxAttempts(10).initialBackoff(100).maxBackoff(1000).build();
+
+        for (int i = 0; i < 100; i++) {
+            long first = policy.delay(1, null);
+            assertTrue(first >= 50 && first <= 100);
+
+            long third = policy.delay(3, null);
+            assertTrue(third >= 200 && third <= 400);
+
+            long capped = policy.delay(8, null);
+            assertTrue(capped >= 500 && capped <= 1000);
+        }
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() {
+        RetryPolicy policy = RetryPolicy.builder().maxAttempts(3).build();
+
+        assertTrue(policy.delay(2, null) >= 0);
+        assertEquals(-1, policy.delay(3, null));
+    }
+
+    @Test
+    public void honorsRetryAfter() {
+        RetryPolicy policy = RetryPolicy.builder().maxBackoff(5000).build();
+
+        assertEquals(2000, policy.delay(1, "2"));
+        assertEquals(-1, policy.delay(1, "60"));
+
+        long now = System.currentTimeMillis();
+        String date = DateUtils.formatDate(new Date(now + 10000));
+        long delay = RetryPolicy.parseRetryAfter(date, now);
+        assertTrue(delay > 8000 && delay <= 10000);
+
+        assertEquals(-1, RetryPolicy.parseRetryAfter("soon", now));
+        assertEquals(-1, RetryPolicy.parseRetryAfter(null, now));
+    }
+
+    @Test
+    public void retryableStatuses() {
+        RetryPolicy defaults = RetryPolicy.builder().build();
+        assertTrue(defaults.isRetryable(503));
+        assertTrue(defaults.isRetryable(429));
+        assertFalse(defaults.isRetryable(400));
+        assertFalse(defaults.isRetryable(501));
+
+        RetryPolicy custom = RetryPolicy.builder().retryableStatuses(409).build();
+        assertTrue(custom.isRetryable(409));
+        assertFalse(custom.isRetryable(503));
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.clients;
+
+import com.google.common.io.ByteStreams;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.RecordingClient;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.databind.JxnObjectMappers;
+import org.imsglobal.caliper.statistics.Statistics;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class SerializedEnvelopeTest {
+    private static final SerializationProfile JSONLD = new SerializationProfile(DataFormat.CALIPER_JSONLD, Compression.NONE);
+    private static final SerializationProfile JSONLD_GZIP = new SerializationProfile(DataFormat.CALIPER_JSONLD, Compression.GZIP);
+
+    @Test
+    public void sensorSerializesOncePerSharedProfile() {
+        ProfileClient a = new ProfileClient("a", JSONLD);
+        ProfileClient b = new ProfileClient("b", JSONLD);
+        ProfileClient c = new ProfileClient("c", JSONLD_GZIP);
+        RecordingClient d = new RecordingClient("d");
+
+        Sensor sensor = Sensor.create("sensor");
+        sensor.registerClient(a);
+        sensor.registerClient(b);
+        sensor.registerClient(c);
+        sensor.registerClient(d);
+
+        Envelope envelope = envelope();
+        sensor.send(envelope);
+
+        assertEquals(1, a.serialized.size());
+        assertSame(a.serialized.get(0), b.serialized.get(0));
+        assertSame(envelope, a.serialized.get(0).getEnvelope());
+
+        // Profiles used by a single Client are left to the Client.
+        assertEquals(0, c.serialized.size());
+        assertEquals(1, c.getEnvelopes().size());
+        assertEquals(1, d.getEnvelopes().size());
+    }
+
+    @Test
+    public void bytesMatchWriterOutput() throws IOException {
+        Envelope envelope = envelope();
+        SerializedEnvelope serialized = SerializedEnvelope.create(envelope, JSONLD_GZIP);
+
+        byte[] expected = JxnObjectMappers.writer().writeValueAsBytes(envelope);
+        assertArrayEquals(expected, serialized.bytes());
+        assertEquals(expected.length, serialized.getContentLength());
+
+        Statistics first = new Statistics();
+        Statistics second = new Statistics();
+        byte[] compressed = serialized.compressed(first);
+        assertSame(compressed, serialized.compressed(second));
+        assertEquals(1, first.getCompressionRatio().getCount());
+        assertEquals(1, first.getCompressionTime().getCount());
+        assertEquals(1, second.getCompressionRatio().getCount());
+        assertEquals(0, second.getCompressionTime().getCount());
+        assertArrayEquals(expected, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void profileEquality() throws IOException {
+        assertEquals(JSONLD, new SerializationProfile(DataFormat.CALIPER_JSONLD, null));
+        assertEquals(JSONLD.hashCode(), new SerializationProfile(DataFormat.CALIPER_JSONLD, Compression.NONE).hashCode());
+        assertNull(new RecordingClient("x").getSerializationProfile());
+
+        SerializationProfile deduplicating = new SerializationProfile(DataFormat.CALIPER_JSONLD, null, true, false);
+        assertNotEquals(JSONLD, deduplicating);
+        try (HttpClient client = HttpClient.create("x", HttpClientOptions.builder().apiKey("key")
+                .deduplicateEntities(true).build())) {
+            assertEquals(deduplicating, client.getSerializationProfile());
+        }
+
+        SerializationProfile hoisting = new SerializationProfile(DataFormat.CALIPER_JSONLD, null, false, true);
+        assertNotEquals(deduplicating, hoisting);
+        try (HttpClient client = HttpClient.create("x", HttpClientOptions.builder().apiKey("key")
+                .hoistContext(true).build())) {
+            assertEquals(hoisting, client.getSerializationProfile());
+        }
+    }
+
+    private static Envelope envelope() {
+        return new Envelope("sensor", DateTime.now(), Config.DATA_VERSION, new ArrayList<CaliperSendable>());
+    }
+
+    private static class ProfileClient extends RecordingClient {
+        private final SerializationProfile profile;
+        private final List<SerializedEnvelope> serialized = new CopyOnWriteArrayList<>();
+
+        ProfileClient(String id, SerializationProfile profile) {
+            super(id);
+            this.profile = profile;
+        }
+
+        @Override
+        public SerializationProfile getSerializationProfile() {
+            return profile;
+        }
+
+        @Override
+        public void send(SerializedEnvelope envelope) {
+            serialized.add(envelope);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.benchmarks.BenchmarkFixtures;
+import org.imsglobal.caliper.clients.HttpClientOptions;
+import org.imsglobal.caliper.config.DataFormat;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class JxnBinaryFormatTest {
+
+    @Test
+    public void binaryFormatsDecodeToTheJsonldDocument() throws Exception {
+        Envelope envelope = BenchmarkFixtures.mixedEnvelope(32);
+        byte[] json = JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD).writeValueAsBytes(envelope);
+        JsonNode expected = read(DataFormat.CALIPER_JSONLD, json);
+
+        for (DataFormat format : new DataFormat[] {DataFormat.CALIPER_SMILE, DataFormat.CALIPER_CBOR}) {
+            byte[] encoded = JxnObjectMappers.writer(format).writeValueAsBytes(envelope);
+            assertTrue(format.name(), encoded.length < json.length);
+            assertEquals(format.name(), expected, read(format, encoded));
+        }
+    }
+
+    @Test
+    public void envelopeOptionsApplyToBinaryFormats() throws Exception {
+        Envelope envelope = BenchmarkFixtures.envelope(20);
+        JsonNode expected = read(DataFormat.CALIPER_JSONLD,
+            JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD, true, true).writeValueAsBytes(envelope));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JxnObjectMappers.writer(DataFormat.CALIPER_SMILE, true, true).writeValue(out, envelope);
+        assertEquals(expected, read(DataFormat.CALIPER_SMILE, out.toByteArray()));
+    }
+
+    @Test
+    public void contentTypeFollowsDataFormat() {
+        assertEquals("application/json", HttpClientOptions.builder().apiKey("key").build().getContentType());
+        assertEquals("application/x-jackson-smile", HttpClientOptions.builder().apiKey("key")
+            .dataFormat(DataFormat.CALIPER_SMILE).build().getContentType());
+        assertEquals("application/cbor", HttpClientOptions.builder().apiKey("key")
+            .dataFormat(DataFormat.CALIPER_CBOR).build().getContentType());
+        assertEquals("application/vnd.example", HttpClientOptions.builder().apiKey("key")
+            .dataFormat(DataFormat.CALIPER_CBOR).contentType("application/vnd.example").build().getContentType());
+    }
+
+    private JsonNode read(DataFormat format, byte[] bytes) throws IOException {
+        return JxnObjectMappers.reader(format).readTree(new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.benchmarks.BenchmarkFixtures;
+import org.imsglobal.caliper.benchmarks.EventFixture;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.entities.CaliperEntity;
+import org.imsglobal.caliper.entities.EntityType;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.imsglobal.caliper.entities.resource.Assessment;
+import org.imsglobal.caliper.events.AssessmentEvent;
+import org.imsglobal.caliper.events.CaliperEvent;
+import org.imsglobal.caliper.events.EventType;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class JxnCaliperDeserializerTest {
+    private final ObjectReader reader = JxnObjectMappers.reader(DataFormat.CALIPER_JSONLD);
+    private final ObjectWriter writer = JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD);
+
+    @Test
+    public void roundTripsEvents() throws Exception {
+        for (EventFixture fixture : EventFixture.values()) {
+            String json = writer.writeValueAsString(fixture.build(1));
+            CaliperEvent event = reader.forType(CaliperEvent.class).readValue(json);
+            assertEquals(fixture.name(), json, writer.writeValueAsString(event));
+        }
+    }
+
+    @Test
+    public void roundTripsEnvelopes() throws Exception {
+        Envelope envelope = BenchmarkFixtures.mixedEnvelope(32);
+        for (DataFormat format : new DataFormat[] {
+            DataFormat.CALIPER_JSON, DataFormat.CALIPER_JSONLD, DataFormat.CALIPER_SMILE, DataFormat.CALIPER_CBOR }) {
+            for (int i = 0; i < 4; i++) {
+                ObjectWriter writer = JxnObjectMappers.writer(format, (i & 1) != 0, (i & 2) != 0);
+                byte[] bytes = writer.writeValueAsBytes(envelope);
+                Envelope read = JxnObjectMappers.reader(format).forType(Envelope.class)
+                    .readValue(new ByteArrayInputStream(bytes));
+                assertArrayEquals(format + " " + i, bytes, writer.writeValueAsBytes(read));
+            }
+        }
+    }
+
+    @Test
+    public void restoresExternalContext() throws Exception {
+        Envelope envelope = BenchmarkFixtures.mixedEnvelope(8);
+        byte[] bytes = JxnObjectMappers.writer(DataFormat.CALIPER_JSON).writeValueAsBytes(envelope);
+        Envelope read = JxnObjectMappers.reader(DataFormat.CALIPER_JSON).forType(Envelope.class)
+            .readValue(new ByteArrayInputStream(bytes));
+        assertArrayEquals(writer.writeValueAsBytes(envelope), writer.writeValueAsBytes(read));
+    }
+
+    @Test
+    public void resolvesReferences() throws Exception {
+        AssessmentEvent first = BenchmarkFixtures.assessmentEvent(1);
+        AssessmentEvent second = BenchmarkFixtures.assessmentEvent(2);
+        Envelope envelope = new Envelope(BenchmarkFixtures.SENSOR_ID, first.getEventTime(), Config.DATA_VERSION,
+            Arrays.<CaliperSendable>asList(first, second));
+        byte[] bytes = JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD, true, false).writeValueAsBytes(envelope);
+
+        Envelope stubs = reader.forType(Envelope.class).readValue(new ByteArrayInputStream(bytes));
+        CaliperEntity stub = (CaliperEntity) ((CaliperEvent) stubs.getData().get(1)).getObject();
+        assertTrue(((Assessment) stub).isCoercedToId());
+        assertEquals(first.getObject().getId(), stub.getId());
+
+        Envelope resolved = reader.forType(Envelope.class)
+            .withAttribute(JxnCaliperDeserializer.RESOLVE_REFERENCES, Boolean.TRUE)
+            .readValue(new ByteArrayInputStream(bytes));
+        CaliperEvent event = (CaliperEvent) resolved.getData().get(1);
+        assertSame(((CaliperEvent) resolved.getData().get(0)).getObject(), event.getObject());
+    }
+
+    @Test
+    public void readsDeclaredTypes() throws Exception {
+        Person person = reader.forType(Person.class).readValue("{\"id\":\"https://example.edu/users/1\"}");
+        assertEquals(EntityType.PERSON, person.getType());
+
+        Person reference = reader.forType(Person.class).readValue("\"https://example.edu/users/1\"");
+        assertTrue(reference.isCoercedToId());
+
+        CaliperEntity collection = reader.forType(CaliperEntity.class)
+            .readValue("{\"id\":\"https://example.edu/c/1\",\"type\":\"Collection\"}");
+        assertEquals(EntityType.COLLECTION, collection.getType());
+    }
+
+    @Test
+    public void readsTimestampsLikeJoda() throws Exception {
+        String time = "\"2016-08-01T06:00:00.000Z\"";
+        String json = "{\"id\":\"https://example.edu/users/1\",\"type\":\"Person\",\"dateCreated\":" + time + "}";
+        for (String zone : new String[] { "UTC", "America/New_York" }) {
+            ObjectReader zoned = reader.with(TimeZone.getTimeZone(zone));
+            Person person = zoned.forType(Person.class).readValue(json);
+            assertEquals(zone, zoned.forType(DateTime.class).readValue(time), person.getDateCreated());
+        }
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void rejectsUnknownTypes() throws Exception {
+        reader.forType(CaliperEntity.class).readValue("{\"id\":\"https://example.edu/x/1\",\"type\":\"Unknown\"}");
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void rejectsMismatchedTypes() throws Exception {
+        reader.forType(Person.class).readValue("{\"id\":\"https://example.edu/x/1\",\"type\":\"Document\"}");
+    }
+
+    @Test
+    public void mapsEveryTermToItsType() {
+        for (EntityType type : EntityType.values()) {
+            assertSame(type, JxnCaliperTypes.forTerm(type.value()).term);
+        }
+        for (EventType type : EventType.values()) {
+            assertSame(type, JxnCaliperTypes.forTerm(type.value()).term);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.benchmarks.BenchmarkFixtures;
+import org.imsglobal.caliper.benchmarks.EventFixture;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.entities.resource.Document;
+import org.imsglobal.caliper.events.CaliperEvent;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class JxnCaliperJsonTest {
+    private final ObjectMapper reader = new ObjectMapper();
+    private final ObjectWriter compact = JxnObjectMappers.writer(DataFormat.CALIPER_JSON);
+    private final ObjectWriter jsonld = JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD);
+
+    @Test
+    public void omitsDefaultContextEverywhere() throws Exception {
+        Envelope envelope = BenchmarkFixtures.mixedEnvelope(32);
+        String json = compact.writeValueAsString(envelope);
+        assertFalse(json.contains("@context"));
+        assertTrue(json.length() < jsonld.writeValueAsString(envelope).length());
+
+        CaliperEvent event = EventFixture.ASSESSMENT.build(1);
+        assertFalse(reader.readTree(compact.writeValueAsString(event)).has("@context"));
+
+        // Envelope-level options still apply; hoisting has nothing to hoist.
+        assertFalse(JxnObjectMappers.writer(DataFormat.CALIPER_JSON, true, true)
+            .writeValueAsString(envelope).contains("@context"));
+    }
+
+    @Test
+    public void roundTripsToJsonld() throws Exception {
+        Envelope envelope = BenchmarkFixtures.mixedEnvelope(32);
+        JsonNode converted = JxnCaliperJson.toJsonld(reader.readTree(compact.writeValueAsBytes(envelope)));
+        assertEquals(reader.readTree(jsonld.writeValueAsBytes(envelope)), converted);
+
+        CaliperEvent event = EventFixture.GRADE.build(1);
+        assertEquals(reader.readTree(jsonld.writeValueAsString(event)),
+            JxnCaliperJson.toJsonld(reader.readTree(compact.writeValueAsString(event))));
+    }
+
+    @Test
+    public void keepsOtherContexts() throws Exception {
+        List<CaliperSendable> data = new ArrayList<>();
+        data.add(Document.builder().id("https://example.edu/docs/1")
+            .context(JsonldStringContext.create("http://example.org/context")).build());
+        data.add(Document.builder().id("https://example.edu/docs/2")
+            .context(JsonldStringContext.getDefault()).build());
+        Envelope envelope = new Envelope("sensor", DateTime.now(), Config.DATA_VERSION, data);
+
+        JsonNode node = reader.readTree(compact.writeValueAsString(envelope));
+        assertEquals("http://example.org/context", node.at("/data/0/@context").asText());
+        assertFalse(node.at("/data/1").has("@context"));
+        assertEquals(reader.readTree(jsonld.writeValueAsString(envelope)), JxnCaliperJson.toJsonld(node));
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.benchmarks.BenchmarkFixtures;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.entities.resource.Document;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class JxnContextHoistingTest {
+    private final ObjectMapper reader = new ObjectMapper();
+    private final ObjectWriter writer = JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD, false, true);
+
+    @Test
+    public void writesContextOnceOnEnvelope() throws Exception {
+        Envelope envelope = BenchmarkFixtures.envelope(20);
+        byte[] plain = JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD).writeValueAsBytes(envelope);
+        byte[] hoisted = writer.writeValueAsBytes(envelope);
+        assertTrue(hoisted.length < plain.length);
+
+        String json = new String(hoisted, "UTF-8");
+        assertTrue(json.startsWith("{\"@context\":\"" + Config.JSONLD_EXTERNAL_CALIPER_CONTEXT + "\","));
+        assertEquals(json.indexOf("\"@context\""), json.lastIndexOf("\"@context\""));
+
+        // Restoring the nested contexts yields the original payload.
+        ObjectNode node = (ObjectNode) reader.readTree(hoisted);
+        node.remove("@context");
+        for (JsonNode event : node.get("data")) {
+            ((ObjectNode) event).put("@context", Config.JSONLD_EXTERNAL_CALIPER_CONTEXT);
+        }
+        assertEquals(reader.readTree(plain), node);
+    }
+
+    @Test
+    public void keepsContextOutsideEnvelopeAndForOtherIris() throws Exception {
+        Document document = Document.builder().id("https://example.edu/docs/1")
+            .context(JsonldStringContext.getDefault()).build();
+        assertTrue(reader.readTree(writer.writeValueAsString(document)).has("@context"));
+
+        Document other = Document.builder().id("https://example.edu/docs/2")
+            .context(JsonldStringContext.create("http://example.org/context")).build();
+        String json = writer.writeValueAsString(new Envelope("sensor", DateTime.now(), Config.DATA_VERSION,
+            Collections.<CaliperSendable>singletonList(other)));
+        assertEquals("http://example.org/context", reader.readTree(json).get("data").get(0).get("@context").asText());
+    }
+
+    @Test
+    public void reflectiveAndGeneratedSerializersAgree() throws Exception {
+        Envelope envelope = BenchmarkFixtures.mixedEnvelope(32);
+        String context = JsonldStringContext.getDefault().getId();
+        String generated = JxnObjectMappers.create(true).writer()
+            .withAttribute(JxnContextHoisting.CONTEXT, context).writeValueAsString(envelope);
+        String reflective = JxnObjectMappers.create(false).writer()
+            .withAttribute(JxnContextHoisting.CONTEXT, context).writeValueAsString(envelope);
+        assertEquals(reflective, generated);
+        assertEquals(generated.indexOf("\"@context\""), generated.lastIndexOf("\"@context\""));
+    }
+
+    @Test
+    public void sharesDefaultContext() {
+        assertSame(JsonldStringContext.getDefault(), JsonldStringContext.getDefault());
+        assertSame(JsonldStringContext.getDefault(), JsonldStringContext.create(Config.JSONLD_EXTERNAL_CALIPER_CONTEXT));
+        assertFalse(JsonldStringContext.getDefault() == JsonldStringContext.create("http://example.org/context"));
+    }
+}
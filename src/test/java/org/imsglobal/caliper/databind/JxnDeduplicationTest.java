@@ -0,0 +1,100 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.benchmarks.BenchmarkFixtures;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.imsglobal.caliper.entities.resource.Document;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class JxnDeduplicationTest {
+    private final ObjectMapper reader = new ObjectMapper();
+
+    @Test
+    public void writesEachEntityInFullOnce() throws Exception {
+        Envelope envelope = BenchmarkFixtures.envelope(20);
+        ObjectWriter writer = JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD, true, false);
+
+        byte[] plain = JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD).writeValueAsBytes(envelope);
+        byte[] deduplicated = writer.writeValueAsBytes(envelope);
+        assertTrue(deduplicated.length * 2 < plain.length);
+
+        Map<String, Integer> full = new HashMap<>();
+        countEntities(reader.readTree(deduplicated).get("data"), full);
+        for (Map.Entry<String, Integer> entry : full.entrySet()) {
+            assertEquals(entry.getKey(), Integer.valueOf(1), entry.getValue());
+        }
+        assertFalse(full.isEmpty());
+
+        // State is per call: a second write repeats the first.
+        assertEquals(new String(deduplicated, "UTF-8"), writer.writeValueAsString(envelope));
+    }
+
+    @Test
+    public void reflectiveAndGeneratedSerializersAgree() throws Exception {
+        Envelope envelope = BenchmarkFixtures.mixedEnvelope(20);
+        String generated = JxnObjectMappers.create(true).writer()
+            .withAttribute(JxnDeduplication.ENABLED, Boolean.TRUE).writeValueAsString(envelope);
+        String reflective = JxnObjectMappers.create(false).writer()
+            .withAttribute(JxnDeduplication.ENABLED, Boolean.TRUE).writeValueAsString(envelope);
+        assertEquals(reflective, generated);
+    }
+
+    @Test
+    public void coercedOccurrencesDoNotCountAsWritten() throws Exception {
+        Person person = Person.builder().id("https://example.edu/users/1").name("Trina").build();
+        Person reference = Person.builder().id(person.getId()).coercedToId(true).build();
+        Document document = Document.builder().id("https://example.edu/docs/1").build();
+
+        JsonNode node = reader.readTree(JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD, true, false)
+            .writeValueAsString(new Object[] {reference, person, document, person, document}));
+
+        assertTrue(node.get(0).isTextual());
+        assertEquals("Trina", node.get(1).get("name").asText());
+        assertTrue(node.get(2).isObject());
+        assertEquals(person.getId(), node.get(3).asText());
+        assertEquals(document.getId(), node.get(4).asText());
+    }
+
+    private void countEntities(JsonNode node, Map<String, Integer> full) {
+        if (node.isObject()) {
+            if (node.has("id") && node.has("type") && !node.has("action")) {
+                String id = node.get("id").asText();
+                full.put(id, full.containsKey(id) ? full.get(id) + 1 : 1);
+            }
+        }
+        for (JsonNode child : node) {
+            countEntities(child, full);
+        }
+    }
+}
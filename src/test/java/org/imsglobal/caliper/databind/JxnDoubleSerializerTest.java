@@ -0,0 +1,126 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class JxnDoubleSerializerTest {
+    private final DecimalFormat reference = new DecimalFormat(JxnDoubleSerializer.PATTERN,
+        DecimalFormatSymbols.getInstance(Locale.US));
+    private final JxnDoubleSerializer serializer = new JxnDoubleSerializer();
+    private final char[] buffer = new char[24];
+
+    @Test
+    public void matchesDecimalFormatOnEdgeCases() {
+        double[] values = {
+            1.0, -1.0, 0.5, 0.1, 0.01, 0.001, 0.004, 0.005, 0.006, 0.015, 0.025, 0.045,
+            0.125, 0.375, 0.625, 0.875, -0.125, 1.125, 2.675, 1.005, 1.015, 0.995, 9.995, 99.995,
+            0.994999, 1.1, 1.25, 10.0, 100.5, 15.75, 59.5, 8.0, 1e-300, -1e-300, Double.MIN_VALUE,
+            -Double.MIN_VALUE, Double.MIN_NORMAL, 0.99999999999, 1e12 + 0.3, 4398046511103.995,
+            4398046511103.5, -4398046511103.75, 123456789.005, -0.004, -0.005, -0.006
+        };
+        for (double value : values) {
+            assertFormatted(value);
+        }
+    }
+
+    @Test
+    public void matchesDecimalFormatOnRandomValues() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            double scale = Math.pow(10, random.nextInt(16) - 3);
+            double value = (random.nextDouble() - 0.5) * scale;
+            if (i % 4 == 0) {
+                // Values close to a half-hundredth are where rounding can go wrong.
+                value = (random.nextInt(2000000) + 0.5) / 100.0;
+            }
+            if (value != 0.0 && Math.abs(value) < JxnDoubleSerializer.MAX_EXACT) {
+                assertFormatted(value);
+            }
+        }
+    }
+
+    @Test
+    public void writesNullForZeroNaNAndInfinity() throws Exception {
+        assertEquals("[null,null,null,null,null]",
+            serialize(0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void writesSeparatorsAndLargeValues() throws Exception {
+        assertEquals("[1.5,-0.12,2.0]", serialize(1.5, -0.125, 1.999));
+
+        double[] large = {JxnDoubleSerializer.MAX_EXACT, 1e15 + 0.25, -9007199254740991.0, 1e20, -Double.MAX_VALUE};
+        for (double value : large) {
+            assertEquals("[" + reference.format(value) + "]", serialize(value));
+        }
+    }
+
+    @Test
+    public void writesThroughNonJsonGenerators() throws Exception {
+        TokenBuffer buffer = new TokenBuffer(null, false);
+        serializer.serialize(2.675, buffer, null);
+        JsonParser parser = buffer.asParser();
+        assertEquals(JsonToken.VALUE_NUMBER_FLOAT, parser.nextToken());
+        assertEquals(reference.format(2.675), parser.getText());
+
+        SmileFactory smile = new SmileFactory();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = smile.createGenerator(out)) {
+            serializer.serialize(2.675, generator, null);
+        }
+        parser = smile.createParser(out.toByteArray());
+        assertEquals(JsonToken.VALUE_NUMBER_FLOAT, parser.nextToken());
+        assertEquals(Double.parseDouble(reference.format(2.675)), parser.getDoubleValue(), 0.0);
+    }
+
+    private void assertFormatted(double value) {
+        int length = JxnDoubleSerializer.format(value, buffer);
+        assertEquals(Double.toString(value), reference.format(value), new String(buffer, 0, length));
+    }
+
+    private String serialize(double... values) throws Exception {
+        StringWriter writer = new StringWriter();
+        JsonGenerator gen = new JsonFactory().createGenerator(writer);
+        gen.writeStartArray();
+        for (double value : values) {
+            serializer.serialize(value, gen, null);
+        }
+        gen.writeEndArray();
+        gen.close();
+        return writer.toString();
+    }
+}
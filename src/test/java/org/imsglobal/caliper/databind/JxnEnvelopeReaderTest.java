@@ -0,0 +1,125 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.benchmarks.BenchmarkFixtures;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.context.JsonldStringContext;
+import org.imsglobal.caliper.entities.CaliperEntity;
+import org.imsglobal.caliper.events.CaliperEvent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class JxnEnvelopeReaderTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectWriter jsonld = JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD);
+
+    @Test
+    public void readsItemsInOrder() throws Exception {
+        Envelope envelope = BenchmarkFixtures.mixedEnvelope(32);
+        byte[] bytes = jsonld.writeValueAsBytes(envelope);
+
+        try (JxnEnvelopeReader reader = JxnEnvelopeReader.open(new ByteArrayInputStream(bytes))) {
+            assertEquals(envelope.getSensorId(), reader.getSensorId());
+            assertEquals(envelope.getSendTime(), reader.getSendTime());
+            assertEquals(envelope.getDataVersion(), reader.getDataVersion());
+
+            for (CaliperSendable expected : envelope.getData()) {
+                JxnEnvelopeReader.Item item = reader.next();
+                assertEquals(id(expected), item.getId());
+                assertEquals(mapper.readTree(jsonld.writeValueAsBytes(expected)),
+                    mapper.readTree(item.toByteArray()));
+                assertArrayEquals(jsonld.writeValueAsBytes(expected), jsonld.writeValueAsBytes(item.getValue()));
+            }
+            assertNull(reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void passesItemsThrough() throws Exception {
+        Envelope envelope = BenchmarkFixtures.mixedEnvelope(8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        byte[] bytes = jsonld.writeValueAsBytes(envelope);
+        try (JxnEnvelopeReader reader = JxnEnvelopeReader.open(new ByteArrayInputStream(bytes))) {
+            for (JxnEnvelopeReader.Item item = reader.next(); item != null; item = reader.next()) {
+                if (out.size() > 1) {
+                    out.write(',');
+                }
+                item.writeTo(out);
+            }
+        }
+        out.write(']');
+        assertEquals(mapper.readTree(bytes).get("data"), mapper.readTree(out.toByteArray()));
+    }
+
+    @Test
+    public void restoresContexts() throws Exception {
+        Envelope envelope = BenchmarkFixtures.mixedEnvelope(8);
+        Object[][] cases = {
+            { DataFormat.CALIPER_JSONLD, JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD, false, true) },
+            { DataFormat.CALIPER_JSON, JxnObjectMappers.writer(DataFormat.CALIPER_JSON) },
+            { DataFormat.CALIPER_SMILE, JxnObjectMappers.writer(DataFormat.CALIPER_SMILE, false, true) }
+        };
+        for (Object[] c : cases) {
+            byte[] bytes = ((ObjectWriter) c[1]).writeValueAsBytes(envelope);
+            DataFormat format = (DataFormat) c[0];
+            try (JxnEnvelopeReader reader = JxnEnvelopeReader.open(format, new ByteArrayInputStream(bytes))) {
+                for (CaliperSendable expected : envelope.getData()) {
+                    JxnEnvelopeReader.Item item = reader.next();
+                    assertEquals(format.toString(), mapper.readTree(jsonld.writeValueAsBytes(expected)),
+                        mapper.readTree(jsonld.writeValueAsBytes(item.getValue())));
+                }
+                assertNull(reader.next());
+            }
+        }
+    }
+
+    @Test
+    public void exposesHoistedContext() throws Exception {
+        byte[] bytes = JxnObjectMappers.writer(DataFormat.CALIPER_JSONLD, false, true)
+            .writeValueAsBytes(BenchmarkFixtures.mixedEnvelope(2));
+        try (JxnEnvelopeReader reader = JxnEnvelopeReader.open(new ByteArrayInputStream(bytes))) {
+            assertEquals(JsonldStringContext.getDefault(), reader.getContext());
+            assertEquals(null, reader.next().getTree().get("@context"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsXapi() throws Exception {
+        JxnEnvelopeReader.open(DataFormat.XAPI_JSON, new ByteArrayInputStream(new byte[0]));
+    }
+
+    private static String id(CaliperSendable item) {
+        return (item instanceof CaliperEvent) ? ((CaliperEvent) item).getId() : ((CaliperEntity) item).getId();
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.imsglobal.caliper.benchmarks.BenchmarkFixtures;
+import org.imsglobal.caliper.benchmarks.EventFixture;
+import org.imsglobal.caliper.entities.outcome.Score;
+import org.imsglobal.caliper.entities.resource.Assessment;
+import org.imsglobal.caliper.entities.resource.Attempt;
+import org.imsglobal.caliper.entities.resource.Document;
+import org.imsglobal.caliper.events.CaliperEvent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class JxnGeneratedSerializerTest {
+    private static final String IRI = "https://example.edu/terms/201601/courses/7/sections/1";
+
+    private final ObjectMapper generated = JxnObjectMappers.create(true);
+    private final ObjectMapper reflective = JxnObjectMappers.create(false);
+
+    @Test
+    public void generatedSerializersReplaceReflection() throws Exception {
+        assertFalse(JxnGeneratedSerializers.types().isEmpty());
+
+        List<String> rejected = new ArrayList<>();
+        for (Class<?> type : JxnGeneratedSerializers.types()) {
+            JsonSerializer<?> serializer = generated.getSerializerProviderInstance().findValueSerializer(type);
+            if (serializer instanceof JxnEnvelopeSerializer) {
+                serializer = serializer.getDelegatee();
+            }
+            if (!(serializer instanceof JxnGeneratedSerializer)) {
+                rejected.add(type.getName());
+            }
+        }
+        assertTrue("Property sets differ from Jackson's for " + rejected, rejected.isEmpty());
+
+        JsonSerializer<Object> serializer = reflective.getSerializerProviderInstance().findValueSerializer(Attempt.class);
+        assertFalse(serializer instanceof JxnGeneratedSerializer);
+    }
+
+    @Test
+    public void eventsSerializeIdentically() throws Exception {
+        for (EventFixture fixture : EventFixture.values()) {
+            CaliperEvent event = fixture.build(7);
+            assertEquals(fixture.name(), reflective.writeValueAsString(event), generated.writeValueAsString(event));
+        }
+    }
+
+    @Test
+    public void envelopeSerializesIdentically() throws Exception {
+        Object envelope = BenchmarkFixtures.mixedEnvelope(32);
+        assertEquals(reflective.writeValueAsString(envelope), generated.writeValueAsString(envelope));
+    }
+
+    @Test
+    public void defaultsAndCoercionMatchReflection() throws Exception {
+        Assessment assessment = Assessment.builder().id(IRI.concat("/assess/1")).build();
+        List<Object> values = new ArrayList<>();
+        values.add(assessment);
+        values.add(Assessment.builder().id(IRI.concat("/assess/2")).maxScore(-0.0).maxAttempts(2).build());
+        values.add(Attempt.builder().id(IRI.concat("/attempt/1")).assignable(assessment).count(0).build());
+        values.add(Score.builder().id(IRI.concat("/score/1")).scoreGiven(0.0).maxScore(15.5).build());
+        values.add(Document.builder().id(IRI.concat("/doc/1")).name("").coercedToId(true).build());
+        values.add(Document.builder().id(IRI.concat("/doc/2")).name("").build());
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("hostname", "example.com");
+        request.put("empty", "");
+        Map<String, Object> extensions = new HashMap<>();
+        extensions.put("request", request);
+        extensions.put("document", values.get(5));
+        values.add(Document.builder().id(IRI.concat("/doc/3")).extensions(extensions).build());
+
+        for (Object value : values) {
+            assertEquals(reflective.writeValueAsString(value), generated.writeValueAsString(value));
+        }
+        assertEquals("\"" + IRI + "/doc/1\"", generated.writeValueAsString(values.get(4)));
+    }
+}
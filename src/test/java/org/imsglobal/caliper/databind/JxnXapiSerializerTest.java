@@ -0,0 +1,133 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.databind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.imsglobal.caliper.actions.Action;
+import org.imsglobal.caliper.actions.CaliperAction;
+import org.imsglobal.caliper.benchmarks.BenchmarkFixtures;
+import org.imsglobal.caliper.benchmarks.EventFixture;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.entities.outcome.Score;
+import org.imsglobal.caliper.events.CaliperEvent;
+import org.imsglobal.caliper.events.GradeEvent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.net.URI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class JxnXapiSerializerTest {
+    private final ObjectMapper reader = new ObjectMapper();
+    private final ObjectWriter writer = JxnObjectMappers.writer(DataFormat.XAPI_JSON);
+
+    @Test
+    public void everyEventBecomesAStatement() throws Exception {
+        for (EventFixture fixture : EventFixture.values()) {
+            CaliperEvent event = fixture.build(7);
+            JsonNode statement = reader.readTree(writer.writeValueAsString(event));
+
+            assertEquals(fixture.name(), event.getId().substring("urn:uuid:".length()), statement.get("id").asText());
+            assertEquals(fixture.name(), event.getActor().getId(), statement.at("/actor/account/name").asText());
+            assertEquals(fixture.name(), JxnXapiVerbs.verb(event.getAction()), statement.at("/verb/id").asText());
+            assertEquals(fixture.name(), event.getAction().value(), statement.at("/verb/display/en-US").asText());
+            assertEquals(fixture.name(), event.getObject().getId(), statement.at("/object/id").asText());
+            assertEquals(fixture.name(), JxnXapiSerializer.CALIPER + event.getObject().getType().value(),
+                statement.at("/object/definition/type").asText());
+            assertEquals(fixture.name(), event.getEventTime().toString(), statement.get("timestamp").asText());
+            assertFalse(fixture.name(), statement.has("@context"));
+        }
+    }
+
+    @Test
+    public void mapsScoresAndContext() throws Exception {
+        CaliperEvent event = EventFixture.GRADE.build(1);
+        JsonNode statement = reader.readTree(writer.writeValueAsString(event));
+
+        assertEquals("Agent", statement.at("/actor/objectType").asText());
+        assertEquals(event.getEdApp().getId(), statement.at("/actor/account/homePage").asText());
+        assertEquals(10.0, statement.at("/result/score/raw").asDouble(), 0.0);
+        assertEquals(15.0, statement.at("/result/score/max").asDouble(), 0.0);
+        assertEquals(10.0 / 15.0, statement.at("/result/score/scaled").asDouble(), 1e-12);
+        assertEquals("auto-graded exam", statement.at("/result/response").asText());
+        assertEquals(event.getGroup().getId(), statement.at("/context/contextActivities/grouping/0/id").asText());
+
+        JsonNode attempt = reader.readTree(writer.writeValueAsString(EventFixture.ASSESSMENT.build(1)));
+        assertTrue(attempt.at("/result/completion").isBoolean());
+    }
+
+    @Test
+    public void omitsRangeForOutOfRangeScore() throws Exception {
+        GradeEvent grade = (GradeEvent) EventFixture.GRADE.build(1);
+        CaliperEvent event = GradeEvent.builder()
+            .context(grade.getContext())
+            .id(grade.getId())
+            .actor(grade.getActor())
+            .action(Action.GRADED)
+            .object(grade.getObject())
+            .generated(Score.builder()
+                .id(grade.getObject().getId().concat("/scores/2"))
+                .maxScore(15)
+                .scoreGiven(18)
+                .build())
+            .eventTime(grade.getEventTime())
+            .edApp(grade.getEdApp())
+            .group(grade.getGroup())
+            .build();
+        JsonNode score = reader.readTree(writer.writeValueAsString(event)).at("/result/score");
+
+        assertEquals(18.0, score.get("raw").asDouble(), 0.0);
+        assertFalse(score.has("min"));
+        assertFalse(score.has("max"));
+        assertFalse(score.has("scaled"));
+    }
+
+    @Test
+    public void writesEnvelopeAsStatementArray() throws Exception {
+        JsonNode statements = reader.readTree(writer.writeValueAsBytes(BenchmarkFixtures.mixedEnvelope(32)));
+        assertTrue(statements.isArray());
+        assertEquals(32, statements.size());
+
+        // Envelope-level options do not apply to xAPI.
+        assertEquals(statements, reader.readTree(JxnObjectMappers.writer(DataFormat.XAPI_JSON, true, true)
+            .writeValueAsBytes(BenchmarkFixtures.mixedEnvelope(32))));
+    }
+
+    @Test
+    public void everyActionHasAVerbIri() {
+        for (Action action : Action.values()) {
+            URI verb = URI.create(JxnXapiVerbs.verb(action));
+            assertTrue(action.name(), verb.isAbsolute());
+        }
+        assertTrue(JxnXapiVerbs.isMapped(Action.STARTED));
+        assertEquals(JxnXapiVerbs.CALIPER_ACTIONS + "Muted", JxnXapiVerbs.verb(Action.MUTED));
+        assertEquals(JxnXapiVerbs.CALIPER_ACTIONS + "Custom", JxnXapiVerbs.verb(new CaliperAction() {
+            @Override
+            public String value() {
+                return "Custom";
+            }
+        }));
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.dispatch;
+
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.RecordingClient;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.SensorOptions;
+import org.imsglobal.caliper.config.Config;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class DispatcherTest {
+    private static final String BASE_IRI = "https://example.edu";
+
+    @Test
+    public void ringBufferRejectsWhenFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void ringBufferDeliversEveryElementOnceAcrossThreads() throws Exception {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+        final int producers = 4;
+        final int perProducer = 50000;
+        final Set<Integer> seen = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+        final AtomicInteger consumed = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(producers + 2);
+
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        for (int c = 0; c < 2; c++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (consumed.get() < producers * perProducer) {
+                        Integer value = buffer.poll();
+                        if (value != null) {
+                            seen.add(value);
+                            consumed.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertEquals(producers * perProducer, consumed.get());
+        assertEquals(producers * perProducer, seen.size());
+    }
+
+    @Test
+    public void asyncSensorDeliversQueuedEnvelopes() {
+        Sensor sensor = Sensor.create(BASE_IRI.concat("/sensors/1"),
+            SensorOptions.builder().async(true).queueCapacity(64).dispatcherThreads(2).build());
+        RecordingClient client = new RecordingClient("recording");
+        sensor.registerClient(client);
+
+        Envelope envelope = new Envelope(sensor.getId(), new DateTime(), Config.DATA_VERSION,
+            new ArrayList<CaliperSendable>());
+        for (int i = 0; i < 50; i++) {
+            sensor.send(envelope);
+        }
+
+        assertTrue(sensor.shutdown(10, TimeUnit.SECONDS));
+        assertEquals(50, client.getEnvelopes().size());
+        assertEquals(50, sensor.getDispatcherStatistics().getDispatched().getCount());
+        assertEquals(0, sensor.getDispatcherStatistics().getDropped().getCount());
+    }
+
+    @Test
+    public void shutdownDeliversEveryAcceptedEnvelope() throws Exception {
+        final AtomicInteger delivered = new AtomicInteger();
+        final Dispatcher dispatcher = new Dispatcher("race", 1 << 16, 2, new Consumer<Envelope>() {
+            @Override
+            public void accept(Envelope envelope) {
+                delivered.incrementAndGet();
+            }
+        });
+        dispatcher.start();
+
+        final Envelope envelope = new Envelope(BASE_IRI, new DateTime(), Config.DATA_VERSION,
+            new ArrayList<CaliperSendable>());
+        final AtomicInteger accepted = new AtomicInteger();
+        final AtomicInteger refused = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(4);
+        for (int p = 0; p < 4; p++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (;;) {
+                            if (dispatcher.offer(envelope)) {
+                                accepted.incrementAndGet();
+                            }
+                        }
+                    } catch (IllegalStateException ise) {
+                        refused.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        Thread.sleep(20);
+        assertTrue(dispatcher.shutdown(10, TimeUnit.SECONDS));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(4, refused.get());
+        assertEquals(accepted.get(), delivered.get());
+        assertEquals(0, dispatcher.getDepth());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void asyncSendAfterShutdownFails() {
+        Sensor sensor = Sensor.create(BASE_IRI.concat("/sensors/1"),
+            SensorOptions.builder().async(true).queueCapacity(64).dispatcherThreads(1).build());
+        sensor.registerClient(new RecordingClient("recording"));
+        assertTrue(sensor.shutdown(10, TimeUnit.SECONDS));
+
+        sensor.send(new Envelope(sensor.getId(), new DateTime(), Config.DATA_VERSION,
+            new ArrayList<CaliperSendable>()));
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.dispatch;
+
+import org.imsglobal.caliper.RecordingClient;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.config.DataFormat;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class EnvelopeBatcherTest {
+    private static final String BASE_IRI = "https://example.edu";
+
+    private Sensor sensor;
+    private RecordingClient client;
+
+    @Before
+    public void setup() {
+        sensor = Sensor.create(BASE_IRI.concat("/sensors/1"));
+        client = new RecordingClient("recording");
+        sensor.registerClient(client);
+    }
+
+    @Test
+    public void flushesWhenMaxEventsReached() throws Exception {
+        EnvelopeBatcher batcher = EnvelopeBatcher.create(sensor,
+            BatchOptions.builder().maxEvents(10).lingerMs(60000).build());
+
+        for (int i = 0; i < 25; i++) {
+            batcher.add(person(i));
+        }
+        assertEquals(2, client.getEnvelopes().size());
+        assertEquals(10, client.getEnvelopes().get(0).getData().size());
+
+        batcher.close();
+        assertEquals(3, client.getEnvelopes().size());
+        assertEquals(5, client.getEnvelopes().get(2).getData().size());
+        assertEquals(0.5, batcher.getStatistics().getBatchFillRatio().getMin(), 0.0001);
+    }
+
+    @Test
+    public void flushesWhenMaxBytesReached() throws Exception {
+        EnvelopeBatcher batcher = EnvelopeBatcher.create(sensor,
+            BatchOptions.builder().maxEvents(1000).maxBytes(200).lingerMs(60000).build());
+
+        for (int i = 0; i < 10; i++) {
+            batcher.add(person(i));
+        }
+        batcher.close();
+
+        int total = 0;
+        for (int i = 0; i < client.getEnvelopes().size(); i++) {
+            total += client.getEnvelopes().get(i).getData().size();
+        }
+        assertTrue(client.getEnvelopes().size() > 1);
+        assertEquals(10, total);
+    }
+
+    @Test
+    public void estimatesSizesInTargetDataFormat() throws Exception {
+        EnvelopeBatcher batcher = EnvelopeBatcher.create(sensor, BatchOptions.builder().maxEvents(1000)
+            .maxBytes(1000).dataFormat(DataFormat.CALIPER_CBOR).lingerMs(60000).build());
+
+        for (int i = 0; i < 100; i++) {
+            batcher.add(person(i % 10));
+        }
+        batcher.close();
+
+        int total = 0;
+        for (int i = 0; i < client.getEnvelopes().size(); i++) {
+            total += client.getEnvelopes().get(i).getData().size();
+        }
+        assertTrue(client.getEnvelopes().size() > 1);
+        assertEquals(100, total);
+    }
+
+    @Test
+    public void flushesWhenLingerElapses() throws Exception {
+        EnvelopeBatcher batcher = EnvelopeBatcher.create(sensor,
+            BatchOptions.builder().maxEvents(1000).lingerMs(50).build());
+
+        batcher.add(person(1));
+        batcher.add(person(2));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (client.getEnvelopes().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, client.getEnvelopes().size());
+        assertEquals(2, client.getEnvelopes().get(0).getData().size());
+        batcher.close();
+    }
+
+    private Person person(int i) {
+        return Person.builder().id(BASE_IRI.concat("/users/" + i)).build();
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.dispatch;
+
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.RecordingClient;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.SensorOptions;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class FanOutTest {
+
+    @Test
+    public void sendsToClientsInParallel() {
+        try (Sensor sensor = Sensor.create("sensor", SensorOptions.builder().parallel(true).build())) {
+            for (int i = 0; i < 3; i++) {
+                sensor.registerClient(new SlowClient("client-" + i, 300, false));
+            }
+
+            long started = System.nanoTime();
+            sensor.send(envelope());
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            assertTrue("elapsed " + elapsed + "ms", elapsed < 800);
+            for (String id : sensor.getClients().keySet()) {
+                assertEquals(1, sensor.getStatistics().get(id).getSuccessful().getCount());
+            }
+        }
+    }
+
+    @Test
+    public void timesOutSlowClient() throws InterruptedException {
+        SensorOptions options = SensorOptions.builder().parallel(true).clientTimeout(100).build();
+        try (Sensor sensor = Sensor.create("sensor", options)) {
+            SlowClient slow = new SlowClient("slow", 2000, false);
+            sensor.registerClient(slow);
+            sensor.registerClient(new RecordingClient("fast"));
+
+            SendResult result = sensor.sendAll(envelope());
+            assertTrue(result.awaitAny(1, TimeUnit.SECONDS));
+            assertTrue(result.awaitAll(1, TimeUnit.SECONDS));
+
+            Map<String, Throwable> failures = result.getFailures();
+            assertEquals(1, failures.size());
+            assertTrue(failures.get("slow") instanceof TimeoutException);
+            assertEquals(1, slow.getStatistics().getTimeouts().getCount());
+        }
+    }
+
+    @Test
+    public void sendRethrowsClientFailure() {
+        try (Sensor sensor = Sensor.create("sensor", SensorOptions.builder().parallel(true).build())) {
+            RecordingClient healthy = new RecordingClient("healthy");
+            sensor.registerClient(healthy);
+            sensor.registerClient(new SlowClient("failing", 0, true));
+
+            try {
+                sensor.send(envelope());
+                fail("expected failure");
+            } catch (IllegalStateException expected) {
+                // expected
+            }
+            assertEquals(1, healthy.getEnvelopes().size());
+        }
+    }
+
+    @Test
+    public void sequentialSendAllReturnsCompletedFutures() {
+        Sensor sensor = Sensor.create("sensor");
+        sensor.registerClient(new RecordingClient("a"));
+        sensor.registerClient(new SlowClient("b", 0, true));
+
+        SendResult result = sensor.sendAll(envelope());
+        assertTrue(result.get("a").isDone());
+        assertFalse(result.get("a").isCompletedExceptionally());
+        assertTrue(result.getFailures().get("b") instanceof IllegalStateException);
+    }
+
+    @Test
+    public void sendAfterShutdownFails() {
+        Sensor sensor = Sensor.create("sensor", SensorOptions.builder().parallel(true).build());
+        RecordingClient client = new RecordingClient("client");
+        sensor.registerClient(client);
+        assertTrue(sensor.shutdown(1, TimeUnit.SECONDS));
+
+        try {
+            sensor.send(envelope());
+            fail("expected failure");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        assertEquals(0, client.getEnvelopes().size());
+    }
+
+    @Test
+    public void asyncParallelCountsEventsOnce() {
+        SensorOptions options = SensorOptions.builder().async(true).parallel(true).build();
+        Sensor sensor = Sensor.create("sensor", options);
+        RecordingClient a = new RecordingClient("a");
+        RecordingClient b = new RecordingClient("b");
+        sensor.registerClient(a);
+        sensor.registerClient(b);
+
+        List<CaliperSendable> data = new ArrayList<>();
+        data.add(Person.builder().id("https://example.edu/users/1").build());
+        data.add(Person.builder().id("https://example.edu/users/2").build());
+        for (int i = 0; i < 3; i++) {
+            sensor.send(new Envelope("sensor", DateTime.now(), Config.DATA_VERSION, data));
+        }
+
+        assertTrue(sensor.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(3, a.getEnvelopes().size());
+        assertEquals(3, b.getEnvelopes().size());
+        assertEquals(6, sensor.getEventStatistics().get("Person").getCount());
+    }
+
+    private static Envelope envelope() {
+        return new Envelope("sensor", DateTime.now(), Config.DATA_VERSION, new ArrayList<CaliperSendable>());
+    }
+
+    private static class SlowClient extends RecordingClient {
+        private final long delay;
+        private final boolean fail;
+
+        SlowClient(String id, long delay, boolean fail) {
+            super(id);
+            this.delay = delay;
+            this.fail = fail;
+        }
+
+        @Override
+        public void send(Envelope envelope) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            if (fail) {
+                throw new IllegalStateException("endpoint unavailable");
+            }
+            super.send(envelope);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.load;
+
+import org.HdrHistogram.Recorder;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.benchmarks.BenchmarkFixtures;
+import org.imsglobal.caliper.clients.HttpClient;
+import org.imsglobal.caliper.clients.HttpClientOptions;
+import org.imsglobal.caliper.clients.RetryPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives Envelopes through Sensor and HttpClient against a local {@link StubEndpoint} and reports
+ * throughput, latency percentiles and error rate.  HttpClient reports delivery failures through its
+ * statistics rather than by throwing, so errors are the client's failed sends during the measurement window.
+ *
+ * With a target rate each producer sends on a schedule of intended start times and response time is
+ * measured from the intended start rather than from the actual send, so time spent queued behind a
+ * slow request is counted (coordinated omission correction).  Service time, measured from the actual
+ * send, is reported alongside.  Closed-loop runs have no schedule, so both are the same.
+ *
+ * Run from the command line with
+ * <pre>
+ * mvn -P load verify -Dload.args="producers=8 rate=2000 arrival=OPEN_LOOP duration=30 latency=5"
+ * </pre>
+ */
+public class LoadGenerator {
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final LoadOptions options;
+
+    public LoadGenerator(LoadOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Start the stub endpoint, run the load, then close the client and stop the endpoint.
+     * @return report
+     * @throws Exception
+     */
+    public LoadReport run() throws Exception {
+        try (StubEndpoint endpoint = new StubEndpoint(options.getLatencyMillis(), options.getStatusMix());
+             HttpClient client = HttpClient.create("stub", HttpClientOptions.builder()
+                .host(endpoint.getUrl())
+                .apiKey("load-generator")
+                .maxConnections(options.getProducers())
+                .maxConnectionsPerRoute(options.getProducers())
+                .retryPolicy(RetryPolicy.builder().maxAttempts(options.getRetries() + 1).build())
+                .build());
+             Sensor sensor = Sensor.create("load-generator")) {
+            sensor.registerClient(client);
+
+            final Envelope envelope = BenchmarkFixtures.mixedEnvelope(options.getEventsPerEnvelope());
+            final Recorder responseTime = new Recorder(MAX_TRACKABLE_MICROS, 3);
+            final Recorder serviceTime = new Recorder(MAX_TRACKABLE_MICROS, 3);
+            final LongAdder sent = new LongAdder();
+
+            long now = System.nanoTime();
+            final long measureFrom = now + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+            final long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+            final long interval = (options.getRate() > 0)
+                ? TimeUnit.SECONDS.toNanos(options.getProducers()) / options.getRate() : 0;
+
+            List<Thread> producers = new ArrayList<>();
+            for (int i = 0; i < options.getProducers(); i++) {
+                final long firstStart = now + interval * i / options.getProducers();
+                Thread producer = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        produce(sensor, envelope, firstStart, interval, measureFrom, measureTo,
+                            responseTime, serviceTime, sent);
+                    }
+                }, "load-producer-" + i);
+                producer.start();
+                producers.add(producer);
+            }
+
+            awaitUntil(measureFrom);
+            long failedBefore = client.getStatistics().getFailed().getCount();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            long errors = client.getStatistics().getFailed().getCount() - failedBefore;
+
+            return new LoadReport(options, sent.sum(), errors, responseTime.getIntervalHistogram(),
+                serviceTime.getIntervalHistogram(), endpoint.getStatusCounts());
+        }
+    }
+
+    /**
+     * Producer loop.  Only sends whose intended start falls within the measurement window are recorded.
+     */
+    private void produce(Sensor sensor, Envelope envelope, long firstStart, long interval, long measureFrom,
+                         long measureTo, Recorder responseTime, Recorder serviceTime, LongAdder sent) {
+        boolean paced = options.getArrival() != LoadOptions.Arrival.CLOSED_LOOP;
+        long next = firstStart;
+
+        while (true) {
+            long intended;
+            if (paced) {
+                intended = next;
+                if (intended >= measureTo) {
+                    return;
+                }
+                awaitUntil(intended);
+                next += (options.getArrival() == LoadOptions.Arrival.OPEN_LOOP)
+                    ? (long) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * interval) : interval;
+            } else {
+                intended = System.nanoTime();
+                if (intended >= measureTo) {
+                    return;
+                }
+            }
+
+            long started = System.nanoTime();
+            try {
+                sensor.send(envelope);
+            } catch (RuntimeException re) {
+                // Counted in the client's Failed statistic.
+            }
+            long completed = System.nanoTime();
+
+            if (intended >= measureFrom) {
+                responseTime.recordValue(Math.min((completed - intended) / 1000, MAX_TRACKABLE_MICROS));
+                serviceTime.recordValue(Math.min((completed - started) / 1000, MAX_TRACKABLE_MICROS));
+                sent.increment();
+            }
+        }
+    }
+
+    private static void awaitUntil(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Run the load generator with key=value arguments named after the {@link LoadOptions} properties:
+     * producers, rate, arrival, events, duration, warmup, latency, statusMix and retries.
+     * @param args
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        LoadOptions.OptionsBuilder builder = LoadOptions.builder().warmupSeconds(2);
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected key=value but was " + arg);
+            }
+            String value = pair[1];
+            switch (pair[0]) {
+                case "producers":
+                    builder.producers(Integer.parseInt(value));
+                    break;
+                case "rate":
+                    builder.rate(Integer.parseInt(value));
+                    break;
+                case "arrival":
+                    builder.arrival(LoadOptions.Arrival.valueOf(value));
+                    break;
+                case "events":
+                    builder.eventsPerEnvelope(Integer.parseInt(value));
+                    break;
+                case "duration":
+                    builder.durationSeconds(Integer.parseInt(value));
+                    break;
+                case "warmup":
+                    builder.warmupSeconds(Integer.parseInt(value));
+                    break;
+                case "latency":
+                    builder.latencyMillis(Integer.parseInt(value));
+                    break;
+                case "statusMix":
+                    builder.statusMix(value);
+                    break;
+                case "retries":
+                    builder.retries(Integer.parseInt(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + pair[0]);
+            }
+        }
+
+        LoadOptions options = builder.build();
+        System.out.println(options);
+        System.out.println(new LoadGenerator(options).run());
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.load;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class LoadGeneratorTest {
+
+    @Test
+    public void smokeFixedRate() throws Exception {
+        LoadReport report = new LoadGenerator(LoadOptions.builder()
+            .producers(2)
+            .rate(100)
+            .arrival(LoadOptions.Arrival.FIXED_RATE)
+            .durationSeconds(1)
+            .latencyMillis(2)
+            .build()).run();
+
+        assertTrue(report.toString(), report.getEnvelopes() >= 90 && report.getEnvelopes() <= 110);
+        assertEquals(0, report.getErrors());
+        assertTrue(report.getResponseTime().getValueAtPercentile(50) >= 2000);
+        assertTrue(report.getResponseTime().getMaxValue() >= report.getServiceTime().getMaxValue());
+    }
+
+    @Test
+    public void countsErrorsFromStatusMix() throws Exception {
+        LoadReport report = new LoadGenerator(LoadOptions.builder()
+            .producers(2)
+            .durationSeconds(1)
+            .statusMix("200=0.5,503=0.5")
+            .build()).run();
+
+        assertTrue(report.getEnvelopes() > 0);
+        assertTrue(report.toString(), report.getErrorRate() > 0.2 && report.getErrorRate() < 0.8);
+    }
+
+    @Test
+    public void parsesStatusMix() {
+        Map<Integer, Double> mix = StubEndpoint.parseStatusMix("200=0.98, 503=0.02");
+
+        assertEquals(2, mix.size());
+        assertEquals(0.02, mix.get(503), 0.0);
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.load;
+
+import org.imsglobal.caliper.validators.SensorValidator;
+
+/**
+ * Load generator options.  A rate of zero drives the producers closed-loop (each sends its next
+ * Envelope as soon as the previous one completes); a positive rate paces them on a schedule.
+ */
+public class LoadOptions {
+
+    /**
+     * How producers schedule their sends.
+     */
+    public enum Arrival {
+        /** Back to back, ignoring the rate. */
+        CLOSED_LOOP,
+        /** Evenly spaced intended start times. */
+        FIXED_RATE,
+        /** Exponentially distributed gaps (Poisson arrivals). */
+        OPEN_LOOP
+    }
+
+    private final int producers;
+    private final int rate;
+    private final Arrival arrival;
+    private final int eventsPerEnvelope;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int latencyMillis;
+    private final String statusMix;
+    private final int retries;
+
+    /**
+     * Defaults.  The rate is expressed in Envelopes per second across all producers.
+     */
+    public static final int PRODUCERS = 4;
+    public static final int EVENTS_PER_ENVELOPE = 1;
+    public static final int DURATION_SECONDS = 10;
+    public static final String STATUS_MIX = "200=1.0";
+
+    /**
+     * Constructor
+     * @param builder
+     */
+    private LoadOptions(OptionsBuilder builder) {
+        this.producers = SensorValidator.chkPositiveIntValue(builder.producers, PRODUCERS);
+        this.rate = Math.max(builder.rate, 0);
+        this.arrival = (rate == 0) ? Arrival.CLOSED_LOOP
+            : (builder.arrival != null && builder.arrival != Arrival.CLOSED_LOOP) ? builder.arrival : Arrival.FIXED_RATE;
+        this.eventsPerEnvelope = SensorValidator.chkPositiveIntValue(builder.eventsPerEnvelope, EVENTS_PER_ENVELOPE);
+        this.durationSeconds = SensorValidator.chkPositiveIntValue(builder.durationSeconds, DURATION_SECONDS);
+        this.warmupSeconds = Math.max(builder.warmupSeconds, 0);
+        this.latencyMillis = Math.max(builder.latencyMillis, 0);
+        this.statusMix = SensorValidator.chkStrValue(builder.statusMix, STATUS_MIX);
+        this.retries = Math.max(builder.retries, 0);
+    }
+
+    /**
+     * @return number of producer threads
+     */
+    public int getProducers() {
+        return producers;
+    }
+
+    /**
+     * @return target Envelopes per second across all producers, zero for closed-loop
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * @return arrival schedule
+     */
+    public Arrival getArrival() {
+        return arrival;
+    }
+
+    /**
+     * @return events per Envelope
+     */
+    public int getEventsPerEnvelope() {
+        return eventsPerEnvelope;
+    }
+
+    /**
+     * @return measured duration in seconds
+     */
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * @return unmeasured warmup in seconds
+     */
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    /**
+     * @return stub endpoint response delay in milliseconds
+     */
+    public int getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * @return stub endpoint status mix, e.g. "200=0.98,503=0.02"
+     */
+    public String getStatusMix() {
+        return statusMix;
+    }
+
+    /**
+     * @return HttpClient retries per Envelope
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("producers=%d rate=%d arrival=%s eventsPerEnvelope=%d duration=%ds warmup=%ds "
+                + "latency=%dms statusMix=%s retries=%d", producers, rate, arrival, eventsPerEnvelope,
+            durationSeconds, warmupSeconds, latencyMillis, statusMix, retries);
+    }
+
+    /**
+     * Builder class provides a fluid interface for setting options properties.
+     */
+    public static class OptionsBuilder {
+        private int producers = 0;
+        private int rate = 0;
+        private Arrival arrival;
+        private int eventsPerEnvelope = 0;
+        private int durationSeconds = 0;
+        private int warmupSeconds = 0;
+        private int latencyMillis = 0;
+        private String statusMix;
+        private int retries = 0;
+
+        /**
+         * Constructor
+         */
+        public OptionsBuilder() {
+
+        }
+
+        /**
+         * @param producers
+         * @return builder
+         */
+        public OptionsBuilder producers(final int producers) {
+            this.producers = producers;
+            return this;
+        }
+
+        /**
+         * @param rate
+         * @return builder
+         */
+        public OptionsBuilder rate(final int rate) {
+            this.rate = rate;
+            return this;
+        }
+
+        /**
+         * @param arrival
+         * @return builder
+         */
+        public OptionsBuilder arrival(final Arrival arrival) {
+            this.arrival = arrival;
+            return this;
+        }
+
+        /**
+         * @param eventsPerEnvelope
+         * @return builder
+         */
+        public OptionsBuilder eventsPerEnvelope(final int eventsPerEnvelope) {
+            this.eventsPerEnvelope = eventsPerEnvelope;
+            return this;
+        }
+
+        /**
+         * @param durationSeconds
+         * @return builder
+         */
+        public OptionsBuilder durationSeconds(final int durationSeconds) {
+            this.durationSeconds = durationSeconds;
+            return this;
+        }
+
+        /**
+         * @param warmupSeconds
+         * @return builder
+         */
+        public OptionsBuilder warmupSeconds(final int warmupSeconds) {
+            this.warmupSeconds = warmupSeconds;
+            return this;
+        }
+
+        /**
+         * @param latencyMillis
+         * @return builder
+         */
+        public OptionsBuilder latencyMillis(final int latencyMillis) {
+            this.latencyMillis = latencyMillis;
+            return this;
+        }
+
+        /**
+         * @param statusMix
+         * @return builder
+         */
+        public OptionsBuilder statusMix(final String statusMix) {
+            this.statusMix = statusMix;
+            return this;
+        }
+
+        /**
+         * @param retries
+         * @return builder
+         */
+        public OptionsBuilder retries(final int retries) {
+            this.retries = retries;
+            return this;
+        }
+
+        /**
+         * Client invokes build method in order to create an immutable object.
+         * @return a new instance of Options.
+         */
+        public LoadOptions build() {
+            return new LoadOptions(this);
+        }
+    }
+
+    /**
+     * Static Factory method.
+     * @return new builder instance
+     */
+    public static OptionsBuilder builder() {
+        return new OptionsBuilder();
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/**
+ * Result of a load generator run.  Latencies are recorded in microseconds.
+ */
+public class LoadReport {
+    private final LoadOptions options;
+    private final long envelopes;
+    private final long errors;
+    private final Histogram responseTime;
+    private final Histogram serviceTime;
+    private final Map<Integer, Long> statusCounts;
+
+    public LoadReport(LoadOptions options, long envelopes, long errors, Histogram responseTime,
+                      Histogram serviceTime, Map<Integer, Long> statusCounts) {
+        this.options = options;
+        this.envelopes = envelopes;
+        this.errors = errors;
+        this.responseTime = responseTime;
+        this.serviceTime = serviceTime;
+        this.statusCounts = statusCounts;
+    }
+
+    /**
+     * @return Envelopes sent during the measurement window
+     */
+    public long getEnvelopes() {
+        return envelopes;
+    }
+
+    /**
+     * @return Envelopes whose send failed
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return fraction of Envelopes whose send failed
+     */
+    public double getErrorRate() {
+        return envelopes > 0 ? (double) errors / envelopes : 0.0;
+    }
+
+    /**
+     * @return Envelopes per second
+     */
+    public double getThroughput() {
+        return (double) envelopes / options.getDurationSeconds();
+    }
+
+    /**
+     * @return events per second
+     */
+    public double getEventThroughput() {
+        return getThroughput() * options.getEventsPerEnvelope();
+    }
+
+    /**
+     * @return latency from intended start to completion, corrected for coordinated omission
+     */
+    public Histogram getResponseTime() {
+        return responseTime;
+    }
+
+    /**
+     * @return latency from actual send to completion
+     */
+    public Histogram getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * @return responses sent by the stub endpoint, keyed by status code, including warmup
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("throughput    : %.1f envelopes/s, %.1f events/s (target %d envelopes/s)%n",
+            getThroughput(), getEventThroughput(), options.getRate()));
+        builder.append(String.format("errors        : %d of %d (%.3f%%)%n", errors, envelopes, getErrorRate() * 100));
+        builder.append("response time : ").append(percentiles(responseTime)).append(String.format("%n"));
+        builder.append("service time  : ").append(percentiles(serviceTime)).append(String.format("%n"));
+        builder.append("status codes  : ").append(statusCounts).append(String.format("%n"));
+        return builder.toString();
+    }
+
+    private static String percentiles(Histogram histogram) {
+        return String.format("p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+            histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0);
+    }
+}
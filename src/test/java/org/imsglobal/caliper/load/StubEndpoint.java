@@ -0,0 +1,163 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Local HTTP/1.1 Caliper endpoint that drains each Envelope POST and answers after a fixed delay with a
+ * status code drawn from a weighted mix, e.g. "200=0.98,503=0.02".
+ */
+public class StubEndpoint implements Closeable {
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int[] statuses;
+    private final double[] cumulative;
+    private final AtomicLongArray counts;
+
+    /**
+     * Start the endpoint on an ephemeral loopback port.
+     * @param latencyMillis delay before each response
+     * @param statusMix comma separated status=weight pairs
+     * @throws IOException
+     */
+    public StubEndpoint(final long latencyMillis, String statusMix) throws IOException {
+        Map<Integer, Double> mix = parseStatusMix(statusMix);
+        this.statuses = new int[mix.size()];
+        this.cumulative = new double[mix.size()];
+        this.counts = new AtomicLongArray(mix.size());
+
+        double total = 0;
+        int i = 0;
+        for (Map.Entry<Integer, Double> entry : mix.entrySet()) {
+            total += entry.getValue();
+            statuses[i] = entry.getKey();
+            cumulative[i++] = total;
+        }
+        for (i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try (InputStream in = exchange.getRequestBody()) {
+                    byte[] buffer = new byte[8192];
+                    while (in.read(buffer) >= 0) {
+                        // discard the Envelope
+                    }
+                }
+                if (latencyMillis > 0) {
+                    try {
+                        Thread.sleep(latencyMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                int index = pick();
+                counts.incrementAndGet(index);
+                exchange.sendResponseHeaders(statuses[index], -1);
+                exchange.close();
+            }
+        });
+        this.server.start();
+    }
+
+    /**
+     * Get the endpoint URL.
+     * @return url
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Get the number of responses sent, keyed by status code.
+     * @return counts
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < statuses.length; i++) {
+            result.put(statuses[i], counts.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int pick() {
+        double draw = ThreadLocalRandom.current().nextDouble();
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (draw < cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+
+    /**
+     * Parse a status mix such as "200=0.98,503=0.02".
+     * @param statusMix
+     * @return weights keyed by status code
+     */
+    static Map<Integer, Double> parseStatusMix(String statusMix) {
+        Map<Integer, Double> mix = new LinkedHashMap<>();
+        for (String pair : statusMix.split(",")) {
+            String[] parts = pair.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected status=weight but was " + pair);
+            }
+            double weight = Double.parseDouble(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in " + pair);
+            }
+            mix.put(Integer.valueOf(parts[0].trim()), weight);
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Empty status mix");
+        }
+        return mix;
+    }
+}
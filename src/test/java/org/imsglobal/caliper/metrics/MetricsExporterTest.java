@@ -0,0 +1,218 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import org.imsglobal.caliper.CaliperSendable;
+import org.imsglobal.caliper.Envelope;
+import org.imsglobal.caliper.RecordingClient;
+import org.imsglobal.caliper.Sensor;
+import org.imsglobal.caliper.actions.Action;
+import org.imsglobal.caliper.config.Config;
+import org.imsglobal.caliper.entities.agent.Person;
+import org.imsglobal.caliper.entities.agent.SoftwareApplication;
+import org.imsglobal.caliper.events.SessionEvent;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class MetricsExporterTest {
+    private static final String BASE_IRI = "https://example.edu";
+
+    private MBeanServer server;
+    private Sensor sensor;
+    private RecordingClient client;
+    private MetricsExporter exporter;
+
+    @Before
+    public void setUp() {
+        server = MBeanServerFactory.newMBeanServer();
+        sensor = Sensor.create("sensor \"a\"");
+        client = new RecordingClient("client-1");
+        sensor.registerClient(client);
+        exporter = new MetricsExporter(server);
+        exporter.register(sensor);
+
+        sensor.send(envelope());
+        client.getStatistics().updateSendLatency(1500);
+        client.getStatistics().updateSerializedBytes(2048);
+    }
+
+    @After
+    public void teardown() {
+        exporter.close();
+        sensor.close();
+    }
+
+    @Test
+    public void rendersOpenMetrics() {
+        String text = exporter.scrape();
+
+        assertTrue(text, text.contains("# TYPE caliper_client_successful counter\n"));
+        assertTrue(text, text.contains("caliper_client_successful_total{sensor=\"sensor \\\"a\\\"\",client=\"client-1\"} 1\n"));
+        assertFalse(text, text.contains("caliper_client_successful_max"));
+        assertTrue(text, text.contains("# UNIT caliper_client_send_latency_seconds seconds\n"));
+        assertTrue(text, text.contains(
+            "caliper_client_send_latency_seconds{sensor=\"sensor \\\"a\\\"\",client=\"client-1\",quantile=\"0.99\"} 0.0015"));
+        assertTrue(text, text.contains("# UNIT caliper_client_serialized_bytes bytes\n"));
+        assertTrue(text, text.contains("caliper_sensor_events_total{sensor=\"sensor \\\"a\\\"\",type=\"SessionEvent\"} 2\n"));
+        assertTrue(text, text.contains("caliper_sensor_events_total{sensor=\"sensor \\\"a\\\"\",type=\"Person\"} 1\n"));
+        assertTrue(text, text.endsWith("# EOF\n"));
+    }
+
+    @Test
+    public void exportsDurationStatisticsInSeconds() {
+        client.getStatistics().updateCompressionTime(250);
+        client.getStatistics().updateCompressionTime(750);
+        client.getStatistics().updateCompressionRatio(0.25);
+
+        String text = exporter.scrape();
+        String labels = "{sensor=\"sensor \\\"a\\\"\",client=\"client-1\"} ";
+        assertTrue(text, text.contains("# TYPE caliper_client_compression_time_seconds summary\n"));
+        assertTrue(text, text.contains("# UNIT caliper_client_compression_time_seconds seconds\n"));
+        assertTrue(text, text.contains("caliper_client_compression_time_seconds_count" + labels + "2\n"));
+        assertTrue(text, text.contains("caliper_client_compression_time_seconds_sum" + labels + "0.001\n"));
+        assertTrue(text, text.contains("# UNIT caliper_client_compression_time_max_seconds seconds\n"));
+        assertTrue(text, text.contains("caliper_client_compression_time_max_seconds" + labels + "0.00075\n"));
+        assertTrue(text, text.contains("caliper_client_compression_ratio_max" + labels + "0.25\n"));
+    }
+
+    @Test
+    public void picksUpNewClientsAndStatistics() {
+        RecordingClient other = new RecordingClient("client-2");
+        other.getStatistics().updateFailed(1);
+        sensor.registerClient(other);
+        client.getStatistics().updateRetries(1);
+
+        String text = exporter.scrape();
+        assertTrue(text, text.contains("client=\"client-2\""));
+        assertTrue(text, text.contains("caliper_client_retries_total{"));
+
+        sensor.unregisterClient("client-2");
+        assertFalse(exporter.scrape().contains("client=\"client-2\""));
+    }
+
+    @Test
+    public void registersMBeans() throws Exception {
+        ObjectName name = new ObjectName(MetricsExporter.DOMAIN + ":type=Client,sensor="
+            + ObjectName.quote(sensor.getId()) + ",client=" + ObjectName.quote("client-1"));
+
+        assertTrue(server.isRegistered(name));
+        assertEquals(1, server.getAttribute(name, "Successful.Count"));
+        assertEquals(1L, server.getAttribute(name, "SerializedBytes.Count"));
+        assertEquals(2, server.getAttribute(new ObjectName(MetricsExporter.DOMAIN + ":type=Events,sensor="
+            + ObjectName.quote(sensor.getId())), "SessionEvent.Count"));
+
+        exporter.close();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void servesOverHttp() throws Exception {
+        HttpServer http = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        http.createContext("/metrics", exporter.handler());
+        http.start();
+        try {
+            URL url = new URL("http://127.0.0.1:" + http.getAddress().getPort() + "/metrics");
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertEquals(OpenMetricsWriter.CONTENT_TYPE, connection.getContentType());
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (InputStream in = connection.getInputStream()) {
+                byte[] buffer = new byte[4096];
+                for (int n; (n = in.read(buffer)) > 0; ) {
+                    body.write(buffer, 0, n);
+                }
+            }
+            assertTrue(body.toString("UTF-8").endsWith("# EOF\n"));
+        } finally {
+            http.stop(0);
+        }
+    }
+
+    @Test
+    public void scrapesWithoutAllocating() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        OpenMetricsWriter writer = exporter.getWriter();
+        OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+
+        for (int i = 0; i < 20000; i++) {
+            writer.write(sink);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 1000; i++) {
+            writer.write(sink);
+        }
+        long perScrape = (threads.getThreadAllocatedBytes(thread) - before) / 1000;
+
+        assertTrue("allocated " + perScrape + " bytes per scrape", perScrape < 64);
+    }
+
+    private static Envelope envelope() {
+        Person actor = Person.builder().id(BASE_IRI.concat("/users/554433")).build();
+        SoftwareApplication edApp = SoftwareApplication.builder().id(BASE_IRI).build();
+
+        List<CaliperSendable> data = new ArrayList<>();
+        data.add(event(actor, edApp, Action.LOGGED_IN));
+        data.add(event(actor, edApp, Action.LOGGED_OUT));
+        data.add(actor);
+        return new Envelope("sensor", DateTime.now(), Config.DATA_VERSION, data);
+    }
+
+    private static SessionEvent event(Person actor, SoftwareApplication edApp, Action action) {
+        return SessionEvent.builder()
+            .id("urn:uuid:fcd495d0-3740-4298-9bec-1154571dc211")
+            .actor(actor)
+            .action(action)
+            .object(edApp)
+            .eventTime(DateTime.now())
+            .build();
+    }
+}
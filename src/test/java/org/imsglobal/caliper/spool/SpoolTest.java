@@ -0,0 +1,137 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.spool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class SpoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysPayloadsInOrder() throws IOException {
+        try (Spool spool = Spool.open(options(folder.newFolder(), 4096, 4))) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(spool.append(bytes("payload-" + i)));
+            }
+
+            RecordingSink sink = new RecordingSink(Integer.MAX_VALUE);
+            assertEquals(10, spool.replay(sink));
+            for (int i = 0; i < 10; i++) {
+                assertEquals("payload-" + i, sink.received.get(i));
+            }
+            assertTrue(spool.isEmpty());
+        }
+    }
+
+    @Test
+    public void rollsAndDeletesSegments() throws IOException {
+        File dir = folder.newFolder();
+        try (Spool spool = Spool.open(options(dir, 256, 8))) {
+            byte[] payload = new byte[100];
+            for (int i = 0; i < 6; i++) {
+                assertTrue(spool.append(payload));
+            }
+            assertEquals(3, spool.getSegmentCount());
+
+            assertEquals(6, spool.replay(new RecordingSink(Integer.MAX_VALUE)));
+            assertEquals(1, spool.getSegmentCount());
+            assertEquals(1, dir.listFiles(new SegmentFilter()).length);
+        }
+    }
+
+    @Test
+    public void rejectsAppendsBeyondDiskBound() throws IOException {
+        try (Spool spool = Spool.open(options(folder.newFolder(), 256, 2))) {
+            byte[] payload = new byte[100];
+            for (int i = 0; i < 4; i++) {
+                assertTrue(spool.append(payload));
+            }
+            assertFalse(spool.append(payload));
+            assertFalse(spool.append(new byte[1024]));
+        }
+    }
+
+    @Test
+    public void stopsAtRejectedPayloadAndResumesAfterReopen() throws IOException {
+        File dir = folder.newFolder();
+        try (Spool spool = Spool.open(options(dir, 4096, 4))) {
+            for (int i = 0; i < 5; i++) {
+                spool.append(bytes("payload-" + i));
+            }
+            assertEquals(2, spool.replay(new RecordingSink(2)));
+            assertFalse(spool.isEmpty());
+        }
+
+        try (Spool spool = Spool.open(options(dir, 4096, 4))) {
+            RecordingSink sink = new RecordingSink(Integer.MAX_VALUE);
+            assertEquals(3, spool.replay(sink));
+            assertEquals("payload-2", sink.received.get(0));
+            assertEquals("payload-4", sink.received.get(2));
+        }
+    }
+
+    private static SpoolOptions options(File dir, int segmentSize, int maxSegments) {
+        return SpoolOptions.builder().directory(dir).segmentSize(segmentSize).maxSegments(maxSegments).build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class RecordingSink implements Spool.Sink {
+        private final int limit;
+        private final List<String> received = new ArrayList<>();
+
+        RecordingSink(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean deliver(byte[] payload) {
+            if (received.size() >= limit) {
+                return false;
+            }
+            received.add(new String(payload, StandardCharsets.UTF_8));
+            return true;
+        }
+    }
+
+    private static class SegmentFilter implements java.io.FilenameFilter {
+        @Override
+        public boolean accept(File dir, String name) {
+            return name.endsWith(".seg");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.statistics;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class HistogramStatisticTest {
+
+    @Test
+    public void reportsPercentiles() {
+        HistogramStatistic histogram = new HistogramStatistic();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertWithin(500, histogram.getP50());
+        assertWithin(990, histogram.getP99());
+        assertWithin(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 1.0);
+    }
+
+    @Test
+    public void mergesIntervals() {
+        HistogramStatistic first = new HistogramStatistic();
+        HistogramStatistic second = new HistogramStatistic();
+        first.record(10);
+        second.record(20);
+        second.record(30);
+
+        first.merge(second);
+
+        assertEquals(3, first.getCount());
+        assertWithin(30, first.getMax());
+        assertEquals(2, second.getCount());
+    }
+
+    @Test
+    public void clearResetsCounts() {
+        HistogramStatistic histogram = new HistogramStatistic();
+        histogram.record(42);
+        histogram.clear();
+
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void statisticsMergeAndPrintHistograms() {
+        Statistics first = new Statistics();
+        Statistics second = new Statistics();
+        first.updateSendLatency(100);
+        second.updateSendLatency(200);
+        second.updateSerializedBytes(512);
+
+        first.mergeHistograms(second);
+
+        assertEquals(2, first.getSendLatency().getCount());
+        assertEquals(1, first.getSerializedBytes().getCount());
+        assertTrue(first.toString().contains("SendLatency"));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual, Math.abs(expected - actual) <= expected / 100 + 1);
+    }
+}
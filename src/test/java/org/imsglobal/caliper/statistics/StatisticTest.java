@@ -0,0 +1,98 @@
+/**
+ * This file is part of IMS Caliper Analytics™ and is licensed to
+ * IMS Global Learning Consortium, Inc. (http://www.imsglobal.org)
+ * under one or more contributor license agreements.  See the NOTICE
+ * file distributed with this work for additional information.
+ *
+ * IMS Caliper is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, version 3 of the License.
+ *
+ * IMS Caliper is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.imsglobal.caliper.statistics;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(org.imsglobal.caliper.UnitTest.class)
+public class StatisticTest {
+
+    @Test
+    public void computesSampleVariance() {
+        Statistic statistic = new Statistic();
+        for (double val : new double[] {2, 4, 4, 4, 5, 5, 7, 9}) {
+            statistic.update(val);
+        }
+
+        assertEquals(8, statistic.getCount());
+        assertEquals(40.0, statistic.getSum(), 0.0);
+        assertEquals(5.0, statistic.getAverage(), 1e-9);
+        assertEquals(32.0 / 7, statistic.getVariance(), 1e-9);
+        assertEquals(2.0, statistic.getMin(), 0.0);
+        assertEquals(9.0, statistic.getMax(), 0.0);
+        assertEquals(9.0, statistic.getLast(), 0.0);
+    }
+
+    @Test
+    public void keepsEveryConcurrentUpdate() throws Exception {
+        final Statistic statistic = new Statistic();
+        final int threads = 8;
+        final int perThread = 50000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        statistic.update(offset * perThread + i);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long n = (long) threads * perThread;
+        Statistic.Snapshot snapshot = statistic.snapshot();
+        assertEquals(n, snapshot.getCount());
+        assertEquals(n * (n - 1) / 2.0, snapshot.getSum(), 0.0);
+        assertEquals(0.0, snapshot.getMin(), 0.0);
+        assertEquals(n - 1, snapshot.getMax(), 0.0);
+        // variance of 0..n-1 is n(n+1)/12
+        assertEquals(n * (n + 1) / 12.0, snapshot.getVariance(), 1e-6 * n * n);
+    }
+
+    @Test
+    public void clearResetsAllCells() {
+        StatisticsMap map = new StatisticsMap();
+        map.update("key", 3.0);
+        map.update("key", 5.0);
+        map.get("key").clear();
+        map.update("key", 7.0);
+
+        assertEquals(1, map.ensure("key").getCount());
+        assertEquals(7.0, map.ensure("key").getMin(), 0.0);
+        assertEquals(0.0, map.ensure("key").getVariance(), 0.0);
+    }
+}